@@ -0,0 +1,146 @@
+package am.aua.game.ai;
+
+import am.aua.game.gameLogic.Action;
+import am.aua.game.gameLogic.ActionBuffer;
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.navigation.CellSet;
+import am.aua.game.navigation.Map;
+import am.aua.game.players.Player;
+import am.aua.game.units.Unit;
+import am.aua.game.units.UnitType;
+
+/**
+ * Orders and prunes the actions searched by the computer players: captures first, then
+ * moves toward the centre of the enemy's territory, purchases close to it, and finally the
+ * end of the turn. Only the {@value AlphaBetaPlayer#PURCHASE_CANDIDATES} most promising
+ * purchases are kept and sales are dropped. Instances keep scratch state and are not
+ * thread-safe.
+ */
+final class ActionOrdering {
+    private final int[] topPurchases = new int[AlphaBetaPlayer.PURCHASE_CANDIDATES];
+
+    /**
+     * Copies the actions worth searching into {@code out}, with their ordering scores at the
+     * same positions of the returned array: sales are dropped and only the best purchases
+     * are kept. Higher scores should be tried first.
+     *
+     * @param game    the game, whose current player is the one to act
+     * @param actions the legal actions of the current player
+     * @param out     the buffer receiving the kept actions; it is cleared first
+     * @param scores  an array for the scores, replaced by a larger one if too small
+     * @return the array holding the scores
+     */
+    int[] order(GameCore game, ActionBuffer actions, ActionBuffer out, int[] scores) {
+        Map map = game.getMap();
+        Player mover = game.getCurrentPlayer();
+        int target = enemyCentre(game, mover);
+        int targetX = map.xOf(target);
+        int targetY = map.yOf(target);
+
+        int purchaseCount = 0;
+        for (int i = 0; i < actions.size(); i++) {
+            long action = actions.get(i);
+            if (Action.kind(action) == Action.BUY) {
+                int score = purchaseScore(map, action, targetX, targetY);
+                if (purchaseCount < AlphaBetaPlayer.PURCHASE_CANDIDATES) {
+                    topPurchases[purchaseCount++] = score;
+                } else {
+                    int lowest = 0;
+                    for (int k = 1; k < AlphaBetaPlayer.PURCHASE_CANDIDATES; k++) {
+                        if (topPurchases[k] < topPurchases[lowest]) {
+                            lowest = k;
+                        }
+                    }
+                    topPurchases[lowest] = Math.max(topPurchases[lowest], score);
+                }
+            }
+        }
+        int threshold = Integer.MIN_VALUE;
+        if (purchaseCount == AlphaBetaPlayer.PURCHASE_CANDIDATES) {
+            threshold = Integer.MAX_VALUE;
+            for (int score : topPurchases) {
+                threshold = Math.min(threshold, score);
+            }
+        }
+
+        out.clear();
+        int[] outScores = scores.length < actions.size() ? new int[actions.size() * 2] : scores;
+        int keptPurchases = 0;
+        for (int i = 0; i < actions.size(); i++) {
+            long action = actions.get(i);
+            int score;
+            switch (Action.kind(action)) {
+                case Action.ATTACK -> score = attackScore(map, action);
+                case Action.MOVE -> {
+                    int from = Action.from(action);
+                    int to = Action.to(action);
+                    int before = Math.max(Math.abs(map.xOf(from) - targetX), Math.abs(map.yOf(from) - targetY));
+                    int after = Math.max(Math.abs(map.xOf(to) - targetX), Math.abs(map.yOf(to) - targetY));
+                    score = 3_000 + (before - after) * 10;
+                }
+                case Action.BUY -> {
+                    score = purchaseScore(map, action, targetX, targetY);
+                    if (score < threshold || keptPurchases == AlphaBetaPlayer.PURCHASE_CANDIDATES) {
+                        continue;
+                    }
+                    keptPurchases++;
+                }
+                case Action.END_TURN -> score = 2_000;
+                default -> {
+                    continue;
+                }
+            }
+            outScores[out.size()] = score;
+            out.add(action);
+        }
+        return outScores;
+    }
+
+    /**
+     * Scores an attack: kills first, then by the value of the victim, cheapest attacker first.
+     */
+    private static int attackScore(Map map, long action) {
+        Unit attacker = map.getUnit(Action.from(action));
+        Unit victim = map.getUnit(Action.to(action));
+        int score = 100_000 + victim.getPrice() - attacker.getPrice() / 10;
+        if (victim.getHealth() <= attacker.getAttackPower()) {
+            score += 50_000;
+        }
+        return score;
+    }
+
+    /**
+     * Scores a purchase by how close it places the unit to the enemy, then by its strength.
+     */
+    private static int purchaseScore(Map map, long action, int targetX, int targetY) {
+        int cell = Action.to(action);
+        UnitType type = Action.unitType(action);
+        int distance = Math.max(Math.abs(map.xOf(cell) - targetX), Math.abs(map.yOf(cell) - targetY));
+        return 1_000 - distance * 20 + type.getAttackPower();
+    }
+
+    /**
+     * Returns the cell at the centre of the enemies' territory, or of the map if they hold none.
+     */
+    private static int enemyCentre(GameCore game, Player mover) {
+        Map map = game.getMap();
+        long sumX = 0;
+        long sumY = 0;
+        int count = 0;
+        for (Player p : game.getPlayers()) {
+            if (p == mover) {
+                continue;
+            }
+            CellSet territory = p.getTerritory();
+            for (int cell = territory.nextSetBit(0); cell >= 0; cell = territory.nextSetBit(cell + 1)) {
+                sumX += map.xOf(cell);
+                sumY += map.yOf(cell);
+                count++;
+            }
+        }
+        if (count == 0) {
+            return map.indexOf(map.getWidth() / 2, map.getHeight() / 2);
+        }
+        return map.indexOf((int) (sumX / count), (int) (sumY / count));
+    }
+}
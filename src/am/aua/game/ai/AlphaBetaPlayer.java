@@ -0,0 +1,342 @@
+package am.aua.game.ai;
+
+import am.aua.game.gameLogic.Action;
+import am.aua.game.gameLogic.ActionBuffer;
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.players.Player;
+import am.aua.game.simulation.PlayerStrategy;
+import am.aua.game.simulation.Simulation;
+
+/**
+ * A computer player that searches the game tree with alpha-beta pruning and iterative
+ * deepening under a hard time budget.
+ * <p>
+ * Every action is one ply, so a turn spent buying units and then moving spans several
+ * plies of the same player; a node maximises when the player to act is the searching one.
+ * The search runs in place on the live game through {@link GameCore#apply(long)} and
+ * {@link GameCore#undo(int)}, and leaves it unchanged. Actions are tried captures first,
+ * then moves toward the enemy's territory, purchases close to it, and finally the end of
+ * the turn; only the {@value #PURCHASE_CANDIDATES} most promising purchases are searched,
+ * and the computer never sells.
+ * <p>
+ * Positions are scored by material (unit price scaled by remaining health), resources and
+ * territory. Searched positions are remembered in a {@link TranspositionTable} keyed by
+ * {@link GameCore#getHash()}, which cuts off positions reached again by another order of
+ * actions and supplies the best action of earlier iterations to try first. Instances keep
+ * their search buffers and are not thread-safe, but several players, even on different
+ * threads, may share one table.
+ */
+public class AlphaBetaPlayer implements PlayerStrategy {
+    /** Time a turn may take by default, in milliseconds. */
+    public static final long DEFAULT_BUDGET_MILLIS = 200;
+
+    /** Number of purchases considered per node, the best-ordered ones. */
+    public static final int PURCHASE_CANDIDATES = 12;
+
+    /** Size of the transposition table a player creates for itself, in MiB. */
+    public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    private static final int MAX_DEPTH = 64;
+    private static final int WIN = 1_000_000;
+    private static final int TIME_CHECK_MASK = 255;
+
+    private final long budgetNanos;
+    private final ActionBuffer legalActions = new ActionBuffer();
+    private final ActionBuffer[] generated = new ActionBuffer[MAX_DEPTH + 1];
+    private final ActionBuffer[] ordered = new ActionBuffer[MAX_DEPTH + 1];
+    private final int[][] scores = new int[MAX_DEPTH + 1][];
+    private final ActionOrdering ordering = new ActionOrdering();
+    private final TranspositionTable table;
+    private final TranspositionTable.Entry entry = new TranspositionTable.Entry();
+
+    private GameCore game;
+    private Player player;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private int completedDepth;
+
+    /**
+     * Constructs a computer player with the default time budget.
+     */
+    public AlphaBetaPlayer() {
+        this(DEFAULT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Constructs a computer player with the given time budget.
+     *
+     * @param budgetMillis the time a turn may take, in milliseconds; each decision made
+     *                     through {@link #chooseAction} may take as long
+     */
+    public AlphaBetaPlayer(long budgetMillis) {
+        this(budgetMillis, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Constructs a computer player with the given time budget and transposition table.
+     *
+     * @param budgetMillis the time a turn may take, in milliseconds
+     * @param table        the transposition table, which may be shared with other players
+     */
+    public AlphaBetaPlayer(long budgetMillis, TranspositionTable table) {
+        if (budgetMillis < 1) {
+            throw new IllegalArgumentException("Time budget must be positive: " + budgetMillis);
+        }
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.table = table;
+        for (int ply = 0; ply <= MAX_DEPTH; ply++) {
+            generated[ply] = new ActionBuffer();
+            ordered[ply] = new ActionBuffer();
+            scores[ply] = new int[256];
+        }
+    }
+
+    @Override
+    public long chooseAction(GameCore game, ActionBuffer legalActions) {
+        return search(game, legalActions, System.nanoTime() + budgetNanos);
+    }
+
+    /**
+     * Plays the whole turn of the current player: purchases followed by a move or an
+     * attack, or simply the end of the turn. The turn as a whole stays within the budget.
+     *
+     * @param game the game, whose current player is the computer
+     * @return the actions performed, in order
+     */
+    public ActionBuffer playTurn(GameCore game) {
+        ActionBuffer performed = new ActionBuffer(Simulation.DEFAULT_MAX_ACTIONS_PER_TURN + 1);
+        Player current = game.getCurrentPlayer();
+        int turn = game.getTurnCount();
+        long turnDeadline = System.nanoTime() + budgetNanos;
+        while (game.getTurnCount() == turn && !game.checkLooseCondition()) {
+            long action;
+            if (performed.size() == Simulation.DEFAULT_MAX_ACTIONS_PER_TURN) {
+                action = Action.endTurn();
+            } else {
+                game.generateLegalActions(current, legalActions);
+                long now = System.nanoTime();
+                action = search(game, legalActions, now + Math.max(0, turnDeadline - now) / 2);
+            }
+            game.perform(action);
+            performed.add(action);
+        }
+        return performed;
+    }
+
+    /**
+     * Returns the depth of the last fully searched iteration of the most recent decision.
+     *
+     * @return the depth in plies, or 0 if not even one ply could be completed
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the number of nodes visited by the most recent decision.
+     *
+     * @return the node count
+     */
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Returns the transposition table used by this player.
+     *
+     * @return the table
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Finds the best action by iterative deepening until the deadline.
+     */
+    private long search(GameCore game, ActionBuffer legalActions, long deadline) {
+        this.game = game;
+        this.player = game.getCurrentPlayer();
+        this.deadline = deadline;
+        this.nodes = 0;
+        this.aborted = false;
+        this.completedDepth = 0;
+        table.newSearch();
+
+        scores[0] = ordering.order(game, legalActions, ordered[0], scores[0]);
+        ActionBuffer rootActions = ordered[0];
+        int[] rootScores = scores[0];
+        long rootHash = game.getHash();
+        if (table.probe(rootHash, entry)) {
+            promote(rootActions, rootScores, entry.getBestAction());
+        }
+        long best = pickNext(rootActions, rootScores, 0);
+
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            int alpha = -WIN - 1;
+            long iterationBest = best;
+            for (int i = 0; i < rootActions.size(); i++) {
+                long action = pickNext(rootActions, rootScores, i);
+                int record = game.apply(action);
+                int value = alphaBeta(depth - 1, alpha, WIN + 1, 1);
+                game.undo(record);
+                if (aborted) {
+                    break;
+                }
+                if (value > alpha) {
+                    alpha = value;
+                    iterationBest = action;
+                }
+            }
+            if (aborted) {
+                break;
+            }
+            best = iterationBest;
+            completedDepth = depth;
+            table.store(rootHash, depth, TranspositionTable.EXACT, toTable(alpha, 0, true), best);
+            if (Math.abs(alpha) >= WIN - MAX_DEPTH) {
+                break;
+            }
+            promote(rootActions, rootScores, best);
+        }
+        this.game = null;
+        return best;
+    }
+
+    private int alphaBeta(int depth, int alpha, int beta, int ply) {
+        if ((++nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() >= deadline) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        boolean maximising = game.getCurrentPlayer() == player;
+        if (game.checkLooseCondition()) {
+            return maximising ? -WIN + ply : WIN - ply;
+        }
+        if (depth == 0 || ply == MAX_DEPTH) {
+            return Evaluation.evaluate(game, player);
+        }
+
+        long hash = game.getHash();
+        long tableAction = 0;
+        if (table.probe(hash, entry)) {
+            tableAction = entry.getBestAction();
+            if (entry.getDepth() >= depth) {
+                int score = fromTable(entry.getScore(), ply, maximising);
+                int bound = maximising ? entry.getBound() : flip(entry.getBound());
+                if (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER && score >= beta
+                        || bound == TranspositionTable.UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+        game.generateLegalActions(game.getCurrentPlayer(), generated[ply]);
+        scores[ply] = ordering.order(game, generated[ply], ordered[ply], scores[ply]);
+        ActionBuffer actions = ordered[ply];
+        int[] actionScores = scores[ply];
+        if (tableAction != 0) {
+            promote(actions, actionScores, tableAction);
+        }
+        int best = maximising ? -WIN - 1 : WIN + 1;
+        long bestAction = 0;
+        for (int i = 0; i < actions.size(); i++) {
+            long action = pickNext(actions, actionScores, i);
+            int record = game.apply(action);
+            int value = alphaBeta(depth - 1, alpha, beta, ply + 1);
+            game.undo(record);
+            if (aborted) {
+                return 0;
+            }
+            if (maximising ? value > best : value < best) {
+                best = value;
+                bestAction = action;
+            }
+            if (maximising) {
+                alpha = Math.max(alpha, value);
+            } else {
+                beta = Math.min(beta, value);
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        int bound = best <= originalAlpha ? TranspositionTable.UPPER
+                : best >= originalBeta ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        table.store(hash, depth, maximising ? bound : flip(bound), toTable(best, ply, maximising), bestAction);
+        return best;
+    }
+
+    /*
+     * The table holds scores from the point of view of the player to act, with win and loss
+     * scores counted from the stored position rather than from the root, so entries stay
+     * valid whichever player searches and at whatever ply the position is reached again.
+     */
+
+    private static int toTable(int score, int ply, boolean maximising) {
+        int value = maximising ? score : -score;
+        if (value >= WIN - MAX_DEPTH) {
+            return value + ply;
+        }
+        if (value <= -WIN + MAX_DEPTH) {
+            return value - ply;
+        }
+        return value;
+    }
+
+    private static int fromTable(int value, int ply, boolean maximising) {
+        if (value >= WIN - MAX_DEPTH) {
+            value -= ply;
+        } else if (value <= -WIN + MAX_DEPTH) {
+            value += ply;
+        }
+        return maximising ? value : -value;
+    }
+
+    private static int flip(int bound) {
+        return bound == TranspositionTable.EXACT ? bound : TranspositionTable.LOWER + TranspositionTable.UPPER - bound;
+    }
+
+    /**
+     * Moves the best-scored action among positions {@code i} and later to position {@code i}
+     * and returns it. Picking lazily is cheaper than sorting when a cutoff comes early.
+     */
+    private static long pickNext(ActionBuffer actions, int[] actionScores, int i) {
+        int best = i;
+        for (int j = i + 1; j < actions.size(); j++) {
+            if (actionScores[j] > actionScores[best]) {
+                best = j;
+            }
+        }
+        if (best != i) {
+            long action = actions.get(best);
+            actions.set(best, actions.get(i));
+            actions.set(i, action);
+            int score = actionScores[best];
+            actionScores[best] = actionScores[i];
+            actionScores[i] = score;
+        }
+        return actions.get(i);
+    }
+
+    /**
+     * Gives an action the highest score, so it is searched first; an action promoted
+     * earlier drops back behind it.
+     */
+    private static void promote(ActionBuffer actions, int[] actionScores, long action) {
+        for (int i = 0; i < actions.size(); i++) {
+            if (actionScores[i] == Integer.MAX_VALUE) {
+                actionScores[i] = Integer.MAX_VALUE - 1;
+            }
+            if (actions.get(i) == action) {
+                actionScores[i] = Integer.MAX_VALUE;
+            }
+        }
+    }
+}
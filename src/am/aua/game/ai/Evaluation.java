@@ -0,0 +1,47 @@
+package am.aua.game.ai;
+
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.navigation.InfluenceMap;
+import am.aua.game.players.Player;
+
+import java.util.List;
+
+/**
+ * Static position scoring shared by the computer players: material (unit price scaled by
+ * remaining health), resources, territory, board control and the threat to each side's
+ * units. Every term is read from the game's {@link InfluenceMap}, so scoring a leaf costs
+ * a few array reads per player however many units are on the map.
+ */
+final class Evaluation {
+    /** Worth of one owned cell, in resource units. */
+    static final int TERRITORY_VALUE = 20;
+
+    /** Worth of one cell controlled by the player's units, in resource units. */
+    static final int CONTROL_VALUE = 5;
+
+    private Evaluation() {
+    }
+
+    /**
+     * Scores a position from one player's point of view, as their worth minus everyone else's.
+     *
+     * @param game   the game to score
+     * @param player the player whose point of view is taken
+     * @return the score; positive when the player is ahead
+     */
+    static int evaluate(GameCore game, Player player) {
+        InfluenceMap influence = game.getInfluence();
+        List<Player> players = game.getPlayers();
+        int value = 0;
+        for (int i = 0; i < players.size(); i++) {
+            Player p = players.get(i);
+            int worth = (int) p.getResources()
+                    + influence.getMaterial(i)
+                    + influence.getTerritory(i) * TERRITORY_VALUE
+                    + influence.getControlledCells(i) * CONTROL_VALUE
+                    - influence.getThreat(i);
+            value += p == player ? worth : -worth;
+        }
+        return value;
+    }
+}
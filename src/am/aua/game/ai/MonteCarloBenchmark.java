@@ -0,0 +1,40 @@
+package am.aua.game.ai;
+
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.navigation.Map;
+import am.aua.game.players.Player;
+import am.aua.game.simulation.RandomStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the playout rate of the {@link MonteCarloPlayer} on the opening position for
+ * every thread count from 1 to the number of available processors, and the speedup over
+ * a single thread.
+ * <p>
+ * Usage: {@code MonteCarloBenchmark [millisPerRun] [seed]}
+ */
+public class MonteCarloBenchmark {
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("Red"));
+        players.add(new Player("Blue"));
+        GameCore game = new GameCore(players, Map.DEFAULT_SIZE, Map.DEFAULT_SIZE, seed);
+
+        double baseline = 0;
+        for (int threads = 1; threads <= processors; threads = threads == processors ? threads + 1 : Math.min(threads * 2, processors)) {
+            try (MonteCarloPlayer player = new MonteCarloPlayer(threads, millis, RandomStrategy::new)) {
+                player.chooseAction(game, null);
+                double rate = player.getLastIterationCount() * 1000.0 / millis;
+                if (threads == 1) {
+                    baseline = rate;
+                }
+                System.out.printf("%3d threads: %,10.0f playouts/s  speedup %5.2fx%n", threads, rate, rate / baseline);
+            }
+        }
+    }
+}
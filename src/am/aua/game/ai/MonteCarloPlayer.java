@@ -0,0 +1,331 @@
+package am.aua.game.ai;
+
+import am.aua.game.gameLogic.Action;
+import am.aua.game.gameLogic.ActionBuffer;
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.players.Player;
+import am.aua.game.simulation.PlayerStrategy;
+import am.aua.game.simulation.RandomStrategy;
+import am.aua.game.simulation.Simulation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * A computer player using Monte Carlo tree search with tree parallelism: several worker
+ * threads grow one shared tree, each on its own {@link GameCore#copy() copy} of the game.
+ * <p>
+ * Nodes carry no locks. Visit and win counters are updated with atomic adds, and children
+ * are published with a compare-and-set, so a node expanded by two workers at once keeps
+ * one set of children. A worker descending through a node adds a virtual loss to it, which
+ * steers the other workers toward different branches until the playout result comes back.
+ * Children are created in {@link ActionOrdering} order and unvisited children are tried in
+ * that order, which acts as a cheap prior.
+ * <p>
+ * Playouts follow a configurable {@link PlayerStrategy} for a limited number of turns; an
+ * undecided playout goes to the player ahead on material, resources and territory.
+ * Thinking time is capped by the wall clock. {@link #chooseActionAsync} returns at once,
+ * so a user interface can wait for the result without blocking its own thread.
+ * Games with two players are assumed.
+ */
+public class MonteCarloPlayer implements PlayerStrategy, AutoCloseable {
+    /** Thinking time per decision by default, in milliseconds. */
+    public static final long DEFAULT_BUDGET_MILLIS = 1000;
+
+    /** Weight of the exploration term of the UCT formula. */
+    public static final double EXPLORATION = 1.4;
+
+    /** Number of losses a worker pretends to have had in a node while it is inside it. */
+    public static final int VIRTUAL_LOSS = 3;
+
+    /** Number of turns a playout runs before the position is scored. */
+    public static final int PLAYOUT_TURNS = 20;
+
+    private final int threads;
+    private final long budgetNanos;
+    private final LongFunction<PlayerStrategy> playoutPolicy;
+    private final ExecutorService workers;
+    private final AtomicLong seeds = new AtomicLong();
+    private volatile long lastIterations;
+
+    /**
+     * Constructs a player using all processors, the default budget and random playouts.
+     */
+    public MonteCarloPlayer() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_BUDGET_MILLIS, RandomStrategy::new);
+    }
+
+    /**
+     * Constructs a player.
+     *
+     * @param threads       the number of worker threads searching the tree
+     * @param budgetMillis  the thinking time per decision, in milliseconds
+     * @param playoutPolicy creates the strategy a worker follows in playouts, from a seed
+     */
+    public MonteCarloPlayer(int threads, long budgetMillis, LongFunction<PlayerStrategy> playoutPolicy) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        if (budgetMillis < 1) {
+            throw new IllegalArgumentException("Time budget must be positive: " + budgetMillis);
+        }
+        this.threads = threads;
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.playoutPolicy = playoutPolicy;
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches for the current player's best action, blocking for the whole budget.
+     * The search generates the legal actions itself, so {@code legalActions} is not read.
+     */
+    @Override
+    public long chooseAction(GameCore game, ActionBuffer legalActions) {
+        return chooseActionAsync(game).join();
+    }
+
+    /**
+     * Starts searching for the current player's best action and returns immediately.
+     * The game is copied before this method returns and may be changed afterwards; the
+     * search never touches it.
+     *
+     * @param game the game, whose current player is the computer
+     * @return a future completed with the chosen action once the budget has elapsed
+     */
+    public CompletableFuture<Long> chooseActionAsync(GameCore game) {
+        long deadline = System.nanoTime() + budgetNanos;
+        Node root = new Node(0, -1);
+        new Worker(game, null).expand(root);
+
+        CompletableFuture<?>[] running = new CompletableFuture<?>[threads];
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(game.copy(), playoutPolicy.apply(seeds.getAndIncrement()));
+            running[i] = CompletableFuture.runAsync(() -> worker.search(root, deadline), workers);
+        }
+        return CompletableFuture.allOf(running).thenApply(done -> {
+            lastIterations = root.visits;
+            return mostVisited(root).action;
+        });
+    }
+
+    /**
+     * Returns the number of playouts of the most recent completed decision.
+     *
+     * @return the playout count
+     */
+    public long getLastIterationCount() {
+        return lastIterations;
+    }
+
+    /**
+     * Stops the worker threads. Searches still running are abandoned.
+     */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    private static Node mostVisited(Node node) {
+        Node best = node.children[0];
+        for (Node child : node.children) {
+            if (child.visits > best.visits) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A search node: the action leading to it, the player who took that action, and the
+     * statistics of the playouts through it, counted in half wins so draws are exact.
+     */
+    private static final class Node {
+        static final VarHandle VISITS;
+        static final VarHandle WINS;
+        static final VarHandle CHILDREN;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                VISITS = lookup.findVarHandle(Node.class, "visits", int.class);
+                WINS = lookup.findVarHandle(Node.class, "wins", int.class);
+                CHILDREN = lookup.findVarHandle(Node.class, "children", Node[].class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final long action;
+        final int mover;
+        volatile int visits;
+        volatile int wins;
+        volatile Node[] children;
+
+        Node(long action, int mover) {
+            this.action = action;
+            this.mover = mover;
+        }
+    }
+
+    /**
+     * The state a worker thread keeps for a whole search: its copy of the game, its playout
+     * strategy and its buffers.
+     */
+    private static final class Worker {
+        private final GameCore game;
+        private final PlayerStrategy policy;
+        private final ActionOrdering ordering = new ActionOrdering();
+        private final ActionBuffer actions = new ActionBuffer();
+        private final ActionBuffer kept = new ActionBuffer();
+        private int[] scores = new int[256];
+        private Node[] path = new Node[64];
+
+        Worker(GameCore game, PlayerStrategy policy) {
+            this.game = game;
+            this.policy = policy;
+        }
+
+        void search(Node root, long deadline) {
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                iterate(root);
+            }
+        }
+
+        /**
+         * Runs one selection, expansion, playout and backup, then restores the game.
+         */
+        private void iterate(Node root) {
+            int base = -1;
+            int length = 0;
+            Node node = root;
+            Node.VISITS.getAndAdd(root, VIRTUAL_LOSS);
+            path[length++] = root;
+            while (!game.checkLooseCondition()) {
+                Node[] children = node.children;
+                if (children == null) {
+                    children = expand(node);
+                }
+                Node child = select(node, children);
+                int previousVisits = (int) Node.VISITS.getAndAdd(child, VIRTUAL_LOSS);
+                int record = game.apply(child.action);
+                if (record < 0) {
+                    throw new IllegalStateException("Tree action no longer legal: " + Action.toString(child.action));
+                }
+                if (base < 0) {
+                    base = record;
+                }
+                if (length == path.length) {
+                    path = Arrays.copyOf(path, length * 2);
+                }
+                path[length++] = child;
+                node = child;
+                if (previousVisits == 0) {
+                    break;
+                }
+            }
+
+            int winner = playout();
+            for (int i = 0; i < length; i++) {
+                Node visited = path[i];
+                Node.VISITS.getAndAdd(visited, 1 - VIRTUAL_LOSS);
+                int reward = winner < 0 ? 1 : winner == visited.mover ? 2 : 0;
+                if (reward != 0 && visited.mover >= 0) {
+                    Node.WINS.getAndAdd(visited, reward);
+                }
+                path[i] = null;
+            }
+            if (base >= 0) {
+                game.undo(base);
+            }
+        }
+
+        /**
+         * Creates the children of a node for the legal actions of the current player, in
+         * search order, and publishes them unless another worker got there first.
+         */
+        Node[] expand(Node node) {
+            game.generateLegalActions(game.getCurrentPlayer(), actions);
+            scores = ordering.order(game, actions, kept, scores);
+            int mover = game.getPlayers().indexOf(game.getCurrentPlayer());
+            Node[] children = new Node[kept.size()];
+            for (int i = 0; i < children.length; i++) {
+                int best = i;
+                for (int j = i + 1; j < children.length; j++) {
+                    if (scores[j] > scores[best]) {
+                        best = j;
+                    }
+                }
+                long action = kept.get(best);
+                int score = scores[best];
+                kept.set(best, kept.get(i));
+                scores[best] = scores[i];
+                kept.set(i, action);
+                scores[i] = score;
+                children[i] = new Node(action, mover);
+            }
+            if (Node.CHILDREN.compareAndSet(node, null, children)) {
+                return children;
+            }
+            return node.children;
+        }
+
+        /**
+         * Picks the child with the best upper confidence bound; unvisited children first.
+         */
+        private static Node select(Node node, Node[] children) {
+            double logVisits = Math.log(Math.max(1, node.visits));
+            Node best = children[0];
+            double bestBound = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                int visits = child.visits;
+                if (visits == 0) {
+                    return child;
+                }
+                double bound = child.wins / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+                if (bound > bestBound) {
+                    bestBound = bound;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Plays on with the playout strategy and returns the index of the winner, or -1 for
+         * a draw. The actions are recorded, so the caller's undo takes them back.
+         */
+        private int playout() {
+            List<Player> players = game.getPlayers();
+            int turnLimit = game.getTurnCount() + PLAYOUT_TURNS;
+            while (!game.checkLooseCondition() && game.getTurnCount() < turnLimit) {
+                int turn = game.getTurnCount();
+                for (int taken = 0; game.getTurnCount() == turn; taken++) {
+                    if (taken == Simulation.DEFAULT_MAX_ACTIONS_PER_TURN) {
+                        game.apply(Action.endTurn());
+                        break;
+                    }
+                    game.generateLegalActions(game.getCurrentPlayer(), actions);
+                    if (game.apply(policy.chooseAction(game, actions)) < 0) {
+                        game.apply(Action.endTurn());
+                    }
+                }
+            }
+            if (game.checkLooseCondition()) {
+                return 1 - players.indexOf(game.getCurrentPlayer());
+            }
+            int score = Evaluation.evaluate(game, players.get(0));
+            return score > 0 ? 0 : score < 0 ? 1 : -1;
+        }
+    }
+}
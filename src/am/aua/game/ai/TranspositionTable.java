@@ -0,0 +1,219 @@
+package am.aua.game.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size transposition table for game tree search, stored in one preallocated
+ * {@code long[]} with no objects per entry.
+ * <p>
+ * Each entry takes three words: a check word, a data word packing score, depth, bound type
+ * and search generation, and the best {@link am.aua.game.gameLogic.Action Action}. Entries
+ * come in buckets of two: the first slot is depth-preferred and only gives way to an entry
+ * searched at least as deep, from a newer search or for the same position; the second slot
+ * is always replaced.
+ * <p>
+ * Several threads may probe and store at once without locking. The check word holds the
+ * position hash XORed with the other two words, so an entry torn by concurrent writers no
+ * longer verifies and simply reads as a miss.
+ */
+public final class TranspositionTable {
+    /** The stored score is the exact value of the position. */
+    public static final int EXACT = 0;
+    /** The value is at least the stored score. */
+    public static final int LOWER = 1;
+    /** The value is at most the stored score. */
+    public static final int UPPER = 2;
+
+    private static final int WORDS_PER_ENTRY = 3;
+    private static final int WORDS_PER_BUCKET = 2 * WORDS_PER_ENTRY;
+
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int GENERATION_SHIFT = 48;
+    private static final long OCCUPIED = 1L << 62;
+
+    private final long[] table;
+    private final long bucketMask;
+    private volatile int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * Constructs a table using at most the given amount of memory. The number of buckets
+     * is the largest power of two that fits.
+     *
+     * @param megabytes the memory budget in MiB
+     */
+    public TranspositionTable(int megabytes) {
+        long bytes = (long) megabytes << 20;
+        long buckets = Long.highestOneBit(Math.max(1, bytes / (WORDS_PER_BUCKET * Long.BYTES)));
+        buckets = Math.min(buckets, Long.highestOneBit(Integer.MAX_VALUE / WORDS_PER_BUCKET));
+        this.table = new long[(int) (buckets * WORDS_PER_BUCKET)];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * What {@link #probe} found: the stored score, bound type, depth and best action.
+     * Reuse one instance per search thread.
+     */
+    public static final class Entry {
+        private int score;
+        private int depth;
+        private int bound;
+        private long bestAction;
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+         */
+        public int getBound() {
+            return bound;
+        }
+
+        /**
+         * @return the best action found for the position, or 0 if none
+         */
+        public long getBestAction() {
+            return bestAction;
+        }
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param hash the position's hash
+     * @param out  receives the entry if one is found
+     * @return true if the position was found
+     */
+    public boolean probe(long hash, Entry out) {
+        probes.increment();
+        int base = (int) (hash & bucketMask) * WORDS_PER_BUCKET;
+        for (int slot = base; slot < base + WORDS_PER_BUCKET; slot += WORDS_PER_ENTRY) {
+            long data = table[slot + 1];
+            long action = table[slot + 2];
+            long check = table[slot];
+            if ((data & OCCUPIED) != 0 && (check ^ data ^ action) == hash) {
+                out.score = (int) data;
+                out.depth = (int) (data >>> DEPTH_SHIFT) & 0xFF;
+                out.bound = (int) (data >>> BOUND_SHIFT) & 0x3;
+                out.bestAction = action;
+                hits.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores the result of searching a position.
+     *
+     * @param hash       the position's hash
+     * @param depth      the remaining depth the position was searched to, 0 to 255
+     * @param bound      {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     * @param score      the score
+     * @param bestAction the best action found, or 0 if none
+     */
+    public void store(long hash, int depth, int bound, int score, long bestAction) {
+        stores.increment();
+        int currentGeneration = generation;
+        long data = OCCUPIED
+                | (long) (currentGeneration & 0xFF) << GENERATION_SHIFT
+                | (long) (bound & 0x3) << BOUND_SHIFT
+                | (long) (Math.min(depth, 255) & 0xFF) << DEPTH_SHIFT
+                | (score & 0xFFFFFFFFL);
+        int slot = (int) (hash & bucketMask) * WORDS_PER_BUCKET;
+        long preferredData = table[slot + 1];
+        boolean samePosition = (table[slot] ^ preferredData ^ table[slot + 2]) == hash;
+        boolean stale = (int) (preferredData >>> GENERATION_SHIFT & 0xFF) != (currentGeneration & 0xFF);
+        int preferredDepth = (int) (preferredData >>> DEPTH_SHIFT) & 0xFF;
+        if ((preferredData & OCCUPIED) != 0 && !samePosition && !stale && depth < preferredDepth) {
+            slot += WORDS_PER_ENTRY;
+        }
+        table[slot + 1] = data;
+        table[slot + 2] = bestAction;
+        table[slot] = hash ^ data ^ bestAction;
+    }
+
+    /**
+     * Marks the start of a new search, so entries of earlier searches give way to new ones.
+     */
+    public void newSearch() {
+        generation++;
+    }
+
+    /**
+     * Removes every entry and resets the statistics.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        probes.reset();
+        hits.reset();
+        stores.reset();
+    }
+
+    /**
+     * Returns the number of entries the table can hold.
+     *
+     * @return the capacity in entries
+     */
+    public int getCapacity() {
+        return table.length / WORDS_PER_ENTRY;
+    }
+
+    /**
+     * Returns the memory taken by the table's storage.
+     *
+     * @return the size in bytes
+     */
+    public long getMemoryBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    public long getProbeCount() {
+        return probes.sum();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getStoreCount() {
+        return stores.sum();
+    }
+
+    /**
+     * Returns the share of probes that found their position.
+     *
+     * @return the hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long total = getProbeCount();
+        return total == 0 ? 0 : (double) getHitCount() / total;
+    }
+
+    /**
+     * Estimates how full the table is by sampling up to a thousand entries.
+     *
+     * @return the share of sampled slots holding an entry, between 0 and 1
+     */
+    public double getFillRate() {
+        int samples = Math.min(1000, getCapacity());
+        int used = 0;
+        for (int i = 0; i < samples; i++) {
+            if ((table[i * WORDS_PER_ENTRY + 1] & OCCUPIED) != 0) {
+                used++;
+            }
+        }
+        return (double) used / samples;
+    }
+}
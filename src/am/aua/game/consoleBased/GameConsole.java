@@ -1,6 +1,8 @@
 package am.aua.game.consoleBased;
 
+import am.aua.game.ai.AlphaBetaPlayer;
 import am.aua.game.exceptions.*;
+import am.aua.game.fileIO.ActionJournal;
 import am.aua.game.fileIO.SaveLoadManager;
 import am.aua.game.gameLogic.GameCore;
 import am.aua.game.navigation.Cell;
@@ -9,6 +11,8 @@ import am.aua.game.players.Player;
 import am.aua.game.gameLogic.*;
 import am.aua.game.units.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Scanner;
 
@@ -16,11 +20,17 @@ public class GameConsole {
 
     public static void startGame() throws NotYourUnitException, InvalidPathException, MalformedStringException, PathNotClearException, NotYourTerritoryException, CoordinateBlockedException {
         System.out.println("Game Started");
+        Scanner scanner = new Scanner(System.in);
+        ActionJournal.Recovery recovery = offerRecovery(scanner);
+        if (recovery != null) {
+            play(recovery.game(), recovery.isComputer(1) ? new AlphaBetaPlayer() : null, scanner);
+            return;
+        }
+
         System.out.println("Choose option");
         System.out.println("1. Play Game");
         System.out.println("2. Exit");
 
-        Scanner scanner = new Scanner(System.in);
         int choice = scanner.nextInt();
         scanner.nextLine();
 
@@ -37,140 +47,25 @@ public class GameConsole {
                         ArrayList<Player> players = new ArrayList<>();
                         System.out.println("First Player - ");
                         String firstName = scanner.nextLine();
-                        System.out.println("Second Player - ");
-                        String secondName = scanner.nextLine();
+                        System.out.println("Second Player: 1. Human 2. Computer");
+                        int opponent = scanner.nextInt();
+                        scanner.nextLine();
+                        AlphaBetaPlayer computer = null;
+                        String secondName;
+                        if (opponent == 2) {
+                            computer = new AlphaBetaPlayer();
+                            secondName = "Computer";
+                        } else {
+                            System.out.println("Second Player - ");
+                            secondName = scanner.nextLine();
+                        }
                         players.add(new Player(firstName));
                         players.add(new Player(secondName));
 
                         GameCore gameCore = new GameCore(players);
                         System.out.println("THE GAME STARTED");
 
-                        while (!gameCore.checkLooseCondition()) {
-                            System.out.println(gameCore.getCurrentPlayer().getName() + "'s turn");
-                            printMap(gameCore,gameCore.getMap());
-
-                            System.out.println("1. Move");
-                            System.out.println("2. Attack");
-                            System.out.println("3. Buy Unit");
-                            System.out.println("4. Sell Unit");
-                            System.out.println("5. Save Game");
-                            System.out.println("6. Load Game");
-                            System.out.println("7. Surrender");
-                            System.out.println("8. Exit");
-
-                            int playerChoice = scanner.nextInt();
-
-                            switch (playerChoice) {
-                                case 1:
-                                    System.out.println("Write the coordinates of your unit");
-                                    int x = scanner.nextInt();
-                                    int y = scanner.nextInt();
-                                    System.out.println("Write the coordinates of enemy's unit");
-                                    int eX = scanner.nextInt();
-                                    int eY = scanner.nextInt();
-
-                                    try {
-                                        gameCore.attackUnit(gameCore.getCurrentPlayer(),
-                                                gameCore.getMap().getCellAt(x, y).getUnit(),
-                                                gameCore.getMap().getCellAt(x, y),
-                                                gameCore.getMap().getCellAt(eX, eY));
-                                        System.out.println("Attack successful");
-                                    } catch (Exception e) {
-                                        System.out.println("Attack failed: " + e.getMessage());
-                                    }
-
-                                    gameCore.nextTurn();
-                                    break;
-
-                                case 2:
-                                    System.out.println("Write the coordinates of your unit");
-                                    int xMove = scanner.nextInt();
-                                    int yMove = scanner.nextInt();
-                                    System.out.println("Write the coordinates of destination cell");
-                                    int xDest = scanner.nextInt();
-                                    int yDest = scanner.nextInt();
-
-                                    try {
-                                        gameCore.moveUnit(gameCore.getCurrentPlayer(),
-                                                gameCore.getMap().getCellAt(xMove, yMove).getUnit(),
-                                                gameCore.getMap().getCellAt(xMove, yMove),
-                                                gameCore.getMap().getCellAt(xDest, yDest));
-                                        System.out.println("Move successful");
-                                    } catch (Exception e) {
-                                        System.out.println("Move failed: " + e.getMessage());
-                                    }
-
-                                    gameCore.nextTurn();
-                                    break;
-
-                                case 3:
-                                scanner.nextLine();
-                                System.out.println("Choose unit to buy: 1. Soldier, 2. Archer, 3. Tank");
-                                int unitChoice = scanner.nextInt();
-                                System.out.println("Enter coordinates to place the unit (x y):");
-                                int buyX = scanner.nextInt();
-                                int buyY = scanner.nextInt();
-
-                                Unit unitToBuy = null;
-                                switch (unitChoice) {
-                                    case 1 -> unitToBuy = new Soldier(gameCore.getCurrentPlayer());
-                                    case 2 -> unitToBuy = new Archer(gameCore.getCurrentPlayer());
-                                    case 3 -> unitToBuy = new Tank(gameCore.getCurrentPlayer());
-                                    default -> System.out.println("Invalid unit choice.");
-                                }
-
-                                if (unitToBuy != null) {
-                                    try {
-                                        gameCore.buyUnit(unitToBuy, buyX, buyY, gameCore.getMap());
-                                        System.out.println("Unit purchased.");
-                                    } catch (Exception e) {
-                                        System.out.println("Could not buy unit: " + e.getMessage());
-                                    }
-                                }
-                                gameCore.nextTurn();
-                                break;
-
-                            case 4:
-                                System.out.println("Enter coordinates of unit to sell (x y):");
-                                int sellX = scanner.nextInt();
-                                int sellY = scanner.nextInt();
-                                try {
-                                    gameCore.sellUnit(gameCore.getMap().getCellAt(sellX, sellY));
-                                    System.out.println("Unit sold.");
-                                } catch (Exception e) {
-                                    System.out.println("Could not sell unit: " + e.getMessage());
-                                }
-                                gameCore.nextTurn();
-                                break;
-
-                            case 5:
-                                System.out.println("Enter file path to save:");
-                                scanner.nextLine();
-                                String savePath = scanner.nextLine();
-                                gameCore.saveGame(savePath);
-                                System.out.println("Game saved.");
-                                break;
-
-                            case 6:
-                                System.out.println("Enter file path to load:");
-                                scanner.nextLine();
-                                String loadPath = scanner.nextLine();
-                                gameCore = SaveLoadManager.loadGame(loadPath);
-                                System.out.println("Game loaded.");
-                                break;
-
-                            case 7:
-                                System.out.println("Player " + gameCore.getCurrentPlayer().getName() + " surrendered.");
-                                return;
-
-                            case 8:
-                                System.out.println("Exiting...");
-                                return;
-                                default:
-                                    System.out.println("Invalid option");
-                            }
-                        }
-                        System.out.println("Game Over. " + gameCore.getCurrentPlayer().getName() + " lost.");
+                        play(gameCore, computer, scanner);
                         break;
                     }
                     case 2:
@@ -193,10 +88,241 @@ public class GameConsole {
         }
     }
 
+    /**
+     * Plays a game at the console until it is lost, surrendered or exited. The game is
+     * journaled to {@link ActionJournal#DEFAULT_PATH} while it runs, so that it can be
+     * resumed after a crash or an exit; the journal is deleted once the game is over.
+     *
+     * @param gameCore the game to play
+     * @param computer the computer player controlling the second player, or null
+     * @param scanner  the console input
+     */
+    private static void play(GameCore gameCore, AlphaBetaPlayer computer, Scanner scanner) {
+        ActionJournal journal = startJournal(gameCore, computer);
+        while (!gameCore.checkLooseCondition()) {
+            System.out.println(gameCore.getCurrentPlayer().getName() + "'s turn");
+            printMap(gameCore,gameCore.getMap());
+
+            if (computer != null && gameCore.getCurrentPlayer() == gameCore.getPlayers().get(1)) {
+                ActionBuffer performed = computer.playTurn(gameCore);
+                for (int i = 0; i < performed.size(); i++) {
+                    System.out.println("Computer: " + describe(gameCore.getMap(), performed.get(i)));
+                }
+                continue;
+            }
+
+            System.out.println("1. Attack");
+            System.out.println("2. Move");
+            System.out.println("3. Buy Unit");
+            System.out.println("4. Sell Unit");
+            System.out.println("5. Save Game");
+            System.out.println("6. Load Game");
+            System.out.println("7. Surrender");
+            System.out.println("8. Exit");
+
+            int playerChoice = scanner.nextInt();
+
+            switch (playerChoice) {
+                case 1:
+                    System.out.println("Write the coordinates of your unit");
+                    int x = scanner.nextInt();
+                    int y = scanner.nextInt();
+                    System.out.println("Write the coordinates of enemy's unit");
+                    int eX = scanner.nextInt();
+                    int eY = scanner.nextInt();
+
+                    try {
+                        gameCore.attackUnit(gameCore.getCurrentPlayer(),
+                                gameCore.getMap().getCellAt(x, y).getUnit(),
+                                gameCore.getMap().getCellAt(x, y),
+                                gameCore.getMap().getCellAt(eX, eY));
+                        System.out.println("Attack successful");
+                    } catch (Exception e) {
+                        System.out.println("Attack failed: " + e.getMessage());
+                        // a failed attack still uses up the turn; the core ends it only on success
+                        gameCore.nextTurn();
+                    }
+                    break;
+
+                case 2:
+                    System.out.println("Write the coordinates of your unit");
+                    int xMove = scanner.nextInt();
+                    int yMove = scanner.nextInt();
+                    System.out.println("Write the coordinates of destination cell");
+                    int xDest = scanner.nextInt();
+                    int yDest = scanner.nextInt();
+
+                    try {
+                        gameCore.moveUnit(gameCore.getCurrentPlayer(),
+                                gameCore.getMap().getCellAt(xMove, yMove).getUnit(),
+                                gameCore.getMap().getCellAt(xMove, yMove),
+                                gameCore.getMap().getCellAt(xDest, yDest));
+                        System.out.println("Move successful");
+                    } catch (Exception e) {
+                        System.out.println("Move failed: " + e.getMessage());
+                        // a failed move still uses up the turn; the core ends it only on success
+                        gameCore.nextTurn();
+                    }
+                    break;
+
+                case 3:
+                scanner.nextLine();
+                System.out.println("Choose unit to buy: 1. Soldier, 2. Archer, 3. Tank");
+                int unitChoice = scanner.nextInt();
+                System.out.println("Enter coordinates to place the unit (x y):");
+                int buyX = scanner.nextInt();
+                int buyY = scanner.nextInt();
+
+                Unit unitToBuy = null;
+                switch (unitChoice) {
+                    case 1 -> unitToBuy = new Soldier(gameCore.getCurrentPlayer());
+                    case 2 -> unitToBuy = new Archer(gameCore.getCurrentPlayer());
+                    case 3 -> unitToBuy = new Tank(gameCore.getCurrentPlayer());
+                    default -> System.out.println("Invalid unit choice.");
+                }
+
+                if (unitToBuy != null) {
+                    try {
+                        gameCore.buyUnit(unitToBuy, buyX, buyY, gameCore.getMap());
+                        System.out.println("Unit purchased.");
+                    } catch (Exception e) {
+                        System.out.println("Could not buy unit: " + e.getMessage());
+                    }
+                }
+                gameCore.nextTurn();
+                break;
+
+            case 4:
+                System.out.println("Enter coordinates of unit to sell (x y):");
+                int sellX = scanner.nextInt();
+                int sellY = scanner.nextInt();
+                try {
+                    gameCore.sellUnit(gameCore.getMap().getCellAt(sellX, sellY));
+                    System.out.println("Unit sold.");
+                } catch (Exception e) {
+                    System.out.println("Could not sell unit: " + e.getMessage());
+                }
+                gameCore.nextTurn();
+                break;
+
+            case 5:
+                System.out.println("Enter file path to save:");
+                scanner.nextLine();
+                String savePath = scanner.nextLine();
+                gameCore.saveGame(savePath);
+                System.out.println("Game saved.");
+                break;
+
+            case 6:
+                System.out.println("Enter file path to load:");
+                scanner.nextLine();
+                String loadPath = scanner.nextLine();
+                GameCore loaded = SaveLoadManager.loadGame(loadPath);
+                if (loaded == null) {
+                    System.out.println("Failed to load game.");
+                    break;
+                }
+                endJournal(journal, false);
+                gameCore = loaded;
+                journal = startJournal(gameCore, computer);
+                System.out.println("Game loaded.");
+                break;
+
+            case 7:
+                System.out.println("Player " + gameCore.getCurrentPlayer().getName() + " surrendered.");
+                endJournal(journal, true);
+                return;
+
+            case 8:
+                System.out.println("Exiting...");
+                endJournal(journal, false);
+                return;
+                default:
+                    System.out.println("Invalid option");
+            }
+        }
+        System.out.println("Game Over. " + gameCore.getCurrentPlayer().getName() + " lost.");
+        endJournal(journal, true);
+    }
+
+    /**
+     * Offers to resume the game left in the journal by a session that did not finish it.
+     *
+     * @return the recovered game, or null to continue to the menu
+     */
+    private static ActionJournal.Recovery offerRecovery(Scanner scanner) {
+        if (!Files.exists(ActionJournal.DEFAULT_PATH)) {
+            return null;
+        }
+        System.out.println("An unfinished game was found. Resume it? 1. Yes 2. No");
+        int answer = scanner.nextInt();
+        scanner.nextLine();
+        if (answer != 1) {
+            return null;
+        }
+        try {
+            ActionJournal.Recovery recovery = ActionJournal.recover(ActionJournal.DEFAULT_PATH);
+            if (!recovery.isComplete()) {
+                System.out.println("Part of the game could not be recovered: " + recovery.problem());
+            }
+            return recovery;
+        } catch (IOException e) {
+            System.err.println("Error recovering game: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Starts the journal of a game, noting whether the computer plays the second player.
+     */
+    private static ActionJournal startJournal(GameCore gameCore, AlphaBetaPlayer computer) {
+        try {
+            return ActionJournal.start(ActionJournal.DEFAULT_PATH, gameCore,
+                    ActionJournal.DEFAULT_SNAPSHOT_INTERVAL, computer == null ? 0 : 1 << 1);
+        } catch (IOException e) {
+            System.err.println("Error starting journal: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Closes the journal of a game, deleting it if the game is over.
+     */
+    private static void endJournal(ActionJournal journal, boolean gameOver) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            if (gameOver) {
+                journal.discard();
+            } else {
+                journal.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Describes an action in the coordinates the player types, for announcing computer moves.
+     */
+    private static String describe(Map map, long action) {
+        int from = Action.from(action);
+        int to = Action.to(action);
+        String source = map.xOf(from) + " " + map.yOf(from);
+        String target = map.xOf(to) + " " + map.yOf(to);
+        return switch (Action.kind(action)) {
+            case Action.MOVE -> "moved " + source + " to " + target;
+            case Action.ATTACK -> "attacked " + target + " from " + source;
+            case Action.BUY -> "bought a " + Action.unitType(action) + " at " + target;
+            case Action.SELL -> "sold the unit at " + source;
+            default -> "ended the turn";
+        };
+    }
+
     public static void printMap(GameCore gameCore, Map map) {
-        Cell[][] grid = map.getGrid();
-        int height = grid[0].length;
-        int width = grid.length;
+        int height = map.getHeight();
+        int width = map.getWidth();
 
         System.out.print("   ");
         for (int y = 0; y < height; y++) {
@@ -207,7 +333,7 @@ public class GameConsole {
         for (int x = 0; x < width; x++) {
             System.out.printf("%2d ", x);
             for (int y = 0; y < height; y++) {
-                Cell c = grid[x][y];
+                Cell c = map.getCellAt(x, y);
                 String symbol = ".";
                 String color = "";
 
@@ -0,0 +1,344 @@
+package am.aua.game.fileIO;
+
+import am.aua.game.gameLogic.Action;
+import am.aua.game.gameLogic.ActionObserver;
+import am.aua.game.gameLogic.GameCore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of a game: every action performed on the {@link GameCore} is
+ * appended as it happens, and a full snapshot of the game is appended every few turns.
+ * {@link #recover(Path)} rebuilds the game from the last snapshot and the actions after it.
+ * <p>
+ * The file starts with the magic bytes {@code AUAJ}, a version byte and a 4-byte big-endian
+ * mask of the players controlled by the computer, bit {@code i} for player {@code i}, so
+ * that a resumed game hands the same seats back to the computer. Then come the records:
+ * <ul>
+ *     <li>an action is encoded as described in {@link ActionRecords}, in 1 to 9 bytes;</li>
+ *     <li>a snapshot is the tag {@code 0x0F}, the length and CRC-32 of its data as 4-byte
+ *     big-endian integers, and the game in the {@link BinarySaveFormat binary save format}.</li>
+ * </ul>
+ * Each action is written to the file with a single system call before the action returns,
+ * so a crash of the process loses at most the action in progress. Snapshots are also
+ * forced to the storage device. A record cut short by a crash is ignored on recovery.
+ */
+public class ActionJournal implements ActionObserver, Closeable {
+    /** First bytes of every journal. */
+    static final byte[] MAGIC = {'A', 'U', 'A', 'J'};
+
+    /** Version written by {@link #start(Path, GameCore, int, int)}. */
+    static final int VERSION = 1;
+
+    /** Turns between two snapshots used by {@link #start(Path, GameCore)}. */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 20;
+
+    /** Journal of the game being played, kept in the working directory until the game ends. */
+    public static final Path DEFAULT_PATH = Path.of(System.getProperty("user.dir"), "game.journal");
+
+    private static final int SNAPSHOT = 0x0F;
+
+    private final Path path;
+    private final GameCore game;
+    private final int snapshotInterval;
+    private final FileChannel channel;
+
+    /** Encoding buffer of one action record. */
+    private final ByteBuffer record = ByteBuffer.allocateDirect(ActionRecords.MAX_LENGTH);
+
+    private int nextSnapshotTurn;
+
+    private ActionJournal(Path path, GameCore game, int snapshotInterval, FileChannel channel) {
+        this.path = path;
+        this.game = game;
+        this.snapshotInterval = snapshotInterval;
+        this.channel = channel;
+        this.nextSnapshotTurn = game.getTurnCount() + snapshotInterval;
+    }
+
+    /**
+     * Starts journaling a game between human players with a snapshot every
+     * {@value #DEFAULT_SNAPSHOT_INTERVAL} turns.
+     *
+     * @param path the journal file
+     * @param game the game to journal
+     * @return the journal, already observing the game
+     * @throws IOException if the journal cannot be written
+     * @see #start(Path, GameCore, int, int)
+     */
+    public static ActionJournal start(Path path, GameCore game) throws IOException {
+        return start(path, game, DEFAULT_SNAPSHOT_INTERVAL, 0);
+    }
+
+    /**
+     * Starts journaling a game between human players.
+     *
+     * @param path             the journal file
+     * @param game             the game to journal
+     * @param snapshotInterval the number of turns between two snapshots
+     * @return the journal, already observing the game
+     * @throws IOException if the journal cannot be written
+     * @see #start(Path, GameCore, int, int)
+     */
+    public static ActionJournal start(Path path, GameCore game, int snapshotInterval) throws IOException {
+        return start(path, game, snapshotInterval, 0);
+    }
+
+    /**
+     * Starts journaling a game: writes a new journal holding a snapshot of the current state
+     * and registers the journal as an {@link ActionObserver} of the game. An existing journal
+     * at the same path is only replaced once the new one is safely on disk, so a game that
+     * was just {@link #recover(Path) recovered} can be journaled to the same file.
+     *
+     * @param path             the journal file
+     * @param game             the game to journal
+     * @param snapshotInterval the number of turns between two snapshots
+     * @param computerPlayers  the players controlled by the computer, bit {@code i} set for
+     *                         player {@code i}
+     * @return the journal, already observing the game
+     * @throws IOException if the journal cannot be written
+     */
+    public static ActionJournal start(Path path, GameCore game, int snapshotInterval, int computerPlayers)
+            throws IOException {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotInterval);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(MAGIC.length + 5)
+                    .put(MAGIC).put((byte) VERSION).putInt(computerPlayers);
+            writeFully(out, header.flip());
+            writeSnapshot(out, game);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        ActionJournal journal = new ActionJournal(path, game, snapshotInterval,
+                FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        game.addActionObserver(journal);
+        return journal;
+    }
+
+    /**
+     * Returns the file this journal writes to.
+     *
+     * @return the journal path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Appends an action, followed by a snapshot when the interval has passed.
+     *
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    @Override
+    public void actionPerformed(GameCore game, long action) {
+        record.clear();
+        ActionRecords.put(record, action);
+        try {
+            writeFully(channel, record.flip());
+            if (game.getTurnCount() >= nextSnapshotTurn) {
+                snapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends a snapshot of the game now, for instance before a long pause, so that
+     * recovery does not have to replay the actions since the last one.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public void snapshot() throws IOException {
+        writeSnapshot(channel, game);
+        nextSnapshotTurn = game.getTurnCount() + snapshotInterval;
+    }
+
+    /**
+     * Stops observing the game and closes the file. The journal stays valid for recovery.
+     *
+     * @throws IOException if closing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        game.removeActionObserver(this);
+        channel.close();
+    }
+
+    /**
+     * Stops observing the game and deletes the journal, once the game is over and there is
+     * nothing left to recover.
+     *
+     * @throws IOException if the file cannot be closed or deleted
+     */
+    public void discard() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Rebuilds a journaled game: decodes the last complete snapshot and performs the actions
+     * recorded after it. A record cut short at the end of the file is ignored, since it is
+     * the action a crash interrupted. Should an action be rejected by the game, which only
+     * happens if the journal was altered, recovery stops before it and the result says so;
+     * the caller decides whether the game up to that point is worth continuing.
+     * <p>
+     * The recovered game is not journaled; {@link #start(Path, GameCore, int) start} a new
+     * journal to continue.
+     *
+     * @param path the journal file
+     * @return the recovered game and whether every recorded action was replayed
+     * @throws IOException if the file is not a journal or holds no complete snapshot
+     */
+    public static Recovery recover(Path path) throws IOException {
+        // read onto the heap rather than mapped, so that the file can be replaced straight
+        // away by the journal of the resumed game, which Windows forbids while it is mapped
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        byte[] magic = new byte[MAGIC.length];
+        if (buffer.remaining() > MAGIC.length) {
+            buffer.get(magic);
+        }
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not an action journal");
+        }
+        int version = buffer.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported journal version " + version);
+        }
+        if (buffer.remaining() < 4) {
+            throw new IOException("Truncated journal header");
+        }
+        int computerPlayers = buffer.getInt();
+
+        int snapshot = -1;
+        int snapshotLength = 0;
+        while (buffer.hasRemaining()) {
+            int position = buffer.position();
+            int length = skipRecord(buffer);
+            if (length < 0) {
+                break;
+            }
+            if (length > 0) {
+                snapshot = position;
+                snapshotLength = length;
+            }
+        }
+        if (snapshot < 0) {
+            throw new IOException("No complete snapshot in the journal");
+        }
+
+        int data = snapshot + 9;
+        byte[] state = new byte[snapshotLength];
+        buffer.get(data, state);
+        GameCore game = BinarySaveFormat.decode(ByteBuffer.wrap(state));
+        int cellCount = game.getMap().getCellCount();
+        buffer.position(data + snapshotLength);
+        int replayed = 0;
+        while (buffer.hasRemaining()) {
+            int position = buffer.position();
+            long action = ActionRecords.read(buffer);
+            if (action == 0) {
+                break;
+            }
+            if (Action.from(action) >= cellCount || Action.to(action) >= cellCount
+                    || !game.perform(action).isSuccess()) {
+                return new Recovery(game, computerPlayers, replayed, "stopped at byte " + position
+                        + ": cannot replay " + Action.toString(action));
+            }
+            replayed++;
+        }
+        return new Recovery(game, computerPlayers, replayed, null);
+    }
+
+    /**
+     * Outcome of {@link #recover(Path)}.
+     *
+     * @param game            the recovered game
+     * @param computerPlayers the players controlled by the computer, as given to
+     *                        {@link #start(Path, GameCore, int, int)}
+     * @param replayed        the number of actions performed after the last snapshot
+     * @param problem         why recovery stopped before the end of the journal, or null if
+     *                        every recorded action was replayed
+     */
+    public record Recovery(GameCore game, int computerPlayers, int replayed, String problem) {
+        /**
+         * Checks whether a player was controlled by the computer.
+         *
+         * @param player the player's index
+         * @return true if the computer played for the player
+         */
+        public boolean isComputer(int player) {
+            return (computerPlayers >>> player & 1) != 0;
+        }
+
+        /**
+         * Checks whether the game was rebuilt up to the last recorded action.
+         *
+         * @return true if no recorded action had to be dropped
+         */
+        public boolean isComplete() {
+            return problem == null;
+        }
+    }
+
+    /**
+     * Moves past one record.
+     *
+     * @return the data length of a snapshot, 0 for an action, or -1 if the record is
+     *         incomplete or not valid
+     */
+    private static int skipRecord(ByteBuffer buffer) {
+        int position = buffer.position();
+        if ((buffer.get(position) & 0xFF) != SNAPSHOT) {
+            return ActionRecords.read(buffer) == 0 ? -1 : 0;
+        }
+        if (buffer.remaining() < 9) {
+            return -1;
+        }
+        int length = buffer.getInt(position + 1);
+        int checksum = buffer.getInt(position + 5);
+        if (length < 0 || length > buffer.remaining() - 9) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position + 9, length));
+        if ((int) crc.getValue() != checksum) {
+            return -1;
+        }
+        buffer.position(position + 9 + length);
+        return length;
+    }
+
+    /**
+     * Appends a snapshot record of the game and forces the file to the storage device.
+     */
+    private static void writeSnapshot(FileChannel out, GameCore game) throws IOException {
+        byte[] state = BinarySaveFormat.encode(game);
+        CRC32 crc = new CRC32();
+        crc.update(state);
+        ByteBuffer header = ByteBuffer.allocate(9)
+                .put((byte) SNAPSHOT).putInt(state.length).putInt((int) crc.getValue());
+        writeFully(out, header.flip());
+        writeFully(out, ByteBuffer.wrap(state));
+        out.force(false);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
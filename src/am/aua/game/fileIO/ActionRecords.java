@@ -0,0 +1,115 @@
+package am.aua.game.fileIO;
+
+import am.aua.game.gameLogic.Action;
+import am.aua.game.units.UnitType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact byte encoding of single {@link Action}s, shared by the {@link ActionJournal} and
+ * game recordings.
+ * <p>
+ * An action is one tag byte, {@code unit type ordinal << 4 | action kind}, followed by the
+ * cells it needs as unsigned varints: source and target for moves and attacks, the target
+ * for purchases and the source for sales. Tags whose low four bits are not an action kind
+ * are free for the containing format's own records.
+ */
+final class ActionRecords {
+    /** Longest encoding of an action: a tag and two 28-bit varints. */
+    static final int MAX_LENGTH = 9;
+
+    private static final UnitType[] UNIT_TYPES = UnitType.values();
+
+    private ActionRecords() {
+    }
+
+    /**
+     * Appends the encoding of an action.
+     *
+     * @param buffer the buffer to write to, with at least {@link #MAX_LENGTH} bytes left
+     * @param action the encoded action
+     */
+    static void put(ByteBuffer buffer, long action) {
+        int kind = Action.kind(action);
+        switch (kind) {
+            case Action.MOVE, Action.ATTACK -> {
+                buffer.put((byte) kind);
+                putVarint(buffer, Action.from(action));
+                putVarint(buffer, Action.to(action));
+            }
+            case Action.BUY -> {
+                buffer.put((byte) (Action.unitType(action).ordinal() << 4 | kind));
+                putVarint(buffer, Action.to(action));
+            }
+            case Action.SELL -> {
+                buffer.put((byte) kind);
+                putVarint(buffer, Action.from(action));
+            }
+            default -> buffer.put((byte) kind);
+        }
+    }
+
+    /**
+     * Checks whether a tag byte starts an action rather than another kind of record.
+     *
+     * @param tag the tag byte
+     * @return true if the tag's low four bits are an action kind
+     */
+    static boolean isAction(int tag) {
+        int kind = tag & 0x0F;
+        return kind >= Action.MOVE && kind <= Action.END_TURN;
+    }
+
+    /**
+     * Reads one action.
+     *
+     * @param buffer the buffer positioned at the tag byte
+     * @return the encoded action, or 0 if the record is incomplete or not a valid action
+     */
+    static long read(ByteBuffer buffer) {
+        try {
+            int tag = buffer.get() & 0xFF;
+            int kind = tag & 0x0F;
+            int type = tag >>> 4;
+            if (type != 0 && (kind != Action.BUY || type >= UNIT_TYPES.length)) {
+                return 0;
+            }
+            return switch (kind) {
+                case Action.MOVE -> Action.move(getVarint(buffer), getVarint(buffer));
+                case Action.ATTACK -> Action.attack(getVarint(buffer), getVarint(buffer));
+                case Action.BUY -> Action.buy(UNIT_TYPES[type], getVarint(buffer));
+                case Action.SELL -> Action.sell(getVarint(buffer));
+                case Action.END_TURN -> Action.endTurn();
+                default -> 0;
+            };
+        } catch (BufferUnderflowException | IllegalStateException e) {
+            return 0;
+        }
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads a varint of at most 28 bits, the size of a cell index in an {@link Action}.
+     *
+     * @throws IllegalStateException if the varint is longer
+     */
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 28; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint too long");
+    }
+}
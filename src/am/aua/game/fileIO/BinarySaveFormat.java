@@ -0,0 +1,338 @@
+package am.aua.game.fileIO;
+
+import am.aua.game.gameLogic.Action;
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.navigation.CellSet;
+import am.aua.game.navigation.Map;
+import am.aua.game.players.Player;
+import am.aua.game.units.Unit;
+import am.aua.game.units.UnitType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of a saved game, used by {@link SaveLoadManager} next to the
+ * text format.
+ * <p>
+ * Layout, with every integer an unsigned LEB128 varint unless noted:
+ * <ol>
+ *     <li>the magic bytes {@code AUAG} and a version byte;</li>
+ *     <li>width, height, the map seed as 8 big-endian bytes, and the turn count;</li>
+ *     <li>the number of players, then per player the UTF-8 name (length first) and the
+ *     resources as 8 big-endian bytes of a {@code double}; then the current player's index;</li>
+ *     <li>the terrain in square blocks, so that a region can be decoded without the rest:
+ *     the block size, one 4-byte big-endian end offset per block in row-major block order,
+ *     then the blocks, each a series of runs {@code length << 2 | terrain ordinal} over its
+ *     cells in block-local row-major order;</li>
+ *     <li>the number of units, then per unit the distance of its cell from the previous
+ *     unit's cell, its type ordinal, its owner's index and its health (zigzag encoded);</li>
+ *     <li>per player the number of territory cells and their indices, each encoded as the
+ *     distance from the previous one.</li>
+ * </ol>
+ * Decoding is a single forward pass over a {@link ByteBuffer}, except for the terrain, which
+ * the loaded map reads block by block through a {@link SavedTerrain} as its chunks are
+ * touched.
+ */
+final class BinarySaveFormat {
+    /** First bytes of every binary save, distinguishing it from the text format. */
+    static final byte[] MAGIC = {'A', 'U', 'A', 'G'};
+
+    /** Version written by {@link #encode(GameCore)}. */
+    static final int VERSION = 2;
+
+    /** Side of a terrain block, the chunk size of {@link Map}, so that a chunk reads one block. */
+    private static final int BLOCK_SIZE = 32;
+
+    private static final UnitType[] UNIT_TYPES = UnitType.values();
+
+    private BinarySaveFormat() {
+    }
+
+    /**
+     * Checks whether data starts with the binary save magic.
+     *
+     * @param header the first bytes of a file
+     * @param length the number of valid bytes in {@code header}
+     * @return true if the data is a binary save
+     */
+    static boolean isBinary(byte[] header, int length) {
+        if (length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes a game.
+     *
+     * @param game the game to save
+     * @return the encoded save
+     */
+    static byte[] encode(GameCore game) {
+        Map map = game.getMap();
+        List<Player> players = game.getPlayers();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.writeBytes(MAGIC);
+        out.write(VERSION);
+        writeVarint(out, map.getWidth());
+        writeVarint(out, map.getHeight());
+        writeLong(out, map.getSeed());
+        writeVarint(out, game.getTurnCount());
+
+        writeVarint(out, players.size());
+        for (Player player : players) {
+            byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, name.length);
+            out.writeBytes(name);
+            writeLong(out, Double.doubleToLongBits(player.getResources()));
+        }
+        writeVarint(out, Math.max(0, players.indexOf(game.getCurrentPlayer())));
+
+        writeVarint(out, BLOCK_SIZE);
+        int blocksX = (map.getWidth() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int blocksY = (map.getHeight() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        ByteArrayOutputStream blocks = new ByteArrayOutputStream(256);
+        for (int by = 0; by < blocksY; by++) {
+            for (int bx = 0; bx < blocksX; bx++) {
+                writeBlock(blocks, map, bx * BLOCK_SIZE, by * BLOCK_SIZE);
+                writeInt(out, blocks.size());
+            }
+        }
+        out.writeBytes(blocks.toByteArray());
+
+        int cellCount = map.getCellCount();
+
+        int unitCount = 0;
+        for (Player player : players) {
+            unitCount += player.getOccupancy().size();
+        }
+        writeVarint(out, unitCount);
+        int previous = 0;
+        for (int i = 0; i < cellCount; i++) {
+            Unit unit = map.getUnit(i);
+            if (unit != null) {
+                writeVarint(out, i - previous);
+                out.write(unit.getType().ordinal());
+                writeVarint(out, players.indexOf(unit.getOwner()));
+                writeVarint(out, Integer.toUnsignedLong(zigzag(unit.getHealth())));
+                previous = i;
+            }
+        }
+
+        for (Player player : players) {
+            CellSet territory = player.getTerritory();
+            writeVarint(out, territory.size());
+            previous = 0;
+            for (int i = territory.nextSetBit(0); i >= 0; i = territory.nextSetBit(i + 1)) {
+                writeVarint(out, i - previous);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a game.
+     *
+     * @param buffer the encoded save, positioned at the magic bytes
+     * @return the loaded game
+     * @throws IOException if the data is not a valid save of a supported version
+     */
+    static GameCore decode(ByteBuffer buffer) throws IOException {
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!isBinary(magic, magic.length)) {
+                throw new IOException("Not a binary save");
+            }
+            int version = buffer.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported save version " + version);
+            }
+            int width = readInt(buffer);
+            int height = readInt(buffer);
+            if (width <= 0 || height <= 0 || (long) width * height > Action.MAX_CELL_COUNT) {
+                throw new IOException("Invalid map size " + width + "x" + height);
+            }
+            long seed = buffer.getLong();
+            int turn = readInt(buffer);
+
+            int playerCount = readInt(buffer);
+            if (playerCount == 0 || playerCount > buffer.remaining()) {
+                throw new IOException("Corrupt player count " + playerCount);
+            }
+            List<Player> players = new ArrayList<>(playerCount);
+            for (int i = 0; i < playerCount; i++) {
+                int nameLength = readInt(buffer);
+                if (nameLength == 0 || nameLength > buffer.remaining()) {
+                    throw new IOException("Corrupt name of player " + i);
+                }
+                byte[] name = new byte[nameLength];
+                buffer.get(name);
+                Player player = new Player(new String(name, StandardCharsets.UTF_8));
+                player.setResources(Double.longBitsToDouble(buffer.getLong()));
+                players.add(player);
+            }
+            int currentPlayer = readInt(buffer);
+            if (currentPlayer >= playerCount) {
+                throw new IOException("Corrupt current player " + currentPlayer);
+            }
+
+            Map map = decodeBlocks(buffer, width, height, seed);
+
+            int cellCount = map.getCellCount();
+            int unitCount = readInt(buffer);
+            int cell = 0;
+            for (int i = 0; i < unitCount; i++) {
+                int delta = readInt(buffer);
+                int type = buffer.get() & 0xFF;
+                int owner = readInt(buffer);
+                int health = unzigzag((int) readVarint(buffer));
+                if (delta > cellCount - 1 - cell || type >= UNIT_TYPES.length || owner >= playerCount) {
+                    throw new IOException("Corrupt unit " + i);
+                }
+                cell += delta;
+                Unit unit = UNIT_TYPES[type].create(players.get(owner));
+                unit.setHealth(health);
+                players.get(owner).getUnits().add(unit);
+                map.setUnit(cell, unit);
+            }
+
+            for (Player player : players) {
+                int count = readInt(buffer);
+                cell = 0;
+                for (int i = 0; i < count; i++) {
+                    int delta = readInt(buffer);
+                    if (delta > cellCount - 1 - cell) {
+                        throw new IOException("Corrupt territory of " + player.getName());
+                    }
+                    cell += delta;
+                    map.setOwner(cell, player);
+                    player.getTerritory().add(cell);
+                }
+            }
+
+            GameCore game = new GameCore(players, map);
+            game.setTurnCount(turn);
+            game.setCurrentPlayer(players.get(currentPlayer));
+            return game;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated save", e);
+        } catch (UncheckedIOException e) {
+            // a corrupt terrain block read while placing units or territory
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Creates a map whose terrain is read lazily from the blocks of the save, and moves the
+     * buffer past them. The block table is checked here, one pass over its offsets, so that
+     * every block lies within the save; the runs inside a block are only checked when the
+     * block is decoded.
+     */
+    private static Map decodeBlocks(ByteBuffer buffer, int width, int height, long seed) throws IOException {
+        int blockSize = readInt(buffer);
+        if (blockSize <= 0 || width <= 0 || height <= 0) {
+            throw new IOException("Corrupt terrain header");
+        }
+        long blockCount = ((width + (long) blockSize - 1) / blockSize) * ((height + (long) blockSize - 1) / blockSize);
+        int table = buffer.position();
+        long data = table + blockCount * 4;
+        if (data > buffer.limit()) {
+            throw new IOException("Truncated terrain table");
+        }
+        long available = buffer.limit() - data;
+        int end = 0;
+        for (int block = 0; block < blockCount; block++) {
+            int next = buffer.getInt(table + block * 4);
+            if (next <= end || next > available) {
+                throw new IOException("Corrupt terrain table at block " + block);
+            }
+            end = next;
+        }
+        buffer.position((int) data + end);
+        return new Map(width, height, seed, new SavedTerrain(buffer, width, height, blockSize, table, (int) data));
+    }
+
+    /**
+     * Writes the terrain runs of the block whose top-left cell is given.
+     */
+    private static void writeBlock(ByteArrayOutputStream out, Map map, int left, int top) {
+        int right = Math.min(left + BLOCK_SIZE, map.getWidth());
+        int bottom = Math.min(top + BLOCK_SIZE, map.getHeight());
+        int runLength = 0;
+        int runType = map.getTerrain(map.indexOf(left, top)).ordinal();
+        for (int y = top; y < bottom; y++) {
+            for (int x = left; x < right; x++) {
+                int type = map.getTerrain(map.indexOf(x, y)).ordinal();
+                if (type != runType) {
+                    writeVarint(out, (long) runLength << 2 | runType);
+                    runLength = 0;
+                    runType = type;
+                }
+                runLength++;
+            }
+        }
+        writeVarint(out, (long) runLength << 2 | runType);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(value >>> shift);
+        }
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static long readVarint(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int readInt(ByteBuffer buffer) throws IOException {
+        long value = readVarint(buffer);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Value out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
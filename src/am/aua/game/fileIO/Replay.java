@@ -0,0 +1,244 @@
+package am.aua.game.fileIO;
+
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.players.Player;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A game recording written by a {@link ReplayRecorder}, loaded into memory: how to rebuild
+ * the starting state, the ordered actions, and the state hashes expected at checkpoints.
+ * <p>
+ * Actions are held as their {@link am.aua.game.gameLogic.Action Action} encodings in a
+ * flat array, so replaying them costs nothing beyond performing them on the game.
+ * A recording whose recorder was never closed is loaded up to its last complete record.
+ */
+public class Replay {
+    private final Path path;
+
+    /** Starting state in the seed form, or null for a snapshot. */
+    private final SeededStart seededStart;
+
+    /** Starting state as a binary save, or null for the seed form. */
+    private final byte[] snapshot;
+
+    private long[] actions = new long[64];
+    private int actionCount;
+
+    private int[] checkpointPositions = new int[8];
+    private long[] checkpointHashes = new long[8];
+    private int checkpointCount;
+
+    private Replay(Path path, SeededStart seededStart, byte[] snapshot) {
+        this.path = path;
+        this.seededStart = seededStart;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Loads a recording.
+     *
+     * @param path the recording file
+     * @return the recording
+     * @throws IOException if the file cannot be read or is not a recording
+     */
+    public static Replay load(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        Replay replay;
+        try {
+            byte[] magic = new byte[ReplayRecorder.MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, ReplayRecorder.MAGIC)) {
+                throw new IOException("Not a game recording");
+            }
+            int version = buffer.get() & 0xFF;
+            if (version != ReplayRecorder.VERSION) {
+                throw new IOException("Unsupported recording version " + version);
+            }
+            int form = buffer.get() & 0xFF;
+            if (form == ReplayRecorder.SEEDED) {
+                replay = new Replay(path, SeededStart.read(buffer), null);
+            } else if (form == ReplayRecorder.SNAPSHOT) {
+                byte[] state = new byte[buffer.getInt()];
+                buffer.get(state);
+                replay = new Replay(path, null, state);
+            } else {
+                throw new IOException("Unknown starting state " + form);
+            }
+            getVarint(buffer);
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("Truncated recording header", e);
+        }
+        replay.readRecords(buffer);
+        return replay;
+    }
+
+    private void readRecords(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            int tag = buffer.get(buffer.position()) & 0xFF;
+            if (tag == ReplayRecorder.CHECKPOINT) {
+                if (buffer.remaining() < 9) {
+                    return;
+                }
+                buffer.get();
+                if (checkpointCount == checkpointPositions.length) {
+                    checkpointPositions = Arrays.copyOf(checkpointPositions, checkpointCount * 2);
+                    checkpointHashes = Arrays.copyOf(checkpointHashes, checkpointCount * 2);
+                }
+                checkpointPositions[checkpointCount] = actionCount;
+                checkpointHashes[checkpointCount++] = buffer.getLong();
+            } else {
+                long action = ActionRecords.isAction(tag) ? ActionRecords.read(buffer) : 0;
+                if (action == 0) {
+                    return;
+                }
+                if (actionCount == actions.length) {
+                    actions = Arrays.copyOf(actions, actionCount * 2);
+                }
+                actions[actionCount++] = action;
+            }
+        }
+    }
+
+    /**
+     * Returns the file the recording was loaded from.
+     *
+     * @return the recording path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Builds a new game in the recorded starting state.
+     *
+     * @return the game, ready for the first recorded action
+     * @throws IOException if the recorded snapshot cannot be decoded
+     */
+    public GameCore createGame() throws IOException {
+        if (snapshot != null) {
+            return BinarySaveFormat.decode(ByteBuffer.wrap(snapshot));
+        }
+        return seededStart.createGame();
+    }
+
+    /**
+     * Returns the number of recorded actions.
+     *
+     * @return the action count
+     */
+    public int getActionCount() {
+        return actionCount;
+    }
+
+    /**
+     * Returns a recorded action.
+     *
+     * @param index the position of the action, from 0
+     * @return the encoded action
+     */
+    public long getAction(int index) {
+        if (index >= actionCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return actions[index];
+    }
+
+    /**
+     * Returns the number of checkpoints, in the order of their positions.
+     *
+     * @return the checkpoint count
+     */
+    public int getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    /**
+     * Returns the number of actions performed before a checkpoint was taken.
+     *
+     * @param checkpoint the index of the checkpoint
+     * @return its position in the action stream
+     */
+    public int getCheckpointPosition(int checkpoint) {
+        if (checkpoint >= checkpointCount) {
+            throw new IndexOutOfBoundsException(checkpoint);
+        }
+        return checkpointPositions[checkpoint];
+    }
+
+    /**
+     * Returns the state hash recorded at a checkpoint.
+     *
+     * @param checkpoint the index of the checkpoint
+     * @return the expected {@link GameCore#getStateHash()}
+     */
+    public long getCheckpointHash(int checkpoint) {
+        if (checkpoint >= checkpointCount) {
+            throw new IndexOutOfBoundsException(checkpoint);
+        }
+        return checkpointHashes[checkpoint];
+    }
+
+    private static int getVarint(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Starting state of a game recorded from its first turn: the map's size and seed and
+     * the players' names and resources.
+     */
+    private record SeededStart(int width, int height, long seed, String[] names, double[] resources) {
+
+        static SeededStart read(ByteBuffer buffer) throws IOException {
+            int width = getVarint(buffer);
+            int height = getVarint(buffer);
+            long seed = buffer.getLong();
+            int playerCount = getVarint(buffer);
+            if (playerCount > buffer.remaining()) {
+                throw new IOException("Corrupt player count " + playerCount);
+            }
+            String[] names = new String[playerCount];
+            double[] resources = new double[playerCount];
+            for (int i = 0; i < playerCount; i++) {
+                byte[] name = new byte[getVarint(buffer)];
+                buffer.get(name);
+                names[i] = new String(name, StandardCharsets.UTF_8);
+                resources[i] = Double.longBitsToDouble(buffer.getLong());
+            }
+            return new SeededStart(width, height, seed, names, resources);
+        }
+
+        GameCore createGame() throws IOException {
+            List<Player> players = new ArrayList<>(names.length);
+            for (int i = 0; i < names.length; i++) {
+                Player player = new Player(names[i]);
+                player.setResources(resources[i]);
+                players.add(player);
+            }
+            if (players.isEmpty()) {
+                throw new IOException("Recording without players");
+            }
+            try {
+                return new GameCore(players, width, height, seed);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package am.aua.game.fileIO;
+
+import am.aua.game.gameLogic.ActionObserver;
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.navigation.Map;
+import am.aua.game.navigation.RandomTerrain;
+import am.aua.game.players.Player;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Records a game for deterministic replay: its starting state and the ordered stream of
+ * actions performed on it, with the {@link GameCore#getStateHash() state hash} at regular
+ * checkpoints so that a {@link Replay} can tell where a replay diverges. Actions never
+ * change terrain, so the checkpoints leave it out, and starting a recording reads no
+ * terrain beyond what the snapshot form saves.
+ * <p>
+ * The file starts with the magic bytes {@code AUAR} and a version byte, followed by the
+ * starting state and the checkpoint interval as a varint. A game recorded from its first
+ * turn on a map exactly as its seed generates it is stored as that seed ({@code 0}, width,
+ * height, seed, then the players' names and resources), a few dozen bytes; any other game
+ * as a snapshot ({@code 1}, a 4-byte length and the game in the
+ * {@link BinarySaveFormat binary save format}). Then come the records: actions encoded as
+ * described in {@link ActionRecords}, and checkpoints, the tag {@code 0x0E} followed by the
+ * hash as 8 big-endian bytes. The first checkpoint is taken before the first action and the
+ * last one when the recorder is closed.
+ * <p>
+ * Records are buffered and written in blocks; unlike the {@link ActionJournal}, a recording
+ * is only complete once the recorder has been closed.
+ */
+public class ReplayRecorder implements ActionObserver, Closeable {
+    /** First bytes of every recording. */
+    static final byte[] MAGIC = {'A', 'U', 'A', 'R'};
+
+    /** Version written by {@link #start(Path, GameCore, int)}. */
+    static final int VERSION = 2;
+
+    /** Actions between two checkpoints used by {@link #start(Path, GameCore)}. */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 64;
+
+    static final int SEEDED = 0;
+    static final int SNAPSHOT = 1;
+    static final int CHECKPOINT = 0x0E;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final GameCore game;
+    private final FileChannel channel;
+    private final int checkpointInterval;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** Actions recorded since the last checkpoint. */
+    private int sinceCheckpoint;
+
+    private ReplayRecorder(GameCore game, FileChannel channel, int checkpointInterval) {
+        this.game = game;
+        this.channel = channel;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Starts recording a game with a checkpoint every {@value #DEFAULT_CHECKPOINT_INTERVAL}
+     * actions.
+     *
+     * @param path the recording file
+     * @param game the game to record
+     * @return the recorder, already observing the game
+     * @throws IOException if the recording cannot be written
+     * @see #start(Path, GameCore, int)
+     */
+    public static ReplayRecorder start(Path path, GameCore game) throws IOException {
+        return start(path, game, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Starts recording a game from its current state and registers the recorder as an
+     * {@link ActionObserver} of the game.
+     *
+     * @param path               the recording file, replaced if it exists
+     * @param game               the game to record
+     * @param checkpointInterval the number of actions between two checkpoints
+     * @return the recorder, already observing the game
+     * @throws IOException if the recording cannot be written
+     */
+    public static ReplayRecorder start(Path path, GameCore game, int checkpointInterval) throws IOException {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ReplayRecorder recorder = new ReplayRecorder(game, channel, checkpointInterval);
+        try {
+            recorder.writeHeader();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        game.addActionObserver(recorder);
+        return recorder;
+    }
+
+    private void writeHeader() throws IOException {
+        buffer.put(MAGIC).put((byte) VERSION);
+        byte[] seededState = isSeeded(game) ? encodeSeeded(game) : null;
+        if (seededState != null) {
+            buffer.put((byte) SEEDED);
+            write(seededState);
+        } else {
+            byte[] state = BinarySaveFormat.encode(game);
+            buffer.put((byte) SNAPSHOT).putInt(state.length);
+            write(state);
+        }
+        putVarint(buffer, checkpointInterval);
+        checkpoint();
+    }
+
+    /**
+     * Appends an action, followed by a checkpoint when the interval has passed.
+     *
+     * @throws UncheckedIOException if the recording cannot be written
+     */
+    @Override
+    public void actionPerformed(GameCore game, long action) {
+        try {
+            if (buffer.remaining() < ActionRecords.MAX_LENGTH) {
+                flush();
+            }
+            ActionRecords.put(buffer, action);
+            if (++sinceCheckpoint == checkpointInterval) {
+                checkpoint();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stops observing the game, appends a final checkpoint and closes the file.
+     *
+     * @throws IOException if the recording cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        game.removeActionObserver(this);
+        try {
+            if (sinceCheckpoint > 0) {
+                checkpoint();
+            }
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void checkpoint() throws IOException {
+        if (buffer.remaining() < 9) {
+            flush();
+        }
+        buffer.put((byte) CHECKPOINT).putLong(game.getStateHash());
+        sinceCheckpoint = 0;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        for (int offset = 0; offset < bytes.length; ) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(bytes.length - offset, buffer.remaining());
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Checks whether a game is still exactly as a new game on a map of its seed starts:
+     * first turn, first player, no units or territory, and terrain as the default generator
+     * makes it from the seed. The terrain is judged from the map's state, not read.
+     */
+    private static boolean isSeeded(GameCore game) {
+        List<Player> players = game.getPlayers();
+        if (game.getTurnCount() != 0 || game.getCurrentPlayer() != players.get(0)) {
+            return false;
+        }
+        for (Player player : players) {
+            if (!player.getUnits().isEmpty() || !player.getTerritory().isEmpty()) {
+                return false;
+            }
+        }
+        Map map = game.getMap();
+        return map.isGenerated() && map.getTerrainGenerator().getClass() == RandomTerrain.class;
+    }
+
+    /**
+     * Encodes the seed form of the starting state, read back by {@link Replay}.
+     */
+    private static byte[] encodeSeeded(GameCore game) {
+        Map map = game.getMap();
+        List<Player> players = game.getPlayers();
+        int length = 5 + 5 + 8 + 5;
+        byte[][] names = new byte[players.size()][];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = players.get(i).getName().getBytes(StandardCharsets.UTF_8);
+            length += 5 + names[i].length + 8;
+        }
+        ByteBuffer out = ByteBuffer.allocate(length);
+        putVarint(out, map.getWidth());
+        putVarint(out, map.getHeight());
+        out.putLong(map.getSeed());
+        putVarint(out, names.length);
+        for (int i = 0; i < names.length; i++) {
+            putVarint(out, names[i].length);
+            out.put(names[i]);
+            out.putLong(Double.doubleToLongBits(players.get(i).getResources()));
+        }
+        byte[] bytes = new byte[out.position()];
+        out.flip().get(bytes);
+        return bytes;
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
@@ -0,0 +1,128 @@
+package am.aua.game.fileIO;
+
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.navigation.Map;
+import am.aua.game.players.Player;
+import am.aua.game.units.Unit;
+import am.aua.game.units.UnitType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the text and binary save formats: for maps of several sizes, populated with
+ * units and territory, it prints the file size and the time to save and load in each
+ * format, and checks that both loads reproduce the saved state.
+ * <p>
+ * Usage: {@code SaveBenchmark [size...]}, by default 15, 256 and 1024.
+ */
+public class SaveBenchmark {
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length > 0 ? new int[args.length] : new int[]{15, 256, 1024};
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        File file = File.createTempFile("save-benchmark", ".sav");
+        file.deleteOnExit();
+        String path = file.getAbsolutePath();
+        for (int size : sizes) {
+            GameCore game = newGame(size, 42L);
+            String expected = fingerprint(game);
+            long[] text = new long[2];
+            long[] binary = new long[2];
+            long textBytes = 0;
+            long binaryBytes = 0;
+            for (int round = 0; round <= ROUNDS; round++) {
+                long start = System.nanoTime();
+                SaveLoadManager.saveGame(path, game);
+                long saved = System.nanoTime();
+                GameCore loaded = SaveLoadManager.loadGame(path);
+                long done = System.nanoTime();
+                textBytes = file.length();
+                check(expected, loaded, "text");
+                if (round > 0) {
+                    text[0] += saved - start;
+                    text[1] += done - saved;
+                }
+
+                start = System.nanoTime();
+                SaveLoadManager.saveGameBinary(path, game);
+                saved = System.nanoTime();
+                loaded = SaveLoadManager.loadGame(path);
+                done = System.nanoTime();
+                binaryBytes = file.length();
+                check(expected, loaded, "binary");
+                if (round > 0) {
+                    binary[0] += saved - start;
+                    binary[1] += done - saved;
+                }
+            }
+            System.out.printf("%4dx%-4d text %,12d bytes  save %8.2f ms  load %8.2f ms%n",
+                    size, size, textBytes, text[0] / 1e6 / ROUNDS, text[1] / 1e6 / ROUNDS);
+            System.out.printf("%9s binary %,10d bytes  save %8.2f ms  load %8.2f ms%n",
+                    "", binaryBytes, binary[0] / 1e6 / ROUNDS, binary[1] / 1e6 / ROUNDS);
+        }
+    }
+
+    /**
+     * Builds a game on a seeded map with about one unit per 40 cells, each owning its cell.
+     */
+    private static GameCore newGame(int size, long seed) {
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("Red"));
+        players.add(new Player("Blue"));
+        GameCore game = new GameCore(players, size, size, seed);
+        Map map = game.getMap();
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < map.getCellCount() / 40; i++) {
+            int cell = random.nextInt(map.getCellCount());
+            if (map.isWalkable(cell)) {
+                Player owner = players.get(random.nextInt(players.size()));
+                Unit unit = UnitType.values()[random.nextInt(UnitType.values().length)].create(owner);
+                unit.setHealth(1 + random.nextInt(unit.getHealth()));
+                owner.getUnits().add(unit);
+                map.setUnit(cell, unit);
+                map.setOwner(cell, owner);
+                owner.getTerritory().add(cell);
+            }
+        }
+        game.setTurnCount(7);
+        game.setCurrentPlayer(players.get(1));
+        return game;
+    }
+
+    private static void check(String expected, GameCore loaded, String format) {
+        if (loaded == null || !expected.equals(fingerprint(loaded))) {
+            throw new IllegalStateException("The " + format + " save did not reproduce the game");
+        }
+    }
+
+    /**
+     * Describes the saved state: turn, current player, players, terrain, units and owners.
+     */
+    private static String fingerprint(GameCore game) {
+        Map map = game.getMap();
+        StringBuilder description = new StringBuilder();
+        description.append(game.getTurnCount()).append(' ').append(game.getCurrentPlayer().getName());
+        for (Player player : game.getPlayers()) {
+            description.append(' ').append(player.getName()).append(' ').append(player.getResources())
+                    .append(' ').append(player.getUnits().size()).append(' ').append(player.getTerritory().size());
+        }
+        for (int i = 0; i < map.getCellCount(); i++) {
+            description.append(map.getTerrain(i).ordinal());
+            Unit unit = map.getUnit(i);
+            if (unit != null) {
+                description.append(unit.getType()).append(unit.getOwner().getName()).append(unit.getHealth());
+            }
+            if (map.getOwner(i) != null) {
+                description.append(map.getOwner(i).getName());
+            }
+        }
+        return description.toString();
+    }
+}
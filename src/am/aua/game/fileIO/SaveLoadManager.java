@@ -2,24 +2,33 @@ package am.aua.game.fileIO;
 
 import am.aua.game.gameLogic.GameCore;
 import am.aua.game.navigation.Cell;
+import am.aua.game.navigation.CellSet;
 import am.aua.game.navigation.Map;
 import am.aua.game.players.Player;
 import am.aua.game.units.*;
 
 import java.io.*;
-import java.util.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class SaveLoadManager {
+    /** Size from which binary save files are memory-mapped rather than read onto the heap. */
+    private static final long MAPPED_LOAD_THRESHOLD = 1 << 20;
 
     public static void saveGame(String filePath, GameCore gameCore) {
         try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
+            Map map = gameCore.getMap();
+            writer.println("SIZE:" + map.getWidth() + "," + map.getHeight());
+            writer.println("SEED:" + map.getSeed());
             writer.println("TURN:" + gameCore.getTurnCount());
             writer.println("CURRENT_PLAYER:" + gameCore.getCurrentPlayer().getName());
             for (Player player : gameCore.getPlayers()) {
                 writer.println("PLAYER:" + player.getName() + ":" + player.getResources());
             }
 
-            Map map = gameCore.getMap();
             for (int x = 0; x < map.getWidth(); x++) {
                 for (int y = 0; y < map.getHeight(); y++) {
                     Cell cell = map.getCellAt(x, y);
@@ -40,10 +49,9 @@ public class SaveLoadManager {
                 }
             }
             for (Player player : gameCore.getPlayers()) {
-                for (Cell cell : player.getTerritory()) {
-                    int x = cell.getX();
-                    int y = cell.getY();
-                    writer.println("TERRITORY:" + player.getName() + ":" + x + "," + y);
+                CellSet territory = player.getTerritory();
+                for (int i = territory.nextSetBit(0); i >= 0; i = territory.nextSetBit(i + 1)) {
+                    writer.println("TERRITORY:" + player.getName() + ":" + map.xOf(i) + "," + map.yOf(i));
                 }
             }
 
@@ -54,106 +62,81 @@ public class SaveLoadManager {
     }
 
 
-    public static GameCore loadGame(String filePath) {
-        List<Player> players = new ArrayList<>();
-        Map map = new Map();
-        int turn = 0;
-        String currentPlayerName = null;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("TURN:")) {
-                    turn = Integer.parseInt(line.split(":")[1]);
-
-                } else if (line.startsWith("PLAYER:")) {
-                    String[] parts = line.split(":");
-                    Player player = new Player(parts[1]);
-                    player.setResources(Double.parseDouble(parts[2]));
-                    players.add(player);
-
-                } else if (line.startsWith("TERRAIN:")) {
-                    String[] parts = line.split(":");
-                    String[] coords = parts[1].split(",");
-                    int x = Integer.parseInt(coords[0]);
-                    int y = Integer.parseInt(coords[1]);
-                    Cell.TerrainType terrain = Cell.TerrainType.valueOf(parts[2]);
-                    map.getCellAt(x, y).setTerrain(terrain);
-
-                } else if (line.startsWith("UNIT:")) {
-                    String[] parts = line.split(":");
-                    String type = parts[1];
-                    String ownerName = parts[3];
-                    String[] coords = parts[4].split(",");
-                    int x = Integer.parseInt(coords[0]);
-                    int y = Integer.parseInt(coords[1]);
-                    int hp = Integer.parseInt(parts[5]);
-
-                    Player owner = null;
-                    for (Player p : players) {
-                        if (p.getName().equals(ownerName)) {
-                            owner = p;
-                            break;
-                        }
-                    }
-
-                    Unit unit = null;
-                    if (type.equals("Tank")) unit = new Tank(owner);
-                    else if (type.equals("Archer")) unit = new Archer(owner);
-                    else if (type.equals("Soldier")) unit = new Soldier(owner);
-
-                    if (unit != null && owner != null) {
-                        unit.setHealth(hp);
-                        owner.getUnits().add(unit);
-                        Cell cell = map.getCellAt(x, y);
-                        cell.setUnit(unit);
-                        cell.changeOwner(owner);
-                        owner.addToTerritory(cell);
-                    }
-                } else if (line.startsWith("CURRENT_PLAYER:")) {
-                    currentPlayerName = line.split(":")[1];
-                }else if (line.startsWith("TERRITORY:")) {
-                    String[] parts = line.split(":");
-                    String playerName = parts[1];
-                    String[] coords = parts[2].split(",");
-                    int x = Integer.parseInt(coords[0]);
-                    int y = Integer.parseInt(coords[1]);
-
-                    Player owner = null;
-                    for (Player p : players) {
-                        if (p.getName().equals(playerName)) {
-                            owner = p;
-                            break;
-                        }
-                    }
+    /**
+     * Saves a game in the compact {@link BinarySaveFormat binary format}: terrain as runs
+     * within square blocks that load independently, and units and territory as varints, a
+     * few bytes per unit instead of a line per cell.
+     * {@link #loadGame(String)} recognises both formats.
+     * <p>
+     * On Windows a file cannot be overwritten while it is memory-mapped, and a large binary
+     * save stays mapped until every chunk of the game loaded from it has been read and the
+     * mapping has been garbage collected; saving such a game back to the same file may
+     * then fail and should go to a new file instead.
+     *
+     * @param filePath the path of the save file
+     * @param gameCore the game to save
+     */
+    public static void saveGameBinary(String filePath, GameCore gameCore) {
+        try {
+            Files.write(Path.of(filePath), BinarySaveFormat.encode(gameCore));
+        } catch (IOException e) {
+            System.err.println("Error saving game: " + e.getMessage());
+        }
+    }
 
-                    if (owner != null) {
-                        Cell cell = map.getCellAt(x, y);
-                        cell.changeOwner(owner);
-                        owner.addToTerritory(cell);
+    /**
+     * Loads a game saved by {@link #saveGame} or {@link #saveGameBinary}, detecting the
+     * format from the first bytes of the file. Large binary saves are memory-mapped, and
+     * their terrain is decoded from the mapping chunk by chunk as the map is explored, so
+     * opening a huge save only reads the parts of the board that are used. The mapping is
+     * held until every chunk has been read, see {@link #saveGameBinary}. Text saves are
+     * streamed through a reader.
+     *
+     * @param filePath the path of the save file
+     * @return the loaded game, or null if the save could not be read
+     */
+    public static GameCore loadGame(String filePath) {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(BinarySaveFormat.MAGIC.length);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read until full or end of file
+            }
+            if (!BinarySaveFormat.isBinary(header.array(), header.position())) {
+                buffer = null;
+            } else {
+                long size = channel.size();
+                if (size >= MAPPED_LOAD_THRESHOLD) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                } else {
+                    buffer = ByteBuffer.allocate((int) size);
+                    while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+                        // read until full
                     }
+                    buffer.flip();
                 }
-
             }
-
         } catch (IOException e) {
             System.err.println("Error loading game: " + e.getMessage());
+            return null;
         }
-
-        GameCore core = new GameCore(players, map);
-        for (int i = 0; i < turn; i++) {
-            core.nextTurn();
+        if (buffer == null) {
+            return loadTextGame(filePath);
         }
-        if (currentPlayerName != null) {
-            for (Player p : players) {
-                if (p.getName().equals(currentPlayerName)) {
-                    core.setCurrentPlayer(p);
-                    break;
-                }
-            }
+        try {
+            return BinarySaveFormat.decode(buffer);
+        } catch (IOException e) {
+            System.err.println("Error loading game: " + e.getMessage());
+            return null;
         }
-        return core;
     }
 
+    private static GameCore loadTextGame(String filePath) {
+        try (Reader reader = new FileReader(filePath)) {
+            return TextSaveParser.parse(reader);
+        } catch (IOException e) {
+            System.err.println("Error loading game: " + e.getMessage());
+            return null;
+        }
+    }
 }
\ No newline at end of file
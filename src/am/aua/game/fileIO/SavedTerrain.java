@@ -0,0 +1,133 @@
+package am.aua.game.fileIO;
+
+import am.aua.game.navigation.Cell;
+import am.aua.game.navigation.TerrainSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Terrain of a binary save, decoded block by block straight from the save's buffer as the
+ * {@link am.aua.game.navigation.Map Map} touches its chunks.
+ * <p>
+ * The terrain section of the save is a table of block offsets followed by the blocks, each
+ * a square of {@code blockSize} cells whose terrain is stored as runs in block-local
+ * row-major order (see {@link BinarySaveFormat}). Only absolute reads are made on the
+ * buffer, so the source can serve several threads, and the buffer, typically a mapped
+ * file, is only paged in for the blocks that are actually read.
+ * <p>
+ * The offset table is checked when the save is loaded, so every block lies within the
+ * buffer. The runs of a block are only checked when the block is decoded; a corrupt block
+ * is reported as an {@link UncheckedIOException} at that point.
+ */
+final class SavedTerrain implements TerrainSource {
+    private static final int TERRAIN_TYPES = Cell.TerrainType.values().length;
+
+    private final ByteBuffer buffer;
+    private final int width;
+    private final int height;
+    private final int blockSize;
+    private final int blocksX;
+
+    /** Position of the offset table: one 4-byte end position per block, relative to {@link #data}. */
+    private final int table;
+
+    /** Position of the first block. */
+    private final int data;
+
+    /**
+     * Constructs a source over the terrain section of a save.
+     *
+     * @param buffer    the save; its position and limit are not used
+     * @param width     the number of columns of the map
+     * @param height    the number of rows of the map
+     * @param blockSize the width and height of a block
+     * @param table     the position of the offset table, whose offsets are increasing and
+     *                  end within the buffer
+     * @param data      the position of the first block
+     */
+    SavedTerrain(ByteBuffer buffer, int width, int height, int blockSize, int table, int data) {
+        this.buffer = buffer;
+        this.width = width;
+        this.height = height;
+        this.blockSize = blockSize;
+        this.blocksX = (int) ((width + (long) blockSize - 1) / blockSize);
+        this.table = table;
+        this.data = data;
+    }
+
+    @Override
+    public void readTerrain(int x0, int y0, int width, int height, byte[] out, int stride) {
+        int lastX = (x0 + width - 1) / blockSize;
+        int lastY = (y0 + height - 1) / blockSize;
+        for (int by = y0 / blockSize; by <= lastY; by++) {
+            for (int bx = x0 / blockSize; bx <= lastX; bx++) {
+                decodeBlock(bx, by, x0, y0, width, height, out, stride);
+            }
+        }
+    }
+
+    /**
+     * Decodes one block, writing the cells that fall into the requested rectangle.
+     */
+    private void decodeBlock(int bx, int by, int x0, int y0, int width, int height, byte[] out, int stride) {
+        int block = by * blocksX + bx;
+        int position = data + (block == 0 ? 0 : buffer.getInt(table + (block - 1) * 4));
+        int end = data + buffer.getInt(table + block * 4);
+        int left = bx * blockSize;
+        int top = by * blockSize;
+        int blockWidth = Math.min(blockSize, this.width - left);
+        int blockHeight = Math.min(blockSize, this.height - top);
+        int column = 0;
+        int row = 0;
+        while (row < blockHeight) {
+            if (position >= end) {
+                throw corrupt(block);
+            }
+            long run = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (shift > 35 || position >= end) {
+                    throw corrupt(block);
+                }
+                byte b = buffer.get(position++);
+                run |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            long length = run >>> 2;
+            byte type = (byte) (run & 3);
+            if (length == 0 || type >= TERRAIN_TYPES
+                    || length > (long) (blockHeight - row) * blockWidth - column) {
+                throw corrupt(block);
+            }
+            while (length > 0) {
+                int segment = (int) Math.min(length, blockWidth - column);
+                int y = top + row;
+                if (y >= y0 && y < y0 + height) {
+                    int from = Math.max(left + column, x0);
+                    int to = Math.min(left + column + segment, x0 + width);
+                    if (from < to) {
+                        int offset = (y - y0) * stride - x0;
+                        Arrays.fill(out, offset + from, offset + to, type);
+                    }
+                }
+                length -= segment;
+                column += segment;
+                if (column == blockWidth) {
+                    column = 0;
+                    row++;
+                }
+            }
+        }
+        if (position != end) {
+            throw corrupt(block);
+        }
+    }
+
+    private static UncheckedIOException corrupt(int block) {
+        return new UncheckedIOException(new IOException("Corrupt terrain in block " + block));
+    }
+}
@@ -0,0 +1,484 @@
+package am.aua.game.fileIO;
+
+import am.aua.game.gameLogic.Action;
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.navigation.Cell;
+import am.aua.game.navigation.Map;
+import am.aua.game.players.Player;
+import am.aua.game.units.Archer;
+import am.aua.game.units.Soldier;
+import am.aua.game.units.Tank;
+import am.aua.game.units.Unit;
+import am.aua.game.units.UnitType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single-pass reader of the line-based text save format written by
+ * {@link SaveLoadManager#saveGame}.
+ * <p>
+ * The input is read through a reusable window of characters and every line is tokenized in
+ * place: keys and names are compared against the window, and coordinates, health and the
+ * turn count are parsed digit by digit, so the per-cell TERRAIN and per-unit lines allocate
+ * nothing. Owners are resolved through a name to player index table.
+ * <p>
+ * The map is created once its size and seed are known, which in current saves is before
+ * the first TERRAIN line. Until then terrain is staged: one byte per cell when a SIZE line
+ * has been read, or as coordinate triples for old saves that are sized from their largest
+ * TERRAIN coordinate. Staged terrain is written to the map in row-major runs.
+ */
+final class TextSaveParser {
+    private static final int WINDOW = 1 << 16;
+
+    private static final Cell.TerrainType[] TERRAIN_TYPES = Cell.TerrainType.values();
+    private static final UnitType[] UNIT_TYPES = UnitType.values();
+
+    /** Names used for terrain in TERRAIN lines, indexed by {@link Cell.TerrainType} ordinal. */
+    private static final String[] TERRAIN_NAMES = new String[TERRAIN_TYPES.length];
+
+    /** Class names used for units in UNIT lines, indexed by {@link UnitType} ordinal. */
+    private static final String[] UNIT_NAMES = new String[UNIT_TYPES.length];
+
+    static {
+        for (Cell.TerrainType type : TERRAIN_TYPES) {
+            TERRAIN_NAMES[type.ordinal()] = type.name();
+        }
+        UNIT_NAMES[UnitType.SOLDIER.ordinal()] = Soldier.class.getSimpleName();
+        UNIT_NAMES[UnitType.ARCHER.ordinal()] = Archer.class.getSimpleName();
+        UNIT_NAMES[UnitType.TANK.ordinal()] = Tank.class.getSimpleName();
+    }
+
+    private static final byte UNSET = -1;
+
+    private final Reader reader;
+    private char[] buffer = new char[WINDOW];
+    private int limit;
+    private boolean eof;
+
+    /** Start of the unread part of the current line. */
+    private int pos;
+
+    /** End of the current line, excluding the line terminator. */
+    private int lineEnd;
+
+    /** Start of the next line. */
+    private int next;
+
+    private int lineNumber;
+
+    private final List<Player> players = new ArrayList<>();
+    private final PlayerIndex playerIndex = new PlayerIndex();
+    private int turn;
+    private String currentPlayer;
+
+    private int width;
+    private int height;
+    private boolean sized;
+    private long seed;
+    private boolean seeded;
+    private Map map;
+
+    /** Terrain ordinals staged per cell index before the map exists, {@link #UNSET} if absent. */
+    private byte[] stagedTerrain;
+
+    /** Terrain staged as (x, y, ordinal) triples by saves without a SIZE line. */
+    private int[] pendingTerrain = new int[0];
+    private int pendingCount;
+
+    private TextSaveParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads a text save.
+     *
+     * @param reader the characters of the save; not closed by this method
+     * @return the loaded game
+     * @throws IOException if reading fails or a line is malformed
+     */
+    static GameCore parse(Reader reader) throws IOException {
+        return new TextSaveParser(reader).parse();
+    }
+
+    private GameCore parse() throws IOException {
+        while (nextLine()) {
+            if (key("TERRAIN")) {
+                int x = parseInt(',');
+                int y = parseInt(':');
+                int type = match(TERRAIN_NAMES, fieldEnd());
+                if (type < 0) {
+                    throw malformed("unknown terrain");
+                }
+                terrain(x, y, type);
+            } else if (key("UNIT")) {
+                unit();
+            } else if (key("TERRITORY")) {
+                int owner = playerIndex.find(buffer, pos, fieldEnd());
+                pos = fieldEnd() + 1;
+                int cell = cell(parseInt(','), parseInt(':'));
+                if (owner >= 0) {
+                    Player player = players.get(owner);
+                    map.setOwner(cell, player);
+                    player.getTerritory().add(cell);
+                }
+            } else if (key("PLAYER")) {
+                int end = fieldEnd();
+                Player player = new Player(new String(buffer, pos, end - pos));
+                pos = end + 1;
+                player.setResources(parseDouble());
+                playerIndex.add(player.getName(), players.size());
+                players.add(player);
+            } else if (key("CURRENT_PLAYER")) {
+                // Written before the PLAYER lines, so only resolved at the end
+                currentPlayer = new String(buffer, pos, lineEnd - pos);
+            } else if (key("TURN")) {
+                turn = parseInt(':');
+            } else if (key("SIZE")) {
+                width = parseInt(',');
+                height = parseInt(':');
+                if (width <= 0 || height <= 0 || (long) width * height > Action.MAX_CELL_COUNT) {
+                    throw malformed("invalid size");
+                }
+                sized = true;
+            } else if (key("SEED")) {
+                seed = parseLong();
+                seeded = true;
+            }
+        }
+        createMap();
+
+        GameCore core = new GameCore(players, map);
+        core.setTurnCount(turn);
+        int current = currentPlayer == null ? -1 : playerIndex.find(currentPlayer);
+        if (current >= 0) {
+            core.setCurrentPlayer(players.get(current));
+        } else if (!players.isEmpty()) {
+            core.setCurrentPlayer(players.get(0));
+        }
+        return core;
+    }
+
+    /**
+     * Handles the rest of a {@code UNIT:Class:price:owner:x,y:health} line. Units of an
+     * unknown class or owner are skipped, as they always were.
+     */
+    private void unit() throws IOException {
+        int end = fieldEnd();
+        int type = match(UNIT_NAMES, end);
+        pos = end + 1;
+        pos = fieldEnd() + 1;
+        end = fieldEnd();
+        int owner = playerIndex.find(buffer, pos, end);
+        pos = end + 1;
+        int cell = cell(parseInt(','), parseInt(':'));
+        int health = parseInt(':');
+        if (type < 0 || owner < 0) {
+            return;
+        }
+        Player player = players.get(owner);
+        Unit unit = UNIT_TYPES[type].create(player);
+        unit.setHealth(health);
+        player.getUnits().add(unit);
+        map.setUnit(cell, unit);
+        map.setOwner(cell, player);
+        player.getTerritory().add(cell);
+    }
+
+    private void terrain(int x, int y, int type) throws IOException {
+        if (map != null) {
+            map.setTerrain(cell(x, y), TERRAIN_TYPES[type]);
+        } else if (sized) {
+            if (x < 0 || y < 0 || x >= width || y >= height) {
+                throw malformed("cell out of bounds");
+            }
+            if (stagedTerrain == null) {
+                stagedTerrain = new byte[width * height];
+                Arrays.fill(stagedTerrain, UNSET);
+            }
+            stagedTerrain[y * width + x] = (byte) type;
+        } else {
+            if (x < 0 || y < 0) {
+                throw malformed("cell out of bounds");
+            }
+            if (pendingCount + 3 > pendingTerrain.length) {
+                pendingTerrain = Arrays.copyOf(pendingTerrain, Math.max(48, pendingTerrain.length * 2));
+            }
+            pendingTerrain[pendingCount++] = x;
+            pendingTerrain[pendingCount++] = y;
+            pendingTerrain[pendingCount++] = type;
+        }
+    }
+
+    /**
+     * Returns the index of a cell of the map, creating the map first if this is the first
+     * line that needs it.
+     */
+    private int cell(int x, int y) throws IOException {
+        createMap();
+        if (!map.isWithinBounds(x, y)) {
+            throw malformed("cell out of bounds");
+        }
+        return map.indexOf(x, y);
+    }
+
+    /**
+     * Creates the map if it does not exist yet and writes the staged terrain to it. Saves
+     * without a SIZE line are sized from their largest TERRAIN coordinate, and saves without
+     * a SEED line get a random seed.
+     */
+    private void createMap() throws IOException {
+        if (map != null) {
+            return;
+        }
+        if (!sized) {
+            for (int i = 0; i < pendingCount; i += 3) {
+                width = Math.max(width, pendingTerrain[i] + 1);
+                height = Math.max(height, pendingTerrain[i + 1] + 1);
+            }
+            if (width == 0 || height == 0) {
+                width = Map.DEFAULT_SIZE;
+                height = Map.DEFAULT_SIZE;
+            }
+            if ((long) width * height > Action.MAX_CELL_COUNT) {
+                throw malformed("map too large");
+            }
+        }
+        map = seeded ? new Map(width, height, seed) : new Map(width, height);
+        if (stagedTerrain != null) {
+            for (int i = 0; i < stagedTerrain.length; ) {
+                byte type = stagedTerrain[i];
+                int run = i + 1;
+                while (run < stagedTerrain.length && stagedTerrain[run] == type) {
+                    run++;
+                }
+                if (type != UNSET) {
+                    map.fillTerrain(i, run, TERRAIN_TYPES[type]);
+                }
+                i = run;
+            }
+            stagedTerrain = null;
+        }
+        for (int i = 0; i < pendingCount; i += 3) {
+            map.setTerrain(map.indexOf(pendingTerrain[i], pendingTerrain[i + 1]),
+                    TERRAIN_TYPES[pendingTerrain[i + 2]]);
+        }
+        pendingTerrain = null;
+    }
+
+    /**
+     * Advances to the next line, reading more input when the line is not complete in the
+     * window. A line longer than the window grows it.
+     *
+     * @return false at the end of the input
+     */
+    private boolean nextLine() throws IOException {
+        int start = next;
+        while (true) {
+            for (int i = start; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    return line(i, i + 1);
+                }
+            }
+            if (eof) {
+                return next < limit && line(limit, limit);
+            }
+            start = limit - next;
+            if (next > 0) {
+                System.arraycopy(buffer, next, buffer, 0, start);
+                limit = start;
+                next = 0;
+            } else if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+        }
+    }
+
+    private boolean line(int end, int following) {
+        pos = next;
+        lineEnd = end > pos && buffer[end - 1] == '\r' ? end - 1 : end;
+        next = following;
+        lineNumber++;
+        return true;
+    }
+
+    /**
+     * Checks whether the current line starts with a key followed by a colon, and if so
+     * moves past them.
+     */
+    private boolean key(String key) {
+        int length = key.length();
+        if (lineEnd - pos <= length || buffer[pos + length] != ':') {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[pos + i] != key.charAt(i)) {
+                return false;
+            }
+        }
+        pos += length + 1;
+        return true;
+    }
+
+    /**
+     * Returns the end of the field at the current position: the next colon or the end of
+     * the line.
+     */
+    private int fieldEnd() {
+        int i = pos;
+        while (i < lineEnd && buffer[i] != ':') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the index of the name that equals the field between the current position and
+     * {@code end}, or -1 if none does.
+     */
+    private int match(String[] names, int end) {
+        int length = end - pos;
+        for (int n = 0; n < names.length; n++) {
+            String name = names[n];
+            if (name.length() == length && regionEquals(buffer, pos, name)) {
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a decimal integer at the current position and moves past it and the separator
+     * that follows it, which must be {@code separator} or the end of the line.
+     */
+    private int parseInt(char separator) throws IOException {
+        long value = parseLong(separator);
+        if (value != (int) value) {
+            throw malformed("number out of range");
+        }
+        return (int) value;
+    }
+
+    private long parseLong() throws IOException {
+        return parseLong(':');
+    }
+
+    private long parseLong(char separator) throws IOException {
+        boolean negative = pos < lineEnd && buffer[pos] == '-';
+        int i = negative ? pos + 1 : pos;
+        int digits = i;
+        long value = 0;
+        while (i < lineEnd && buffer[i] >= '0' && buffer[i] <= '9') {
+            int digit = buffer[i++] - '0';
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                throw malformed("number out of range");
+            }
+            value = value * 10 - digit;
+        }
+        if (i == digits || (!negative && value == Long.MIN_VALUE)) {
+            throw malformed("expected a number");
+        }
+        if (i < lineEnd && buffer[i] != separator) {
+            throw malformed("expected '" + separator + "'");
+        }
+        pos = i + 1;
+        return negative ? value : -value;
+    }
+
+    /**
+     * Parses the resources of a PLAYER line. They are written by {@link Double#toString},
+     * so they go through {@link Double#parseDouble}; there is one such line per player.
+     */
+    private double parseDouble() throws IOException {
+        int end = fieldEnd();
+        try {
+            return Double.parseDouble(new String(buffer, pos, end - pos));
+        } catch (NumberFormatException e) {
+            throw malformed("expected a number");
+        } finally {
+            pos = end + 1;
+        }
+    }
+
+    private IOException malformed(String problem) {
+        return new IOException("Line " + lineNumber + ": " + problem);
+    }
+
+    private static boolean regionEquals(char[] chars, int from, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (chars[from + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Open-addressing table from player name to index in the player list, looked up
+     * directly with a range of characters so that no name string is built per line.
+     */
+    private static final class PlayerIndex {
+        private String[] names = new String[8];
+        private int[] indices = new int[8];
+        private int size;
+
+        void add(String name, int index) {
+            if ((size + 1) * 2 > names.length) {
+                String[] oldNames = names;
+                int[] oldIndices = indices;
+                names = new String[oldNames.length * 2];
+                indices = new int[oldNames.length * 2];
+                size = 0;
+                for (int i = 0; i < oldNames.length; i++) {
+                    if (oldNames[i] != null) {
+                        add(oldNames[i], oldIndices[i]);
+                    }
+                }
+            }
+            int mask = names.length - 1;
+            int slot = name.hashCode() & mask;
+            while (names[slot] != null) {
+                if (names[slot].equals(name)) {
+                    // The first player with a name wins, as with the former linear scan
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = name;
+            indices[slot] = index;
+            size++;
+        }
+
+        int find(String name) {
+            return find(name.toCharArray(), 0, name.length());
+        }
+
+        /**
+         * Returns the index of the player whose name equals {@code chars[from, to)}, or -1.
+         */
+        int find(char[] chars, int from, int to) {
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + chars[i];
+            }
+            int mask = names.length - 1;
+            for (int slot = hash & mask; names[slot] != null; slot = (slot + 1) & mask) {
+                String name = names[slot];
+                if (name.length() == to - from && name.hashCode() == hash
+                        && regionEquals(chars, from, name)) {
+                    return indices[slot];
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package am.aua.game.gameLogic;
+
+import am.aua.game.units.UnitType;
+
+/**
+ * Encodes game actions as single {@code long} values so they can be generated, stored and
+ * replayed without allocating objects.
+ * <p>
+ * Layout, from the least significant bit: 4 bits action kind, 4 bits {@link UnitType}
+ * ordinal (placements only), 28 bits source cell index, 28 bits target cell index.
+ * Cell indices are {@code y * width + x}, so only maps of up to {@link #MAX_CELL_COUNT}
+ * cells can be played; {@link GameCore} rejects larger maps rather than let indices alias.
+ */
+public final class Action {
+    /** Moves the unit on the source cell to the target cell. */
+    public static final int MOVE = 1;
+    /** Attacks the unit on the target cell with the unit on the source cell. */
+    public static final int ATTACK = 2;
+    /** Buys a unit of the encoded type and places it on the target cell. */
+    public static final int BUY = 3;
+    /** Sells the unit on the source cell. */
+    public static final int SELL = 4;
+    /** Ends the current player's turn without doing anything else. */
+    public static final int END_TURN = 5;
+
+    /** Number of cell indices an action can address. */
+    public static final int MAX_CELL_COUNT = 1 << 28;
+
+    private static final int KIND_MASK = 0xF;
+    private static final int TYPE_SHIFT = 4;
+    private static final int FROM_SHIFT = 8;
+    private static final int TO_SHIFT = 36;
+    private static final long CELL_MASK = MAX_CELL_COUNT - 1;
+
+    private static final UnitType[] UNIT_TYPES = UnitType.values();
+
+    private Action() {
+    }
+
+    /**
+     * Encodes a move.
+     * @param from The cell index of the moving unit.
+     * @param to The destination cell index.
+     * @return the encoded action.
+     */
+    public static long move(int from, int to) {
+        return encode(MOVE, 0, from, to);
+    }
+
+    /**
+     * Encodes an attack.
+     * @param from The cell index of the attacking unit.
+     * @param to The cell index of the target unit.
+     * @return the encoded action.
+     */
+    public static long attack(int from, int to) {
+        return encode(ATTACK, 0, from, to);
+    }
+
+    /**
+     * Encodes a purchase.
+     * @param type The kind of unit to buy.
+     * @param to The cell index to place the unit on.
+     * @return the encoded action.
+     */
+    public static long buy(UnitType type, int to) {
+        return encode(BUY, type.ordinal(), to, to);
+    }
+
+    /**
+     * Encodes a sale.
+     * @param from The cell index of the unit to sell.
+     * @return the encoded action.
+     */
+    public static long sell(int from) {
+        return encode(SELL, 0, from, from);
+    }
+
+    /**
+     * Encodes the end of the current player's turn.
+     * @return the encoded action.
+     */
+    public static long endTurn() {
+        return END_TURN;
+    }
+
+    private static long encode(int kind, int type, int from, int to) {
+        return kind | (long) type << TYPE_SHIFT | (from & CELL_MASK) << FROM_SHIFT | (to & CELL_MASK) << TO_SHIFT;
+    }
+
+    /**
+     * @param action An encoded action.
+     * @return the action kind, one of {@link #MOVE}, {@link #ATTACK}, {@link #BUY}, {@link #SELL} or {@link #END_TURN}.
+     */
+    public static int kind(long action) {
+        return (int) (action & KIND_MASK);
+    }
+
+    /**
+     * @param action An encoded purchase.
+     * @return the kind of unit bought.
+     */
+    public static UnitType unitType(long action) {
+        return UNIT_TYPES[(int) (action >>> TYPE_SHIFT) & KIND_MASK];
+    }
+
+    /**
+     * @param action An encoded action.
+     * @return the source cell index.
+     */
+    public static int from(long action) {
+        return (int) ((action >>> FROM_SHIFT) & CELL_MASK);
+    }
+
+    /**
+     * @param action An encoded action.
+     * @return the target cell index.
+     */
+    public static int to(long action) {
+        return (int) ((action >>> TO_SHIFT) & CELL_MASK);
+    }
+
+    /**
+     * Returns a readable description of an action, for logs and debugging.
+     * @param action An encoded action.
+     * @return the description.
+     */
+    public static String toString(long action) {
+        return switch (kind(action)) {
+            case MOVE -> "MOVE " + from(action) + "->" + to(action);
+            case ATTACK -> "ATTACK " + from(action) + "->" + to(action);
+            case BUY -> "BUY " + unitType(action) + "@" + to(action);
+            case SELL -> "SELL " + from(action);
+            case END_TURN -> "END_TURN";
+            default -> "UNKNOWN " + Long.toHexString(action);
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package am.aua.game.gameLogic;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of {@link Action}-encoded actions backed by a {@code long[]}.
+ * Meant to be cleared and refilled, so that once it has grown to the largest action
+ * count seen it allocates nothing.
+ */
+public class ActionBuffer {
+    private long[] actions;
+    private int size;
+
+    /**
+     * Constructs an empty buffer with a default capacity.
+     */
+    public ActionBuffer() {
+        this(256);
+    }
+
+    /**
+     * Constructs an empty buffer.
+     * @param capacity The number of actions it holds before growing.
+     */
+    public ActionBuffer(int capacity) {
+        this.actions = new long[Math.max(1, capacity)];
+    }
+
+    /**
+     * Appends an action.
+     * @param action The encoded action.
+     */
+    public void add(long action) {
+        if (size == actions.length) {
+            actions = Arrays.copyOf(actions, size * 2);
+        }
+        actions[size++] = action;
+    }
+
+    /**
+     * @param i The position of the action, from 0 to {@link #size()} - 1.
+     * @return the encoded action at that position.
+     */
+    public long get(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+        return actions[i];
+    }
+
+    /**
+     * Replaces the action at a position, e.g. when reordering actions in place.
+     * @param i The position of the action.
+     * @param action The encoded action.
+     */
+    public void set(int i, long action) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+        actions[i] = action;
+    }
+
+    /**
+     * @return the number of actions in the buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the buffer holds no actions.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all actions, keeping the capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
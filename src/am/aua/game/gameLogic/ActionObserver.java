@@ -0,0 +1,20 @@
+package am.aua.game.gameLogic;
+
+/**
+ * Is told about every action a {@link GameCore} performs, in order, so that games can be
+ * journaled or recorded as they are played.
+ * <p>
+ * Actions are reported as {@link Action} encodings once they have taken effect, including
+ * the turn passing that moves and attacks cause. Actions applied through
+ * {@link GameCore#apply(long)}, which search takes back again, are not reported.
+ */
+public interface ActionObserver {
+
+    /**
+     * Called after an action has been performed.
+     *
+     * @param game   the game the action was performed on
+     * @param action the encoded action
+     */
+    void actionPerformed(GameCore game, long action);
+}
@@ -0,0 +1,37 @@
+package am.aua.game.gameLogic;
+
+/**
+ * Outcome of an attempted action on {@link GameCore}. The {@code try*} methods return one of
+ * these instead of throwing, so rejected candidate actions cost no allocation.
+ */
+public enum ActionStatus {
+    /** The action was legal and has been applied. */
+    OK,
+    /** The acting unit belongs to another player. */
+    NOT_YOUR_UNIT,
+    /** There is no unit on the cell the action refers to. */
+    NO_UNIT_SELECTED,
+    /** The target is beyond the unit's movement or attack range. */
+    OUT_OF_RANGE,
+    /** The path to the destination is blocked by terrain or another unit. */
+    PATH_NOT_CLEAR,
+    /** The target unit belongs to the acting player. */
+    FRIENDLY_FIRE,
+    /** The player cannot afford the unit. */
+    NOT_ENOUGH_MONEY,
+    /** The cell belongs to another player. */
+    NOT_YOUR_TERRITORY,
+    /** A unit already stands on the cell. */
+    CELL_OCCUPIED,
+    /** The cell's terrain does not allow units. */
+    BLOCKED_TERRAIN,
+    /** An enemy-held unit stands next to the cell. */
+    ENEMY_TOO_CLOSE;
+
+    /**
+     * @return true if the action was applied.
+     */
+    public boolean isSuccess() {
+        return this == OK;
+    }
+}
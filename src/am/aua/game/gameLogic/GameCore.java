@@ -3,10 +3,18 @@ package am.aua.game.gameLogic;
 import am.aua.game.exceptions.*;
 import am.aua.game.fileIO.SaveLoadManager;
 import am.aua.game.navigation.Cell;
+import am.aua.game.navigation.CellSet;
+import am.aua.game.navigation.InfluenceMap;
 import am.aua.game.navigation.Map;
+import am.aua.game.navigation.PathFinder;
 import am.aua.game.players.Player;
 import am.aua.game.units.Unit;
+import am.aua.game.units.UnitType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 /**
  * Core logic class for handling the turn-based strategy game mechanics.
@@ -19,6 +27,53 @@ public class GameCore {
     private int turnCount;
     private Map map;
 
+    private static final UnitType[] UNIT_TYPES = UnitType.values();
+
+    /** Scratch buffer for neighbour queries, reused so placement checks allocate nothing. */
+    private final int[] neighbourBuffer = new int[Map.NEIGHBOUR_COUNT];
+
+    /** Finds walking routes for moves; its scratch state is reused by every query. */
+    private final PathFinder pathFinder = new PathFinder();
+
+    /** Scratch buffer receiving the cells a unit can reach, grown to the largest movement range seen. */
+    private int[] reachableBuffer = new int[0];
+
+    /** Move and attack sets of recently queried units, see {@link #getReachableCells(int)}. */
+    private final RangeCache rangeCache = new RangeCache();
+
+    /** Changes made by {@link #apply(long)}, replayed backwards by {@link #undo(int)}. */
+    private final UndoLog undoLog = new UndoLog();
+
+    /** Whether state changes are currently being written to {@link #undoLog}. */
+    private boolean recording;
+
+    /** Zobrist hash of units, cell owners, resources, current player and turn; valid only while {@link #hashValid}. */
+    private long stateHash;
+    private boolean hashValid;
+
+    /** Influence layers of the current state, maintained alongside the hash; null until first requested. */
+    private InfluenceMap influence;
+
+    /** Zobrist hash of the terrain, valid for {@link #terrainHashVersion} of {@link #terrainHashMap}. */
+    private long terrainHash;
+    private int terrainHashVersion;
+    private Map terrainHashMap;
+
+    /** Units bought through {@link #apply(long)} and released again by {@link #undo(int)}, per player and type. */
+    private Unit[][] unitPool = new Unit[0][];
+    private int[] unitPoolSize = new int[0];
+
+    /** NORMAL cells of {@link #passableMap}, valid for {@link #passableVersion}. */
+    private final CellSet passableCells = new CellSet();
+    private int passableVersion;
+    private Map passableMap;
+
+    /** Scratch set of cells where the player generating placements may not buy. */
+    private final CellSet placementBlocked = new CellSet();
+
+    /** Told about every action performed outside of {@link #apply(long)}. */
+    private ActionObserver[] observers = new ActionObserver[0];
+
     /**
      * Constructs a GameCore with given players and initializes the game map.
      * @param players The list of players.
@@ -30,16 +85,60 @@ public class GameCore {
         this.map = new Map();
     }
 
+    /**
+     * Constructs a GameCore with given players and a freshly generated map of the given size.
+     * @param players The list of players.
+     * @param width The number of map columns.
+     * @param height The number of map rows.
+     * @throws IllegalArgumentException if the map has more than {@link Action#MAX_CELL_COUNT} cells.
+     */
+    public GameCore(List<Player> players, int width, int height){
+        checkMapSize(width, height);
+        this.players = players;
+        this.currentPlayer = players.get(0);
+        this.turnCount = 0;
+        this.map = new Map(width, height);
+    }
+
+    /**
+     * Constructs a GameCore with given players and a map of the given size generated from a
+     * seed, so the same arguments always start the same game.
+     * @param players The list of players.
+     * @param width The number of map columns.
+     * @param height The number of map rows.
+     * @param seed The seed of the map's terrain.
+     * @throws IllegalArgumentException if the map has more than {@link Action#MAX_CELL_COUNT} cells.
+     */
+    public GameCore(List<Player> players, int width, int height, long seed){
+        checkMapSize(width, height);
+        this.players = players;
+        this.currentPlayer = players.get(0);
+        this.turnCount = 0;
+        this.map = new Map(width, height, seed);
+    }
+
     /**
      * Constructs a GameCore with players and an already existing map.
      * @param players The list of players.
      * @param map The game map.
+     * @throws IllegalArgumentException if the map has more than {@link Action#MAX_CELL_COUNT} cells.
      */
     public GameCore(List<Player> players, Map map) {
+        checkMapSize(map.getWidth(), map.getHeight());
         this.players = players;
         this.map = map;
     }
 
+    /**
+     * Rejects maps whose cell indices do not fit into an encoded {@link Action}.
+     */
+    private static void checkMapSize(int width, int height) {
+        if ((long) width * height > Action.MAX_CELL_COUNT) {
+            throw new IllegalArgumentException("Map " + width + "x" + height + " has more than "
+                    + Action.MAX_CELL_COUNT + " cells");
+        }
+    }
+
     /**
      * Starts the game by generating the map.
      */
@@ -47,14 +146,61 @@ public class GameCore {
         map.generateMap();
     }
 
+    /**
+     * Starts a new game with the same players on a freshly generated map of the same size,
+     * reusing this instance. The units of the finished game go back into the purchase pool,
+     * so playing many games in a row allocates little beyond the new map.
+     * The new map's seed follows from the previous one, see {@link Map#generateMap()}.
+     */
+    public void restart() {
+        clearGame();
+        map.generateMap();
+    }
+
+    /**
+     * Starts a new game like {@link #restart()}, on a map generated from the given seed.
+     * @param seed The seed of the new map's terrain.
+     */
+    public void restart(long seed) {
+        clearGame();
+        map.generateMap(seed);
+    }
+
+    private void clearGame() {
+        for (Player player : players) {
+            for (Unit unit : player.getUnits()) {
+                releasePooledUnit(unit);
+            }
+            player.reset();
+        }
+        undoLog.clear();
+        currentPlayer = players.get(0);
+        turnCount = 0;
+        invalidateHash();
+    }
+
     /**
      * Moves to the next player's turn and collects resources every 5 turns.
      */
     public void nextTurn(){
+        passTurn();
+        performed(Action.endTurn());
+    }
+
+    private void passTurn() {
+        if (recording) {
+            undoLog.push(UndoLog.TURN, players.indexOf(currentPlayer), turnCount, null);
+        }
+        if (hashValid) {
+            stateHash ^= turnKey();
+        }
         turnCount++;
         collectRecourses();
         int currentIndex = players.indexOf(currentPlayer);
         currentPlayer = players.get((currentIndex + 1) % players.size());
+        if (hashValid) {
+            stateHash ^= turnKey();
+        }
     }
 
     /**
@@ -62,8 +208,8 @@ public class GameCore {
      */
     public void collectRecourses(){
         if (this.turnCount != 0 && this.turnCount % 5 == 0){
-            players.get(0).setResources(players.get(0).getResources() + 200);
-            players.get(1).setResources(players.get(1).getResources() + 200);
+            setResources(players.get(0), players.get(0).getResources() + 200);
+            setResources(players.get(1), players.get(1).getResources() + 200);
         }
     }
 
@@ -110,52 +256,281 @@ public class GameCore {
 
     public void setTurnCount(int turn) {
         this.turnCount = turn;
+        hashValid = false;
     }
 
     public void setCurrentPlayer(Player currentPlayer) {
         this.currentPlayer = currentPlayer;
+        hashValid = false;
     }
 
     public void setMap(Map map) {
+        checkMapSize(map.getWidth(), map.getHeight());
         this.map = map;
+        invalidateHash();
+    }
+
+    /**
+     * Creates an independent copy of this game for rollouts and search. Players and units are
+     * duplicated, while the map shares its storage chunks copy-on-write, so the cost is
+     * proportional to the number of units rather than the size of the map. The copy starts
+     * with an empty undo trail and carries over the current hash.
+     * <p>
+     * This game must not be modified while it is being copied; afterwards the copy and the
+     * original can be played on different threads.
+     * @return the copy.
+     */
+    public GameCore copy() {
+        IdentityHashMap<Player, Player> playerCopies = new IdentityHashMap<>();
+        IdentityHashMap<Unit, Unit> unitCopies = new IdentityHashMap<>();
+        List<Player> playersCopy = new ArrayList<>(players.size());
+        for (Player player : players) {
+            Player copy = new Player(player.getName());
+            copy.setResources(player.getResources());
+            copy.getTerritory().copyFrom(player.getTerritory());
+            copy.getOccupancy().copyFrom(player.getOccupancy());
+            playerCopies.put(player, copy);
+            playersCopy.add(copy);
+        }
+        UnaryOperator<Player> playerMapping = player -> playerCopies.getOrDefault(player, player);
+        UnaryOperator<Unit> unitMapping = unit -> unitCopies.computeIfAbsent(unit, u -> {
+            Unit copy = u.getType().create(playerMapping.apply(u.getOwner()));
+            copy.setHealth(u.getHealth());
+            return copy;
+        });
+        for (Player player : players) {
+            Player copy = playerCopies.get(player);
+            for (Unit unit : player.getUnits()) {
+                copy.getUnits().add(unitMapping.apply(unit));
+            }
+            if (player.getCurrentUnit() != null) {
+                copy.setCurrentUnit(unitMapping.apply(player.getCurrentUnit()));
+            }
+        }
+
+        GameCore copy = new GameCore(playersCopy, map.copy(playerMapping, unitMapping));
+        copy.currentPlayer = currentPlayer == null ? null : playerMapping.apply(currentPlayer);
+        copy.turnCount = turnCount;
+        copy.stateHash = stateHash;
+        copy.hashValid = hashValid;
+        copy.influence = influence == null ? null : influence.copy();
+        if (terrainHashMap == map) {
+            copy.terrainHash = terrainHash;
+            copy.terrainHashVersion = terrainHashVersion;
+            copy.terrainHashMap = copy.map;
+        }
+        return copy;
     }
 
     /**
-     * Checks if the path between two cells is clear.
+     * Returns a 64-bit Zobrist hash of the game state: terrain, the type, owner and health
+     * bucket of the unit on every cell, cell ownership, every player's resources, the current
+     * player and the turn count.
+     * After the first call the hash is maintained incrementally by every action and by
+     * {@link #undo(int)} at the cost of a few XORs; the terrain part is cached until the
+     * map's terrain changes. Equal states always hash equally, so the value can key
+     * transposition tables or be compared between engines to detect desyncs.
+     *
+     * @return the hash of the current state.
+     */
+    public long getHash() {
+        long state = getStateHash();
+        if (terrainHashMap != map || terrainHashVersion != map.getTerrainVersion()) {
+            long hash = 0;
+            for (int i = 0; i < map.getCellCount(); i++) {
+                hash ^= Zobrist.terrain(i, map.getTerrain(i));
+            }
+            terrainHash = hash;
+            terrainHashMap = map;
+            terrainHashVersion = map.getTerrainVersion();
+        }
+        return terrainHash ^ state;
+    }
+
+    /**
+     * Returns the part of {@link #getHash()} that does not depend on terrain: units, cell
+     * ownership, resources, the current player and the turn count. Actions never change
+     * terrain, so this is enough to compare two runs of the same game. Unlike
+     * {@link #getHash()} it never reads terrain, which on a large map would generate every
+     * chunk, and recomputing it only visits the chunks that were ever touched.
+     *
+     * @return the hash of the current state without terrain.
+     */
+    public long getStateHash() {
+        if (!hashValid) {
+            stateHash = computeStateHash();
+            hashValid = true;
+        }
+        return stateHash;
+    }
+
+    /**
+     * Forces {@link #getHash()} to recompute the hash, and {@link #getInfluence()} its layers,
+     * from scratch. Needed only after the map, its cells or the players were modified
+     * directly rather than through this class.
+     */
+    public void invalidateHash() {
+        hashValid = false;
+        influence = null;
+        rangeCache.clear();
+    }
+
+    /**
+     * Returns the influence layers of the current state: attack pressure and control
+     * distance per player and cell, with per-player totals of controlled cells, threat,
+     * material and territory.
+     * The layers are built from the players' occupancy sets on the first call and from then
+     * on updated incrementally by every action and by {@link #undo(int)}, touching only the
+     * cells around the units involved; {@link #copy()} carries them over. The returned
+     * object is live and must not be modified.
+     *
+     * @return the influence layers
+     */
+    public InfluenceMap getInfluence() {
+        if (influence == null) {
+            InfluenceMap layers = new InfluenceMap(map, players.size());
+            for (int i = 0; i < players.size(); i++) {
+                CellSet occupancy = players.get(i).getOccupancy();
+                for (int cell = occupancy.nextSetBit(0); cell >= 0; cell = occupancy.nextSetBit(cell + 1)) {
+                    layers.addUnit(cell, i, map.getUnit(cell));
+                }
+                layers.changeTerritory(i, players.get(i).getTerritory().size());
+            }
+            influence = layers;
+        }
+        return influence;
+    }
+
+    private long computeStateHash() {
+        long[] hash = {turnKey()};
+        for (int i = 0; i < players.size(); i++) {
+            hash[0] ^= Zobrist.resources(i, players.get(i).getResources());
+        }
+        map.forEachClaimedCell(i -> {
+            Unit unit = map.getUnit(i);
+            if (unit != null) {
+                hash[0] ^= unitKey(i, unit);
+            }
+            Player owner = map.getOwner(i);
+            if (owner != null) {
+                hash[0] ^= Zobrist.owner(i, players.indexOf(owner));
+            }
+        });
+        return hash[0];
+    }
+
+    private long unitKey(int index, Unit unit) {
+        return Zobrist.unit(index, unit.getType(), players.indexOf(unit.getOwner()), unit.getHealth());
+    }
+
+    private long turnKey() {
+        return Zobrist.player(players.indexOf(currentPlayer)) ^ Zobrist.turn(turnCount);
+    }
+
+    /**
+     * Checks if the unit on {@code from} can walk to {@code to}: there must be a route of
+     * king steps through unoccupied NORMAL cells, including {@code to}, no longer than the
+     * unit's movement range, so units can walk around obstacles. Without a unit on
+     * {@code from} the route may be no longer than the distance between the cells.
+     * Routes are found with A* by a reused {@link PathFinder}, so cells more than
+     * {@link PathFinder#MAX_STEPS} steps apart are never reported clear.
      * @param from Start cell.
      * @param to Destination cell.
      * @return true if the path is clear.
      */
     public boolean isPathClear(Cell from, Cell to) {
-        int x0 = from.getX();
-        int y0 = from.getY();
-        int x1 = to.getX();
-        int y1 = to.getY();
+        return isPathClear(from.getIndex(), to.getIndex());
+    }
 
-        int dx = x1 - x0;
-        int dy = y1 - y0;
+    /**
+     * Index based variant of {@link #isPathClear(Cell, Cell)}.
+     * @param from Start cell index.
+     * @param to Destination cell index.
+     * @return true if the path is clear.
+     */
+    public boolean isPathClear(int from, int to) {
+        Unit unit = map.getUnit(from);
+        int range = unit == null ? distance(from, to) : unit.getMovementRange();
+        return pathFinder.findPath(map, from, to, Math.min(range, PathFinder.MAX_STEPS)) >= 0;
+    }
 
-        if (dx != 0 && dy != 0 && Math.abs(dx) != Math.abs(dy)) {
-            return false;
+    /**
+     * Finds a shortest walking route for the unit on {@code from}, with the same rules as
+     * {@link #isPathClear(int, int)}, for example to show or animate a move.
+     * @param from Start cell index, holding the unit.
+     * @param to Destination cell index.
+     * @param buffer Receives the cell indices of the route after {@code from}, ending with
+     *               {@code to}; must hold at least the unit's movement range.
+     * @return the number of cells written, or -1 if the unit cannot walk there.
+     */
+    public int findPath(int from, int to, int[] buffer) {
+        Unit unit = map.getUnit(from);
+        if (unit == null || pathFinder.findPath(map, from, to, unit.getMovementRange()) < 0) {
+            return -1;
         }
+        return pathFinder.getPath(map, buffer);
+    }
 
-        int stepX = Integer.compare(dx, 0);
-        int stepY = Integer.compare(dy, 0);
+    /**
+     * Returns every cell the unit on {@code from} can move to, following the rules of
+     * {@link #isPathClear(int, int)}. The set is computed once by a breadth-first search
+     * limited to the unit's movement range, then cached until a unit is placed on or taken
+     * off a cell within the unit's movement or attack range, or the terrain changes, so
+     * interfaces can ask again on every repaint.
+     * The returned set is shared and must not be modified; it is only valid until the
+     * next state change.
+     * @param from Cell index of the unit.
+     * @return the reachable cells, empty if no unit stands on {@code from}.
+     */
+    public CellSet getReachableCells(int from) {
+        RangeCache.Entry entry = rangeEntry(from);
+        return entry == null ? new CellSet() : entry.reachable;
+    }
 
-        int x = x0 + stepX;
-        int y = y0 + stepY;
+    /**
+     * Returns the cells of every enemy unit the unit on {@code from} can attack, cached
+     * like {@link #getReachableCells(int)}.
+     * The returned set is shared and must not be modified; it is only valid until the
+     * next state change.
+     * @param from Cell index of the unit.
+     * @return the attackable cells, empty if no unit stands on {@code from}.
+     */
+    public CellSet getAttackableCells(int from) {
+        RangeCache.Entry entry = rangeEntry(from);
+        return entry == null ? new CellSet() : entry.attackable;
+    }
 
-        while (x != x1 || y != y1) {
-            Cell cell = map.getCellAt(x, y);
-            if (cell.isOccupied() || isBlockedTerrain(cell)) {
-                return false;
+    private RangeCache.Entry rangeEntry(int from) {
+        Unit unit = map.getUnit(from);
+        if (unit == null) {
+            return null;
+        }
+        int x = map.xOf(from);
+        int y = map.yOf(from);
+        RangeCache.Entry entry = rangeCache.lookup(unit, x, y, map.getTerrainVersion());
+        if (entry != null) {
+            return entry;
+        }
+        int range = unit.getMovementRange();
+        int attackRange = unit.getAttackRange();
+        entry = rangeCache.allocate(unit, x, y, Math.max(range, attackRange), map.getTerrainVersion());
+        int window = 2 * range + 1;
+        if (reachableBuffer.length < window * window) {
+            reachableBuffer = new int[window * window];
+        }
+        int count = pathFinder.findReachable(map, from, range, reachableBuffer);
+        for (int i = 0; i < count; i++) {
+            entry.reachable.add(reachableBuffer[i]);
+        }
+        for (int ty = Math.max(0, y - attackRange); ty <= Math.min(map.getHeight() - 1, y + attackRange); ty++) {
+            for (int tx = Math.max(0, x - attackRange); tx <= Math.min(map.getWidth() - 1, x + attackRange); tx++) {
+                Unit target = map.getUnit(map.indexOf(tx, ty));
+                if (target != null && target.getOwner() != unit.getOwner()) {
+                    entry.attackable.add(map.indexOf(tx, ty));
+                }
             }
-            x += stepX;
-            y += stepY;
         }
-
-        Cell dest = map.getCellAt(x1, y1);
-        return !dest.isOccupied() && !isBlockedTerrain(dest);
+        return entry;
     }
 
     /**
@@ -171,37 +546,77 @@ public class GameCore {
      */
     public void moveUnit(Player currentPlayer, Unit unit, Cell oldPosition, Cell newPosition)
             throws NotYourUnitException, PathNotClearException, OutOfRangeException {
+        switch (tryMove(currentPlayer, unit, oldPosition, newPosition)) {
+            case NOT_YOUR_UNIT, NO_UNIT_SELECTED -> throw new NotYourUnitException();
+            case OUT_OF_RANGE -> throw new OutOfRangeException();
+            case PATH_NOT_CLEAR -> throw new PathNotClearException();
+            default -> { }
+        }
+    }
 
+    /**
+     * Moves a unit if the path is clear and within range, reporting a rejection as a status
+     * instead of an exception.
+     *
+     * @param currentPlayer The player attempting to move the unit.
+     * @param unit The unit to move.
+     * @param oldPosition The current cell of the unit.
+     * @param newPosition The target cell to move to.
+     * @return {@link ActionStatus#OK} if the unit moved, otherwise the reason it did not.
+     */
+    public ActionStatus tryMove(Player currentPlayer, Unit unit, Cell oldPosition, Cell newPosition) {
+        if (unit == null) {
+            return ActionStatus.NO_UNIT_SELECTED;
+        }
         if (!unit.getOwner().equals(currentPlayer)) {
-            throw new NotYourUnitException();
+            return ActionStatus.NOT_YOUR_UNIT;
         }
+        return tryMove(currentPlayer, oldPosition.getIndex(), newPosition.getIndex());
+    }
 
-        if (!isInMovementRange(oldPosition, newPosition)) {
-            throw new OutOfRangeException();
+    /**
+     * Index based variant of {@link #tryMove(Player, Unit, Cell, Cell)} for the unit standing
+     * on {@code from}. Allocates nothing.
+     *
+     * @param currentPlayer The player attempting to move the unit.
+     * @param from The cell index of the unit.
+     * @param to The destination cell index.
+     * @return {@link ActionStatus#OK} if the unit moved, otherwise the reason it did not.
+     */
+    public ActionStatus tryMove(Player currentPlayer, int from, int to) {
+        Unit unit = map.getUnit(from);
+        if (unit == null) {
+            return ActionStatus.NO_UNIT_SELECTED;
         }
-
-        if (!isPathClear(oldPosition, newPosition)) {
-            throw new PathNotClearException();
+        if (!unit.getOwner().equals(currentPlayer)) {
+            return ActionStatus.NOT_YOUR_UNIT;
         }
-
-        if (newPosition.isOccupied()) {
-            throw new PathNotClearException(); // Or use a new exception
+        if (!isInMovementRange(from, to)) {
+            return ActionStatus.OUT_OF_RANGE;
         }
-
-        // Move unit
-        oldPosition.setUnit(null);
-        newPosition.setUnit(unit);
-
-        if (newPosition.getOwner() != null && !newPosition.getOwner().equals(currentPlayer)) {
-            newPosition.getOwner().removeFromTerritory(newPosition);
+        if (!isPathClear(from, to)) {
+            return ActionStatus.PATH_NOT_CLEAR;
         }
+        relocate(currentPlayer, unit, from, to);
+        passTurn();
+        performed(Action.move(from, to));
+        return ActionStatus.OK;
+    }
 
-        newPosition.setOwner(currentPlayer);
+    /**
+     * Moves a unit between cells and claims the destination for the player.
+     */
+    private void relocate(Player currentPlayer, Unit unit, int from, int to) {
+        setUnitAt(from, null);
+        setUnitAt(to, unit);
 
-        if (!currentPlayer.getTerritory().contains(newPosition)) {
-            currentPlayer.addToTerritory(newPosition);
+        Player previousOwner = map.getOwner(to);
+        if (previousOwner != null && !previousOwner.equals(currentPlayer)) {
+            removeFromTerritory(previousOwner, to);
         }
-        nextTurn();
+
+        setOwnerAt(to, currentPlayer);
+        addToTerritory(currentPlayer, to);
     }
 
 
@@ -219,29 +634,77 @@ public class GameCore {
      * @throws NoUnitSelectedException If no unit is present in the target cell.
      */
     public void attackUnit(Player currentPlayer, Unit unit, Cell oldPosition, Cell newPosition) throws NotYourUnitException, FriendlyFireException, OutOfRangeException, PathNotClearException, NoUnitSelectedException {
-        if (unit.getOwner() != currentPlayer)
-            throw new NotYourUnitException();
-
-        if (!newPosition.isOccupied())
-            throw new NoUnitSelectedException();
-
-        Unit targetUnit = newPosition.getUnit();
+        switch (tryAttack(currentPlayer, unit, oldPosition, newPosition)) {
+            case NOT_YOUR_UNIT -> throw new NotYourUnitException();
+            case NO_UNIT_SELECTED -> throw new NoUnitSelectedException();
+            case FRIENDLY_FIRE -> throw new FriendlyFireException();
+            case OUT_OF_RANGE -> throw new OutOfRangeException();
+            default -> { }
+        }
+    }
 
-        if (targetUnit.getOwner() == this.currentPlayer)
-            throw new FriendlyFireException();
+    /**
+     * Attacks an enemy unit, reporting a rejection as a status instead of an exception.
+     *
+     * @param currentPlayer The player attacking.
+     * @param unit The attacking unit.
+     * @param oldPosition Position of the attacker.
+     * @param newPosition Position of the target.
+     * @return {@link ActionStatus#OK} if the attack happened, otherwise the reason it did not.
+     */
+    public ActionStatus tryAttack(Player currentPlayer, Unit unit, Cell oldPosition, Cell newPosition) {
+        if (unit == null) {
+            return ActionStatus.NO_UNIT_SELECTED;
+        }
+        if (unit.getOwner() != currentPlayer) {
+            return ActionStatus.NOT_YOUR_UNIT;
+        }
+        return tryAttack(currentPlayer, oldPosition.getIndex(), newPosition.getIndex());
+    }
 
-        if (!isInAttackRange(oldPosition, newPosition))
-            throw new OutOfRangeException();
+    /**
+     * Index based variant of {@link #tryAttack(Player, Unit, Cell, Cell)} for the unit standing
+     * on {@code from}. When the target dies it is removed, and the attacker advances into its
+     * cell if that cell is within its movement range along a clear path. The turn passes once.
+     * Allocates nothing.
+     *
+     * @param currentPlayer The player attacking.
+     * @param from The cell index of the attacker.
+     * @param to The cell index of the target.
+     * @return {@link ActionStatus#OK} if the attack happened, otherwise the reason it did not.
+     */
+    public ActionStatus tryAttack(Player currentPlayer, int from, int to) {
+        Unit unit = map.getUnit(from);
+        if (unit == null) {
+            return ActionStatus.NO_UNIT_SELECTED;
+        }
+        if (unit.getOwner() != currentPlayer) {
+            return ActionStatus.NOT_YOUR_UNIT;
+        }
+        Unit targetUnit = map.getUnit(to);
+        if (targetUnit == null) {
+            return ActionStatus.NO_UNIT_SELECTED;
+        }
+        if (targetUnit.getOwner() == currentPlayer) {
+            return ActionStatus.FRIENDLY_FIRE;
+        }
+        if (!isInAttackRange(from, to)) {
+            return ActionStatus.OUT_OF_RANGE;
+        }
 
         int newHealth = targetUnit.getHealth() - unit.getAttackPower();
-        targetUnit.setHealth(newHealth);
+        setHealth(to, targetUnit, newHealth);
 
         if (newHealth <= 0) {
-            newPosition.removeUnit();
-            targetUnit.getOwner().getUnits().remove(targetUnit);
-            moveUnit(currentPlayer,unit,oldPosition,newPosition);
+            setUnitAt(to, null);
+            removeFromUnits(targetUnit.getOwner(), targetUnit);
+            if (isInMovementRange(from, to) && isPathClear(from, to)) {
+                relocate(currentPlayer, unit, from, to);
+            }
         }
-        nextTurn();
+        passTurn();
+        performed(Action.attack(from, to));
+        return ActionStatus.OK;
     }
 
     /**
@@ -256,15 +719,33 @@ public class GameCore {
      * @throws NotYourTerritoryException If the cell is not in the player’s territory.
      */
     public void buyUnit(Unit unit, int x, int y, Map map) throws CoordinateBlockedException, NotEnoughMoneyException, NotYourTerritoryException {
-        if(this.currentPlayer.getResources() >= unit.getPrice()) {
-            placeUnit(unit, x, y, map);
-            getMap().getCellAt(x, y).setOwner(this.currentPlayer);
-            this.currentPlayer.getUnits().add(unit);
-            this.currentPlayer.setResources(this.currentPlayer.getResources() - unit.getPrice());
-        }
-        else {
+        int index = map.indexOf(x, y);
+        ActionStatus status = tryBuy(unit, index);
+        if (status == ActionStatus.NOT_ENOUGH_MONEY) {
             throw new NotEnoughMoneyException();
         }
+        throwPlacementFailure(status, index);
+    }
+
+    /**
+     * Buys and places a unit on the map for the current player, reporting a rejection as a
+     * status instead of an exception. Allocates nothing beyond the unit supplied by the caller.
+     *
+     * @param unit Unit to be bought.
+     * @param index The cell index to place the unit on.
+     * @return {@link ActionStatus#OK} if the unit was bought, otherwise the reason it was not.
+     */
+    public ActionStatus tryBuy(Unit unit, int index) {
+        if (this.currentPlayer.getResources() < unit.getPrice()) {
+            return ActionStatus.NOT_ENOUGH_MONEY;
+        }
+        ActionStatus status = tryPlace(unit, index);
+        if (status.isSuccess()) {
+            addToUnits(this.currentPlayer, unit);
+            setResources(this.currentPlayer, this.currentPlayer.getResources() - unit.getPrice());
+            performed(Action.buy(unit.getType(), index));
+        }
+        return status;
     }
 
     /**
@@ -278,16 +759,33 @@ public class GameCore {
         if (cell == null || cell.getUnit() == null){
             return;
         }
-        if (!cell.isOccupied()) {
-            throw new NoUnitSelectedException();
-        } else if (cell.getUnit().getOwner() != this.currentPlayer) {
+        if (trySell(cell.getIndex()) == ActionStatus.NOT_YOUR_UNIT) {
             throw new NotYourUnitException();
-        } else {
-            this.currentPlayer.getUnits().remove(cell.getUnit());
-            this.currentPlayer.setResources(this.currentPlayer.getResources() + cell.getUnit().getPrice() * 0.5);
         }
     }
 
+    /**
+     * Sells the unit on a cell for half its price and removes it from the map, reporting a
+     * rejection as a status instead of an exception. Allocates nothing.
+     *
+     * @param index The cell index of the unit to sell.
+     * @return {@link ActionStatus#OK} if the unit was sold, otherwise the reason it was not.
+     */
+    public ActionStatus trySell(int index) {
+        Unit unit = map.getUnit(index);
+        if (unit == null) {
+            return ActionStatus.NO_UNIT_SELECTED;
+        }
+        if (unit.getOwner() != this.currentPlayer) {
+            return ActionStatus.NOT_YOUR_UNIT;
+        }
+        removeFromUnits(this.currentPlayer, unit);
+        setResources(this.currentPlayer, this.currentPlayer.getResources() + unit.getPrice() * 0.5);
+        setUnitAt(index, null);
+        performed(Action.sell(index));
+        return ActionStatus.OK;
+    }
+
 
     /**
      * Places a unit on the map.
@@ -300,80 +798,499 @@ public class GameCore {
      * @throws NotYourTerritoryException If the cell is not in the player’s territory.
      */
     public void placeUnit(Unit u, int x, int y, Map map) throws CoordinateBlockedException, NotYourTerritoryException {
-        Cell position = map.getCellAt(x, y);
+        int index = map.indexOf(x, y);
+        throwPlacementFailure(tryPlace(u, index), index);
+    }
 
-        if (position.isOccupied()) {
-            throw new CoordinateBlockedException("Cell is already occupied.");
+    /**
+     * Places a unit on the map for the current player, reporting a rejection as a status
+     * instead of an exception.
+     *
+     * @param u The unit to place.
+     * @param index The cell index to place the unit on.
+     * @return {@link ActionStatus#OK} if the unit was placed, otherwise the reason it was not.
+     */
+    public ActionStatus tryPlace(Unit u, int index) {
+        if (map.isOccupied(index)) {
+            return ActionStatus.CELL_OCCUPIED;
+        }
+        if (!map.isPassable(index)) {
+            return ActionStatus.BLOCKED_TERRAIN;
+        }
+        Player owner = map.getOwner(index);
+        if (owner != this.currentPlayer && owner != null) {
+            return ActionStatus.NOT_YOUR_TERRITORY;
+        }
+        if (hasEnemyNeighbour(map, index, this.currentPlayer)) {
+            return ActionStatus.ENEMY_TOO_CLOSE;
         }
 
-        if (!position.isPassable()) {
-            throw new CoordinateBlockedException("Cannot place unit on " + position.getTerrain() + " terrain.");
+        setOwnerAt(index, this.currentPlayer);
+        addToTerritory(this.currentPlayer, index);
+        setUnitAt(index, u);
+        return ActionStatus.OK;
+    }
+
+    /**
+     * Converts a failed placement status into the exception thrown by {@link #placeUnit}.
+     */
+    private void throwPlacementFailure(ActionStatus status, int index) throws CoordinateBlockedException, NotYourTerritoryException {
+        switch (status) {
+            case CELL_OCCUPIED -> throw new CoordinateBlockedException("Cell is already occupied.");
+            case BLOCKED_TERRAIN -> throw new CoordinateBlockedException("Cannot place unit on " + map.getTerrain(index) + " terrain.");
+            case NOT_YOUR_TERRITORY -> throw new NotYourTerritoryException();
+            case ENEMY_TOO_CLOSE -> throw new CoordinateBlockedException("Enemy unit is too close.");
+            default -> { }
         }
+    }
 
-        if (getMap().getCellAt(x, y).getOwner() != this.currentPlayer && getMap().getCellAt(x, y).getOwner() != null) {
-            throw new NotYourTerritoryException();
+    /**
+     * Performs an {@link Action}-encoded action for the current player, exactly as the
+     * matching {@code try*} method would. Purchases draw their unit from an internal pool.
+     *
+     * @param action The encoded action.
+     * @return {@link ActionStatus#OK} if the action was applied, otherwise the reason it was not.
+     */
+    public ActionStatus perform(long action) {
+        return switch (Action.kind(action)) {
+            case Action.MOVE -> tryMove(currentPlayer, Action.from(action), Action.to(action));
+            case Action.ATTACK -> tryAttack(currentPlayer, Action.from(action), Action.to(action));
+            case Action.BUY -> buyPooled(Action.unitType(action), Action.to(action));
+            case Action.SELL -> trySell(Action.from(action));
+            case Action.END_TURN -> {
+                nextTurn();
+                yield ActionStatus.OK;
+            }
+            default -> throw new IllegalArgumentException("Unknown action " + Action.toString(action));
+        };
+    }
+
+    /**
+     * Applies an {@link Action}-encoded action in place and records how to take it back.
+     * Records must be undone in reverse order of application, which makes depth-first
+     * search possible on a single board without copying or allocating per node.
+     *
+     * @param action The encoded action.
+     * @return the undo record to pass to {@link #undo(int)}, or -1 if the action is not
+     *         legal in the current state, in which case nothing changed.
+     */
+    public int apply(long action) {
+        int record = undoLog.size();
+        recording = true;
+        try {
+            return perform(action).isSuccess() ? record : -1;
+        } finally {
+            recording = false;
         }
+    }
 
-        boolean neighboursOccupied = false;
-        for (Cell neighbor : map.getNeighbouringCells(position)) {
-            if (neighbor.isOccupied() && !neighbor.getOwner().equals(this.currentPlayer)) {
-                neighboursOccupied = true;
-                break;
+    /**
+     * Restores the exact state from before the {@link #apply(long)} call that returned the
+     * given record, taking back every action applied after it as well: unit positions and
+     * health, cell owners, territories, unit lists, resources, turn count and current player.
+     *
+     * @param record An undo record returned by {@link #apply(long)}.
+     */
+    public void undo(int record) {
+        while (undoLog.size() > record) {
+            int i = undoLog.size() - 1;
+            int cell = undoLog.cell(i);
+            long value = undoLog.value(i);
+            Object ref = undoLog.ref(i);
+            switch (undoLog.kind(i)) {
+                case UndoLog.UNIT -> setUnitAt(cell, (Unit) ref);
+                case UndoLog.HEALTH -> setHealth(cell, (Unit) ref, (int) value);
+                case UndoLog.OWNER -> setOwnerAt(cell, (Player) ref);
+                case UndoLog.TERRITORY_ADD -> removeFromTerritory((Player) ref, cell);
+                case UndoLog.TERRITORY_REMOVE -> addToTerritory((Player) ref, cell);
+                case UndoLog.UNIT_LIST_ADD -> {
+                    List<Unit> units = ((Player) ref).getUnits();
+                    units.remove(units.size() - 1);
+                }
+                case UndoLog.UNIT_LIST_REMOVE -> ((Unit) ref).getOwner().getUnits().add(cell, (Unit) ref);
+                case UndoLog.RESOURCES -> setResources((Player) ref, Double.longBitsToDouble(value));
+                case UndoLog.TURN -> {
+                    if (hashValid) {
+                        stateHash ^= turnKey();
+                    }
+                    turnCount = (int) value;
+                    currentPlayer = players.get(cell);
+                    if (hashValid) {
+                        stateHash ^= turnKey();
+                    }
+                }
+                case UndoLog.POOLED_UNIT -> releasePooledUnit((Unit) ref);
+                default -> throw new IllegalStateException("Corrupt undo log");
             }
+            undoLog.pop();
         }
+    }
+
+    /**
+     * Registers an observer to be told about every action performed on this game from now
+     * on. Observers are not carried over to {@link #copy() copies}.
+     *
+     * @param observer The observer to add.
+     */
+    public void addActionObserver(ActionObserver observer) {
+        observers = Arrays.copyOf(observers, observers.length + 1);
+        observers[observers.length - 1] = observer;
+    }
 
-        if (neighboursOccupied) {
-            throw new CoordinateBlockedException("Enemy unit is too close.");
+    /**
+     * Unregisters an observer added with {@link #addActionObserver(ActionObserver)}.
+     *
+     * @param observer The observer to remove.
+     */
+    public void removeActionObserver(ActionObserver observer) {
+        for (int i = 0; i < observers.length; i++) {
+            if (observers[i] == observer) {
+                ActionObserver[] remaining = new ActionObserver[observers.length - 1];
+                System.arraycopy(observers, 0, remaining, 0, i);
+                System.arraycopy(observers, i + 1, remaining, i, remaining.length - i);
+                observers = remaining;
+                return;
+            }
         }
+    }
 
-        position.setOwner(this.currentPlayer);
+    /**
+     * Reports an action that has just taken effect to the observers, unless it is being
+     * applied for search.
+     */
+    private void performed(long action) {
+        if (!recording) {
+            for (ActionObserver observer : observers) {
+                observer.actionPerformed(this, action);
+            }
+        }
+    }
 
-        if (!currentPlayer.getTerritory().contains(position)){
-            this.currentPlayer.addToTerritory(position);
+    /**
+     * Buys a unit of the given type for the current player, reusing a pooled instance.
+     */
+    private ActionStatus buyPooled(UnitType type, int index) {
+        Unit unit = takePooledUnit(currentPlayer, type);
+        ActionStatus status = tryBuy(unit, index);
+        if (status.isSuccess() && recording) {
+            undoLog.push(UndoLog.POOLED_UNIT, index, 0, unit);
+        } else if (!status.isSuccess()) {
+            releasePooledUnit(unit);
         }
-        position.setUnit(u);
+        return status;
+    }
+
+    private Unit takePooledUnit(Player owner, UnitType type) {
+        int slot = players.indexOf(owner) * UNIT_TYPES.length + type.ordinal();
+        if (slot >= unitPool.length) {
+            unitPool = Arrays.copyOf(unitPool, players.size() * UNIT_TYPES.length);
+            unitPoolSize = Arrays.copyOf(unitPoolSize, unitPool.length);
+        }
+        if (unitPoolSize[slot] == 0) {
+            return type.create(owner);
+        }
+        Unit unit = unitPool[slot][--unitPoolSize[slot]];
+        unit.setHealth(type.getHealth());
+        return unit;
+    }
+
+    private void releasePooledUnit(Unit unit) {
+        int slot = players.indexOf(unit.getOwner()) * UNIT_TYPES.length + unit.getType().ordinal();
+        if (slot >= unitPool.length) {
+            unitPool = Arrays.copyOf(unitPool, players.size() * UNIT_TYPES.length);
+            unitPoolSize = Arrays.copyOf(unitPoolSize, unitPool.length);
+        }
+        if (unitPool[slot] == null) {
+            unitPool[slot] = new Unit[8];
+        } else if (unitPoolSize[slot] == unitPool[slot].length) {
+            unitPool[slot] = Arrays.copyOf(unitPool[slot], unitPoolSize[slot] * 2);
+        }
+        unitPool[slot][unitPoolSize[slot]++] = unit;
+    }
+
+    /*
+     * State changes made by actions go through the primitives below, which record them
+     * for undo while an action is being applied and keep the Zobrist hash up to date.
+     */
+
+    private void setUnitAt(int index, Unit unit) {
+        Unit previous = map.getUnit(index);
+        if (recording) {
+            undoLog.push(UndoLog.UNIT, index, 0, previous);
+        }
+        if (hashValid) {
+            if (previous != null) {
+                stateHash ^= unitKey(index, previous);
+            }
+            if (unit != null) {
+                stateHash ^= unitKey(index, unit);
+            }
+        }
+        if (!rangeCache.isEmpty()) {
+            rangeCache.invalidate(map.xOf(index), map.yOf(index));
+        }
+        if (influence != null) {
+            int owner = previous == null ? -1 : players.indexOf(previous.getOwner());
+            if (owner >= 0) {
+                influence.removeUnit(index, owner, previous);
+            }
+            owner = unit == null ? -1 : players.indexOf(unit.getOwner());
+            if (owner >= 0) {
+                influence.addUnit(index, owner, unit);
+            }
+        }
+        map.setUnit(index, unit);
+    }
+
+    private void setHealth(int index, Unit unit, int health) {
+        if (recording) {
+            undoLog.push(UndoLog.HEALTH, index, unit.getHealth(), unit);
+        }
+        boolean onBoard = map.getUnit(index) == unit;
+        if (onBoard && hashValid) {
+            stateHash ^= unitKey(index, unit);
+        }
+        if (onBoard && influence != null) {
+            int owner = players.indexOf(unit.getOwner());
+            if (owner >= 0) {
+                influence.changeHealth(owner, unit, unit.getHealth(), health);
+            }
+        }
+        unit.setHealth(health);
+        if (onBoard && hashValid) {
+            stateHash ^= unitKey(index, unit);
+        }
+    }
+
+    private void setOwnerAt(int index, Player owner) {
+        Player previous = map.getOwner(index);
+        if (recording) {
+            undoLog.push(UndoLog.OWNER, index, 0, previous);
+        }
+        if (hashValid) {
+            if (previous != null) {
+                stateHash ^= Zobrist.owner(index, players.indexOf(previous));
+            }
+            if (owner != null) {
+                stateHash ^= Zobrist.owner(index, players.indexOf(owner));
+            }
+        }
+        map.setOwner(index, owner);
+    }
+
+    private void addToTerritory(Player player, int index) {
+        if (player.getTerritory().add(index)) {
+            if (recording) {
+                undoLog.push(UndoLog.TERRITORY_ADD, index, 0, player);
+            }
+            changeTerritory(player, 1);
+        }
+    }
+
+    private void removeFromTerritory(Player player, int index) {
+        if (player.getTerritory().remove(index)) {
+            if (recording) {
+                undoLog.push(UndoLog.TERRITORY_REMOVE, index, 0, player);
+            }
+            changeTerritory(player, -1);
+        }
+    }
+
+    private void changeTerritory(Player player, int delta) {
+        if (influence != null) {
+            int owner = players.indexOf(player);
+            if (owner >= 0) {
+                influence.changeTerritory(owner, delta);
+            }
+        }
+    }
+
+    private void addToUnits(Player player, Unit unit) {
+        player.getUnits().add(unit);
+        if (recording) {
+            undoLog.push(UndoLog.UNIT_LIST_ADD, 0, 0, player);
+        }
+    }
+
+    private void removeFromUnits(Player player, Unit unit) {
+        int position = player.getUnits().indexOf(unit);
+        if (position < 0) {
+            return;
+        }
+        player.getUnits().remove(position);
+        if (recording) {
+            undoLog.push(UndoLog.UNIT_LIST_REMOVE, position, 0, unit);
+        }
+    }
+
+    private void setResources(Player player, double resources) {
+        if (recording) {
+            undoLog.push(UndoLog.RESOURCES, 0, Double.doubleToRawLongBits(player.getResources()), player);
+        }
+        if (hashValid) {
+            int index = players.indexOf(player);
+            stateHash ^= Zobrist.resources(index, player.getResources()) ^ Zobrist.resources(index, resources);
+        }
+        player.setResources(resources);
     }
 
     /**
-     * Checks if the terrain of a cell is blocked (TREE or ROCK).
-     * @param cell The cell to check.
-     * @return true if terrain blocks movement.
+     * Enumerates every legal move, attack, placement and sale available to a player in the
+     * current state. The same rules as {@link #moveUnit}, {@link #attackUnit}, {@link #buyUnit}
+     * and {@link #sellUnit} apply: moves follow a route allowed by {@link #isPathClear},
+     * attacks target enemy units within attack range, and units may be bought for any
+     * affordable type onto an empty NORMAL cell that is unowned or owned by the player and
+     * not next to an enemy-held occupied cell. Ending the turn is always legal and is added last.
+     *
+     * @param player The player whose actions are generated.
+     * @param actions The buffer receiving the {@link Action}-encoded actions; it is cleared first.
      */
-        private boolean isBlockedTerrain(Cell cell) {
-        Cell.TerrainType t = cell.getTerrain();
-        return t == Cell.TerrainType.TREE || t == Cell.TerrainType.ROCK;
+    public void generateLegalActions(Player player, ActionBuffer actions) {
+        actions.clear();
+        CellSet occupancy = player.getOccupancy();
+        for (int from = occupancy.nextSetBit(0); from >= 0; from = occupancy.nextSetBit(from + 1)) {
+            Unit unit = map.getUnit(from);
+            addMoves(from, unit.getMovementRange(), actions);
+            addAttacks(player, from, unit.getAttackRange(), actions);
+            actions.add(Action.sell(from));
+        }
+        addPlacements(player, actions);
+        actions.add(Action.endTurn());
     }
 
     /**
-     * Checks if the destination is within movement range of the unit.
-     * @param from Starting cell.
-     * @param to Target cell.
-     * @return true if within range.
+     * Adds every cell the unit can walk to within range, nearest first.
+     */
+    private void addMoves(int from, int range, ActionBuffer actions) {
+        int window = 2 * range + 1;
+        if (reachableBuffer.length < window * window) {
+            reachableBuffer = new int[window * window];
+        }
+        int count = pathFinder.findReachable(map, from, range, reachableBuffer);
+        for (int i = 0; i < count; i++) {
+            actions.add(Action.move(from, reachableBuffer[i]));
+        }
+    }
+
+    /**
+     * Adds every enemy unit within attack range.
      */
-    private boolean isInMovementRange(Cell from, Cell to) {
-        currentPlayer.setCurrentUnit(from.getUnit());
-        int range = currentPlayer.getCurrentUnit().getMovementRange(); // e.g., 1
-        int dx = Math.abs(from.getX() - to.getX());
-        int dy = Math.abs(from.getY() - to.getY());
+    private void addAttacks(Player player, int from, int range, ActionBuffer actions) {
+        int x = map.xOf(from);
+        int y = map.yOf(from);
+        for (int ty = Math.max(0, y - range); ty <= Math.min(map.getHeight() - 1, y + range); ty++) {
+            for (int tx = Math.max(0, x - range); tx <= Math.min(map.getWidth() - 1, x + range); tx++) {
+                int to = map.indexOf(tx, ty);
+                if (map.isOccupied(to) && map.getUnit(to).getOwner() != player) {
+                    actions.add(Action.attack(from, to));
+                }
+            }
+        }
+    }
 
-        return Math.max(dx, dy) <= range;
+    /**
+     * Adds a purchase of every affordable unit type on every cell where it may be placed.
+     * Cells that are occupied or touch an enemy-held unit are marked once from the players'
+     * occupancy, so the scan over the passable cells needs no neighbour lookups.
+     */
+    private void addPlacements(Player player, ActionBuffer actions) {
+        int affordable = 0;
+        for (UnitType type : UNIT_TYPES) {
+            if (player.getResources() >= type.getPrice()) {
+                affordable++;
+            }
+        }
+        if (affordable == 0) {
+            return;
+        }
+        CellSet blocked = placementBlocked;
+        blocked.clear();
+        for (Player other : players) {
+            CellSet occupancy = other.getOccupancy();
+            for (int cell = occupancy.nextSetBit(0); cell >= 0; cell = occupancy.nextSetBit(cell + 1)) {
+                blocked.add(cell);
+                if (map.getOwner(cell) != player) {
+                    int count = map.getNeighbours(cell, neighbourBuffer);
+                    for (int i = 0; i < count; i++) {
+                        blocked.add(neighbourBuffer[i]);
+                    }
+                }
+            }
+        }
+        CellSet passable = passableCells();
+        for (int index = passable.nextSetBit(0); index >= 0; index = passable.nextSetBit(index + 1)) {
+            if (blocked.contains(index)) {
+                continue;
+            }
+            Player owner = map.getOwner(index);
+            if (owner != player && owner != null) {
+                continue;
+            }
+            for (UnitType type : UNIT_TYPES) {
+                if (player.getResources() >= type.getPrice()) {
+                    actions.add(Action.buy(type, index));
+                }
+            }
+        }
     }
-//
+
     /**
-     * Checks if the destination is within attack range of the unit.
-     * @param from Starting cell.
-     * @param to Target cell.
-     * @return true if within range.
+     * Returns the NORMAL cells of the map, recomputed only when its terrain changes.
      */
-    private boolean isInAttackRange(Cell from, Cell to) {
-        currentPlayer.setCurrentUnit(from.getUnit());
-        int range = currentPlayer.getCurrentUnit().getAttackRange(); // e.g., 1 or 2
-        int dx = Math.abs(from.getX() - to.getX());
-        int dy = Math.abs(from.getY() - to.getY());
+    private CellSet passableCells() {
+        if (passableMap != map || passableVersion != map.getTerrainVersion()) {
+            passableCells.clear();
+            for (int i = 0; i < map.getCellCount(); i++) {
+                if (map.isPassable(i)) {
+                    passableCells.add(i);
+                }
+            }
+            passableMap = map;
+            passableVersion = map.getTerrainVersion();
+        }
+        return passableCells;
+    }
 
-        return Math.max(dx, dy) <= range;
+    /**
+     * Checks whether an occupied cell held by someone other than the player touches the cell.
+     */
+    private boolean hasEnemyNeighbour(Map map, int index, Player player) {
+        int count = map.getNeighbours(index, neighbourBuffer);
+        for (int i = 0; i < count; i++) {
+            int neighbour = neighbourBuffer[i];
+            if (map.isOccupied(neighbour) && map.getOwner(neighbour) != player) {
+                return true;
+            }
+        }
+        return false;
     }
 
+    /**
+     * Returns the number of king steps between two cells, the distance used for all ranges.
+     */
+    private int distance(int from, int to) {
+        int dx = Math.abs(map.xOf(from) - map.xOf(to));
+        int dy = Math.abs(map.yOf(from) - map.yOf(to));
+        return Math.max(dx, dy);
+    }
 
+    /**
+     * Checks if the destination is within movement range of the unit.
+     * @param from Starting cell index, holding the unit.
+     * @param to Target cell index.
+     * @return true if within range.
+     */
+    private boolean isInMovementRange(int from, int to) {
+        return distance(from, to) <= map.getUnit(from).getMovementRange();
+    }
 
+    /**
+     * Checks if the destination is within attack range of the unit.
+     * @param from Starting cell index, holding the unit.
+     * @param to Target cell index.
+     * @return true if within range.
+     */
+    private boolean isInAttackRange(int from, int to) {
+        return distance(from, to) <= map.getUnit(from).getAttackRange();
+    }
 }
@@ -0,0 +1,113 @@
+package am.aua.game.gameLogic;
+
+import am.aua.game.navigation.CellSet;
+import am.aua.game.units.Unit;
+
+/**
+ * Remembers, for the last few units asked about, the cells they can move to and the enemy
+ * units they can attack, as computed by {@link GameCore}. An entry stays valid until a
+ * unit is placed on or taken off a cell within its radius, the larger of the unit's
+ * movement and attack range around the cell it was computed for, or the terrain changes.
+ * Entries live in a small array searched linearly and are recycled round-robin together
+ * with their cell sets, so a steady stream of queries allocates nothing.
+ */
+final class RangeCache {
+    /** Number of units remembered at once. */
+    static final int CAPACITY = 8;
+
+    /** The cached sets of one unit standing on one cell. */
+    static final class Entry {
+        Unit unit;
+        int x;
+        int y;
+        int radius;
+        int terrainVersion;
+        final CellSet reachable = new CellSet();
+        final CellSet attackable = new CellSet();
+    }
+
+    private final Entry[] entries = new Entry[CAPACITY];
+    private int size;
+    private int next;
+
+    /**
+     * Returns the valid entry of a unit standing on the given cell, or null.
+     */
+    Entry lookup(Unit unit, int x, int y, int terrainVersion) {
+        for (int i = 0; i < size; i++) {
+            Entry entry = entries[i];
+            if (entry.unit == unit && entry.x == x && entry.y == y && entry.terrainVersion == terrainVersion) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an entry to fill for a unit, with empty sets, replacing the unit's previous
+     * entry, an invalidated one or, when the cache is full, the oldest one.
+     */
+    Entry allocate(Unit unit, int x, int y, int radius, int terrainVersion) {
+        Entry entry = null;
+        for (int i = 0; i < size && entry == null; i++) {
+            if (entries[i].unit == unit) {
+                entry = entries[i];
+            }
+        }
+        for (int i = 0; i < size && entry == null; i++) {
+            if (entries[i].unit == null) {
+                entry = entries[i];
+            }
+        }
+        if (entry == null) {
+            if (size < CAPACITY) {
+                entries[size] = new Entry();
+                entry = entries[size++];
+            } else {
+                entry = entries[next];
+                next = (next + 1) % CAPACITY;
+            }
+        }
+        entry.unit = unit;
+        entry.x = x;
+        entry.y = y;
+        entry.radius = radius;
+        entry.terrainVersion = terrainVersion;
+        entry.reachable.clear();
+        entry.attackable.clear();
+        return entry;
+    }
+
+    /**
+     * Drops every entry whose radius covers the given cell.
+     */
+    void invalidate(int x, int y) {
+        for (int i = 0; i < size; i++) {
+            Entry entry = entries[i];
+            if (entry.unit != null && Math.max(Math.abs(entry.x - x), Math.abs(entry.y - y)) <= entry.radius) {
+                entry.unit = null;
+            }
+        }
+    }
+
+    /**
+     * Drops every entry.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            entries[i].unit = null;
+        }
+    }
+
+    /**
+     * Checks whether no entry is valid, so state changes can skip {@link #invalidate}.
+     */
+    boolean isEmpty() {
+        for (int i = 0; i < size; i++) {
+            if (entries[i].unit != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
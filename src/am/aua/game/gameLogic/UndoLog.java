@@ -0,0 +1,91 @@
+package am.aua.game.gameLogic;
+
+import java.util.Arrays;
+
+/**
+ * Trail of primitive state changes recorded by {@link GameCore} while actions are applied
+ * through {@link GameCore#apply(long)}. Each entry stores a change kind, a cell index, a
+ * primitive previous value and an optional object reference in parallel arrays, so
+ * recording allocates nothing once the arrays have grown to the deepest search.
+ */
+final class UndoLog {
+    /** A cell's unit changed; {@code ref} holds the previous unit. */
+    static final int UNIT = 0;
+    /** The health of the unit in {@code ref}, standing on {@code cell}, changed; {@code value} holds the old health. */
+    static final int HEALTH = 1;
+    /** A cell's owner changed; {@code ref} holds the previous owner. */
+    static final int OWNER = 2;
+    /** A cell was added to the territory of the player in {@code ref}. */
+    static final int TERRITORY_ADD = 3;
+    /** A cell was removed from the territory of the player in {@code ref}. */
+    static final int TERRITORY_REMOVE = 4;
+    /** A unit was appended to the unit list of the player in {@code ref}. */
+    static final int UNIT_LIST_ADD = 5;
+    /** The unit in {@code ref} was removed from position {@code cell} of its owner's unit list. */
+    static final int UNIT_LIST_REMOVE = 6;
+    /** The resources of the player in {@code ref} changed; {@code value} holds the old amount's bits. */
+    static final int RESOURCES = 7;
+    /** The turn passed; {@code value} holds the old turn count, {@code cell} the old player index. */
+    static final int TURN = 8;
+    /** The unit in {@code ref} was taken from the purchase pool and must be returned to it. */
+    static final int POOLED_UNIT = 9;
+
+    private int[] kinds = new int[64];
+    private int[] cells = new int[64];
+    private long[] values = new long[64];
+    private Object[] refs = new Object[64];
+    private int size;
+
+    /**
+     * Appends an entry.
+     */
+    void push(int kind, int cell, long value, Object ref) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            cells = Arrays.copyOf(cells, capacity);
+            values = Arrays.copyOf(values, capacity);
+            refs = Arrays.copyOf(refs, capacity);
+        }
+        kinds[size] = kind;
+        cells[size] = cell;
+        values[size] = value;
+        refs[size] = ref;
+        size++;
+    }
+
+    /**
+     * Drops the newest entry; its fields must have been read beforehand.
+     */
+    void pop() {
+        refs[--size] = null;
+    }
+
+    /**
+     * Drops every entry.
+     */
+    void clear() {
+        Arrays.fill(refs, 0, size, null);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int kind(int i) {
+        return kinds[i];
+    }
+
+    int cell(int i) {
+        return cells[i];
+    }
+
+    long value(int i) {
+        return values[i];
+    }
+
+    Object ref(int i) {
+        return refs[i];
+    }
+}
@@ -0,0 +1,78 @@
+package am.aua.game.gameLogic;
+
+import am.aua.game.navigation.Cell;
+import am.aua.game.units.UnitType;
+
+/**
+ * Zobrist keys for hashing {@link GameCore} states.
+ * Maps can hold millions of cells, so instead of per-cell random tables every key is
+ * derived on demand by running a feature/cell pair through the SplitMix64 finalizer;
+ * that costs a couple of multiplies and keeps the key space independent of the map size.
+ */
+final class Zobrist {
+    private static final int TERRAIN = 1;
+    private static final int UNIT = 2;
+    private static final int OWNER = 3;
+    private static final int PLAYER = 4;
+    private static final int TURN = 5;
+    private static final int RESOURCES = 6;
+
+    /** Width of a health bucket; attack powers are multiples of it, so buckets are exact in play. */
+    static final int HEALTH_BUCKET = 5;
+
+    private Zobrist() {
+    }
+
+    /**
+     * Key of a non-NORMAL terrain on a cell; NORMAL contributes nothing.
+     */
+    static long terrain(int cell, Cell.TerrainType terrain) {
+        return terrain == Cell.TerrainType.NORMAL ? 0 : key(TERRAIN << 4 | terrain.ordinal(), cell);
+    }
+
+    /**
+     * Key of a unit of the given type, owner and health standing on a cell.
+     */
+    static long unit(int cell, UnitType type, int owner, int health) {
+        int bucket = Math.min(Math.max(health, 0) / HEALTH_BUCKET, 255);
+        return key(UNIT << 4 | type.ordinal() | (owner + 1) << 8 | bucket << 16, cell);
+    }
+
+    /**
+     * Key of a cell owned by the player with the given index.
+     */
+    static long owner(int cell, int owner) {
+        return key(OWNER << 4 | (owner + 1) << 8, cell);
+    }
+
+    /**
+     * Key of the player with the given index being the current player.
+     */
+    static long player(int index) {
+        return key(PLAYER << 4 | (index + 1) << 8, -1);
+    }
+
+    /**
+     * Key of the turn count.
+     */
+    static long turn(int turnCount) {
+        return key(TURN << 4, turnCount);
+    }
+
+    /**
+     * Key of the player with the given index holding the given amount of resources.
+     */
+    static long resources(int player, double resources) {
+        return mix(key(RESOURCES << 4 | (player + 1) << 8, -1) ^ Double.doubleToLongBits(resources));
+    }
+
+    private static long key(int feature, int cell) {
+        return mix(((long) feature << 32 | (cell & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
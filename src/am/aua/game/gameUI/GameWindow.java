@@ -1,10 +1,15 @@
 package am.aua.game.gameUI;
 
+import am.aua.game.ai.AlphaBetaPlayer;
 import am.aua.game.exceptions.*;
+import am.aua.game.fileIO.ActionJournal;
+import am.aua.game.fileIO.ReplayRecorder;
 import am.aua.game.fileIO.SaveLoadManager;
 import am.aua.game.gameLogic.GameCore;
 import am.aua.game.navigation.Cell;
+import am.aua.game.navigation.CellSet;
 import am.aua.game.players.Player;
+import am.aua.game.simulation.Replayer;
 import am.aua.game.units.Archer;
 import am.aua.game.units.Soldier;
 import am.aua.game.units.Tank;
@@ -26,6 +31,7 @@ import javafx.stage.Screen;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Objects;
 
 public class GameWindow {
@@ -33,6 +39,8 @@ public class GameWindow {
 
     private final Stage stage;
     private final GameCore gameCore;
+    private final AlphaBetaPlayer computer;
+    private final Replayer replayer;
     private final int GRID_WIDTH;
     private final int GRID_HEIGHT;
 
@@ -54,10 +62,34 @@ public class GameWindow {
     private int selectedRow = -1;
     private int selectedCol = -1;
 
+    private ReplayRecorder recorder = null;
+    private ActionJournal journal = null;
+    private Label replayProgressLabel;
 
     public GameWindow(Stage primaryStage, GameCore gameCore) {
+        this(primaryStage, gameCore, null);
+    }
+
+    /**
+     * Opens the game, with the second player controlled by the given computer player,
+     * or by a human if it is null.
+     */
+    public GameWindow(Stage primaryStage, GameCore gameCore, AlphaBetaPlayer computer) {
+        this(primaryStage, gameCore, computer, null);
+    }
+
+    /**
+     * Opens a recorded game to be watched, stepping through its actions with the replayer.
+     */
+    public GameWindow(Stage primaryStage, Replayer replayer) {
+        this(primaryStage, replayer.getGame(), null, replayer);
+    }
+
+    private GameWindow(Stage primaryStage, GameCore gameCore, AlphaBetaPlayer computer, Replayer replayer) {
         this.stage = primaryStage;
         this.gameCore = gameCore;
+        this.computer = computer;
+        this.replayer = replayer;
         this.GRID_WIDTH = gameCore.getMap().getWidth();
         this.GRID_HEIGHT = gameCore.getMap().getHeight();
 
@@ -108,16 +140,35 @@ public class GameWindow {
 
         Scene scene = new Scene(root);
         stage.setScene(scene);
-        stage.setTitle("Strategy Game");
+        stage.setTitle(replayer == null ? "Strategy Game" : "Strategy Game - Replay");
+        if (replayer == null) {
+            startJournal();
+        }
+        stage.setOnHidden(e -> {
+            stopRecording();
+            stopJournal(false);
+        });
         stage.setResizable(true);
         stage.setFullScreen(true);
         stage.setMaximized(true);
         stage.show();
+        if (computer != null && gameCore.getCurrentPlayer() == gameCore.getPlayers().get(1)) {
+            // a resumed game may have stopped during the computer's turn
+            nextTurn();
+        }
     }
 
     private void renderGrid() {
         gridPane.getChildren().clear();
 
+        // Move and attack targets of the selected unit, cached by the game between repaints
+        CellSet reachable = null;
+        CellSet attackable = null;
+        if (selectedCell != null && selectedCell.getUnit() != null) {
+            reachable = gameCore.getReachableCells(selectedCell.getIndex());
+            attackable = gameCore.getAttackableCells(selectedCell.getIndex());
+        }
+
         for (int i = 0; i < GRID_WIDTH; i++) {
             for (int j = 0; j < GRID_HEIGHT; j++) {
                 Cell cell = gameCore.getMap().getCellAt(i, j);
@@ -152,9 +203,13 @@ public class GameWindow {
                 // Determine if this cell is selected
                 boolean isSelected = (i == selectedRow && j == selectedCol);
 
-                // Set border color depending on selection or ownership
+                // Set border color depending on selection, targets or ownership
                 if (isSelected) {
                     stack.setStyle("-fx-border-color: yellow; -fx-border-width: 1;");
+                } else if (attackable != null && attackable.contains(cell.getIndex())) {
+                    stack.setStyle("-fx-border-color: orange; -fx-border-width: 3;");
+                } else if (reachable != null && reachable.contains(cell.getIndex())) {
+                    stack.setStyle("-fx-border-color: lime; -fx-border-width: 2;");
                 } else if (cell.getOwner() != null) {
                     if (cell.getOwner().equals(gameCore.getPlayers().get(0))) {
                         stack.setStyle("-fx-border-color: red; -fx-border-width: 1;");
@@ -178,7 +233,7 @@ public class GameWindow {
         Unit clickedUnit = clickedCell.getUnit();
 
         // Deselect if the same cell is clicked again
-        if (selectedCell != null && selectedCell == clickedCell) {
+        if (selectedCell != null && selectedCell.equals(clickedCell)) {
             selectedCell = null;
             selectedRow = -1;
             selectedCol = -1;
@@ -187,8 +242,8 @@ public class GameWindow {
             return;
         }
 
-        // If a cell is already selected (move/attack)
-        if (selectedCell != null) {
+        // If a cell is already selected (move/attack), unless watching a replay
+        if (selectedCell != null && replayer == null) {
             Unit selectedUnit = selectedCell.getUnit();
             try {
                 if (clickedUnit == null) {
@@ -265,6 +320,10 @@ public class GameWindow {
     }
 
     private void setupControls() {
+        if (replayer != null) {
+            setupReplayControls();
+            return;
+        }
         Button buyButton = new Button("Buy");
         Button sellButton = new Button("Sell");
         Button saveGameButton = new Button("Save Game");
@@ -279,7 +338,113 @@ public class GameWindow {
         });
         saveGameButton.setOnAction(e -> handleSaveGame());
 
-        rightPanel.getChildren().addAll(buyButton, sellButton, saveGameButton);
+        Button recordButton = new Button("Record");
+        recordButton.setOnAction(e -> {
+            if (recorder == null) {
+                startRecording();
+            } else {
+                stopRecording();
+            }
+            recordButton.setText(recorder == null ? "Record" : "Stop Recording");
+        });
+
+        rightPanel.getChildren().addAll(buyButton, sellButton, saveGameButton, recordButton);
+    }
+
+    private void setupReplayControls() {
+        Button stepButton = new Button("Step");
+        Button playButton = new Button("Play to End");
+        replayProgressLabel = new Label();
+        updateReplayProgress();
+
+        stepButton.setOnAction(e -> {
+            if (replayer.hasNext()) {
+                replayer.step();
+                afterReplayStep();
+            }
+        });
+        playButton.setOnAction(e -> {
+            replayer.runToEnd();
+            afterReplayStep();
+        });
+
+        rightPanel.getChildren().addAll(replayProgressLabel, stepButton, playButton);
+    }
+
+    private void afterReplayStep() {
+        selectedCell = null;
+        selectedRow = -1;
+        selectedCol = -1;
+        unitInfoPopup.setVisible(false);
+        renderGrid();
+        updatePlayerInfoLabels();
+        updateReplayProgress();
+        if (replayer.getDivergence() != null) {
+            new Alert(Alert.AlertType.WARNING, "The replay diverged from the recording: "
+                    + replayer.getDivergence()).show();
+        }
+    }
+
+    private void updateReplayProgress() {
+        replayProgressLabel.setText("Action " + replayer.getPosition() + " of "
+                + replayer.getReplay().getActionCount());
+    }
+
+    private void startRecording() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Record Game");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Replays", "*.replay"));
+
+        File file = fileChooser.showSaveDialog(stage);
+        if (file != null) {
+            try {
+                recorder = ReplayRecorder.start(file.toPath(), gameCore);
+            } catch (IOException ex) {
+                new Alert(Alert.AlertType.ERROR, "Cannot record the game: " + ex.getMessage()).show();
+            }
+        }
+    }
+
+    private void stopRecording() {
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException ex) {
+                System.err.println("Error saving recording: " + ex.getMessage());
+            }
+            recorder = null;
+        }
+    }
+
+    /**
+     * Journals the game to {@link ActionJournal#DEFAULT_PATH}, so that the main menu can
+     * resume it if the window is closed or the program stops before the game is over.
+     */
+    private void startJournal() {
+        try {
+            journal = ActionJournal.start(ActionJournal.DEFAULT_PATH, gameCore,
+                    ActionJournal.DEFAULT_SNAPSHOT_INTERVAL, computer == null ? 0 : 1 << 1);
+        } catch (IOException ex) {
+            System.err.println("Error starting journal: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Closes the journal, deleting it if the game is over.
+     */
+    private void stopJournal(boolean gameOver) {
+        if (journal != null) {
+            try {
+                if (gameOver) {
+                    journal.discard();
+                } else {
+                    journal.close();
+                }
+            } catch (IOException ex) {
+                System.err.println("Error closing journal: " + ex.getMessage());
+            }
+            journal = null;
+        }
     }
 
     private void handleBuy() {
@@ -339,10 +504,15 @@ public class GameWindow {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save Game");
         fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter( ".txt","*.txt"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(".sav (compact)", "*.sav"));
 
         File file = fileChooser.showSaveDialog(stage);
         if (file != null) {
-            SaveLoadManager.saveGame(file.getAbsolutePath(), gameCore);
+            if (file.getName().endsWith(".sav")) {
+                SaveLoadManager.saveGameBinary(file.getAbsolutePath(), gameCore);
+            } else {
+                SaveLoadManager.saveGame(file.getAbsolutePath(), gameCore);
+            }
             System.out.println("Game saved successfully.");
         }
     }
@@ -374,6 +544,7 @@ public class GameWindow {
             }
 
             alert.showAndWait();
+            stopJournal(true);
             stage.close(); // or go to main menu
         }
     }
@@ -382,6 +553,13 @@ public class GameWindow {
         renderGrid();
         updatePlayerInfoLabels();
         checkDefeat();
+        if (computer != null && gameCore.getCurrentPlayer() == gameCore.getPlayers().get(1)
+                && !gameCore.checkLooseCondition()) {
+            computer.playTurn(gameCore);
+            renderGrid();
+            updatePlayerInfoLabels();
+            checkDefeat();
+        }
     }
 
     private void updateCellBorder(StackPane cellPane, Cell cell, boolean isSelected) {
@@ -1,8 +1,12 @@
 package am.aua.game.gameUI;
 
+import am.aua.game.ai.AlphaBetaPlayer;
+import am.aua.game.fileIO.ActionJournal;
+import am.aua.game.fileIO.Replay;
 import am.aua.game.fileIO.SaveLoadManager;
 import am.aua.game.gameLogic.GameCore;
 import am.aua.game.players.Player;
+import am.aua.game.simulation.Replayer;
 import javafx.application.Application;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -13,6 +17,8 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Optional;
 
@@ -28,7 +34,10 @@ public class MainMenu extends Application {
 
         // --- Buttons ---
         Button newGameBtn = styledButton("Start New Game");
+        Button resumeGameBtn = styledButton("Resume Last Game");
+        resumeGameBtn.setDisable(!Files.exists(ActionJournal.DEFAULT_PATH));
         Button loadGameBtn = styledButton("Load Game");
+        Button watchReplayBtn = styledButton("Watch Replay");
         Button exitBtn = styledButton("Exit");
 
         // --- Button actions ---
@@ -36,7 +45,10 @@ public class MainMenu extends Application {
             Optional<String> player1Name = askName("Player 1");
             if (!player1Name.isPresent()) return;
 
-            Optional<String> player2Name = askName("Player 2");
+            Optional<Boolean> againstComputer = askOpponent();
+            if (!againstComputer.isPresent()) return;
+
+            Optional<String> player2Name = againstComputer.get() ? Optional.of("Computer") : askName("Player 2");
             if (!player2Name.isPresent()) return;
 
             ArrayList<Player> players = new ArrayList<>();
@@ -44,13 +56,26 @@ public class MainMenu extends Application {
             players.add(new Player(player2Name.get()));
 
             GameCore gameCore = new GameCore(players);
-            new GameWindow(primaryStage, gameCore);
+            new GameWindow(primaryStage, gameCore, againstComputer.get() ? new AlphaBetaPlayer() : null);
+        });
+
+        resumeGameBtn.setOnAction(e -> {
+            try {
+                ActionJournal.Recovery recovery = ActionJournal.recover(ActionJournal.DEFAULT_PATH);
+                if (!recovery.isComplete()) {
+                    showError("Part of the game could not be recovered: " + recovery.problem());
+                }
+                new GameWindow(primaryStage, recovery.game(),
+                        recovery.isComputer(1) ? new AlphaBetaPlayer() : null);
+            } catch (IOException ex) {
+                showError("Failed to recover game: " + ex.getMessage());
+            }
         });
 
         loadGameBtn.setOnAction(e -> {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Load Saved Game");
-            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files", "*.txt"));
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Saved Games", "*.txt", "*.sav"));
 
             File file = fileChooser.showOpenDialog(primaryStage);
             if (file != null) {
@@ -67,10 +92,25 @@ public class MainMenu extends Application {
             }
         });
 
+        watchReplayBtn.setOnAction(e -> {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Watch Replay");
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Replays", "*.replay"));
+
+            File file = fileChooser.showOpenDialog(primaryStage);
+            if (file != null) {
+                try {
+                    new GameWindow(primaryStage, new Replayer(Replay.load(file.toPath())));
+                } catch (IOException ex) {
+                    showError("Failed to load replay: " + ex.getMessage());
+                }
+            }
+        });
+
         exitBtn.setOnAction(e -> primaryStage.close());
 
         // --- Layout ---
-        VBox menuBox = new VBox(20, newGameBtn, loadGameBtn, exitBtn);
+        VBox menuBox = new VBox(20, newGameBtn, resumeGameBtn, loadGameBtn, watchReplayBtn, exitBtn);
         menuBox.setAlignment(Pos.CENTER);
 
         StackPane root = new StackPane(menuBox);
@@ -120,6 +160,19 @@ public class MainMenu extends Application {
         return result;
     }
 
+    // Helper: ask whether player 2 is a human or the computer
+    private Optional<Boolean> askOpponent() {
+        ButtonType human = new ButtonType("Human");
+        ButtonType computer = new ButtonType("Computer");
+        Alert dialog = new Alert(Alert.AlertType.CONFIRMATION, "Who plays as Player 2?", human, computer, ButtonType.CANCEL);
+        dialog.setHeaderText("Opponent");
+        Optional<ButtonType> result = dialog.showAndWait();
+        if (!result.isPresent() || result.get() == ButtonType.CANCEL) {
+            return Optional.empty();
+        }
+        return Optional.of(result.get() == computer);
+    }
+
     private void showError(String message) {
         new Alert(Alert.AlertType.WARNING, message, ButtonType.OK).showAndWait();
     }
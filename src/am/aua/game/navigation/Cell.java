@@ -7,13 +7,13 @@ import am.aua.game.units.Unit;
  * Represents a single cell (tile) on the game map grid.
  * Each cell has coordinates, may belong to a player, may contain a unit,
  * and has a specific terrain type which may affect movement and gameplay.
+ * A cell is a lightweight view: its state lives in the packed storage of the
+ * owning {@link Map}, so two cells with the same map and coordinates are equal.
  */
 public class Cell {
+    private final Map map;
     private final int x;
     private final int y;
-    private Player owner;
-    private Unit unit;
-    private TerrainType terrain;
 
     /**
      * Enum representing different types of terrain a cell can have.
@@ -23,20 +23,25 @@ public class Cell {
     }
 
     /**
-     * Constructs a new Cell with given coordinates, owner, unit, and terrain type.
+     * Constructs a view of the cell at the given coordinates of a map.
      *
-     * @param x       the x-coordinate of the cell
-     * @param y       the y-coordinate of the cell
-     * @param owner   the player who owns this cell (may be null)
-     * @param unit    the unit currently on this cell (may be null)
-     * @param terrain the terrain type of the cell
+     * @param map the map holding the cell's state
+     * @param x   the x-coordinate of the cell
+     * @param y   the y-coordinate of the cell
      */
-    public Cell(int x, int y, Player owner, Unit unit, TerrainType terrain) {
+    Cell(Map map, int x, int y) {
+        this.map = map;
         this.x = x;
         this.y = y;
-        this.owner = owner;
-        this.unit = unit;
-        this.terrain = terrain;
+    }
+
+    /**
+     * Returns the index of this cell in its map's storage.
+     *
+     * @return the cell index, {@code y * width + x}
+     */
+    public int getIndex() {
+        return map.indexOf(x, y);
     }
 
     /**
@@ -45,7 +50,7 @@ public class Cell {
      * @return the terrain type
      */
     public TerrainType getTerrain() {
-        return terrain;
+        return map.getTerrain(getIndex());
     }
 
     /**
@@ -54,7 +59,7 @@ public class Cell {
      * @param terrain the new terrain type
      */
     public void setTerrain(TerrainType terrain) {
-        this.terrain = terrain;
+        map.setTerrain(getIndex(), terrain);
     }
 
     /**
@@ -81,7 +86,7 @@ public class Cell {
      * @return the owner player (may be null)
      */
     public Player getOwner() {
-        return owner;
+        return map.getOwner(getIndex());
     }
 
     /**
@@ -90,7 +95,7 @@ public class Cell {
      * @param owner the new owner player
      */
     public void setOwner(Player owner) {
-        this.owner = owner;
+        map.setOwner(getIndex(), owner);
     }
 
     /**
@@ -99,7 +104,7 @@ public class Cell {
      * @return the unit (may be null)
      */
     public Unit getUnit() {
-        return unit;
+        return map.getUnit(getIndex());
     }
 
     /**
@@ -108,14 +113,14 @@ public class Cell {
      * @param unit the unit to place
      */
     public void setUnit(Unit unit) {
-        this.unit = unit;
+        map.setUnit(getIndex(), unit);
     }
 
     /**
      * Removes any unit currently on this cell.
      */
     public void removeUnit() {
-        this.unit = null;
+        map.setUnit(getIndex(), null);
     }
 
     /**
@@ -124,7 +129,7 @@ public class Cell {
      * @return true if a unit is on this cell, false otherwise
      */
     public boolean isOccupied() {
-        return unit != null;
+        return map.isOccupied(getIndex());
     }
 
     /**
@@ -134,7 +139,7 @@ public class Cell {
      * @return true if the terrain is NORMAL, false otherwise
      */
     public boolean isPassable() {
-        return terrain == TerrainType.NORMAL;
+        return map.isPassable(getIndex());
     }
 
     /**
@@ -143,7 +148,7 @@ public class Cell {
      * @param newOwner the new owner
      */
     public void changeOwner(Player newOwner) {
-        owner = newOwner;
+        map.setOwner(getIndex(), newOwner);
     }
 
     /**
@@ -155,7 +160,28 @@ public class Cell {
     @Override
     public String toString() {
         if (isOccupied())
-            return unit.getSymbol();
+            return getUnit().getSymbol();
         return ".";
     }
+
+    /**
+     * Two cells are equal when they view the same coordinates of the same map.
+     *
+     * @param o the object to compare with
+     * @return true if {@code o} is a cell at the same position of the same map
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Cell))
+            return false;
+        Cell other = (Cell) o;
+        return map == other.map && x == other.x && y == other.y;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * x + y;
+    }
 }
@@ -0,0 +1,202 @@
+package am.aua.game.navigation;
+
+import java.util.Arrays;
+
+/**
+ * A set of map cells stored as a bitboard: one bit per cell index ({@code y * width + x})
+ * packed into {@code long} words. Membership, insertion and removal are O(1); the size is
+ * a popcount over the words, and set algebra works a word at a time.
+ * The word array grows on demand to cover the largest index ever added.
+ */
+public class CellSet {
+    private static final long[] EMPTY = new long[0];
+
+    private long[] words;
+
+    /**
+     * Constructs an empty set.
+     */
+    public CellSet() {
+        this.words = EMPTY;
+    }
+
+    /**
+     * Constructs an empty set with room for the given number of cells.
+     *
+     * @param cellCount the number of cells the set should hold without growing
+     */
+    public CellSet(int cellCount) {
+        this.words = new long[(cellCount + 63) >>> 6];
+    }
+
+    /**
+     * Adds a cell to the set.
+     *
+     * @param index the cell index
+     * @return true if the cell was not already in the set
+     */
+    public boolean add(int index) {
+        int word = index >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        long bit = 1L << index;
+        boolean added = (words[word] & bit) == 0;
+        words[word] |= bit;
+        return added;
+    }
+
+    /**
+     * Removes a cell from the set.
+     *
+     * @param index the cell index
+     * @return true if the cell was in the set
+     */
+    public boolean remove(int index) {
+        int word = index >>> 6;
+        if (word >= words.length) {
+            return false;
+        }
+        long bit = 1L << index;
+        boolean removed = (words[word] & bit) != 0;
+        words[word] &= ~bit;
+        return removed;
+    }
+
+    /**
+     * Checks whether a cell is in the set.
+     *
+     * @param index the cell index
+     * @return true if the cell is in the set
+     */
+    public boolean contains(int index) {
+        int word = index >>> 6;
+        return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the number of cells in the set.
+     *
+     * @return the population count of the bitboard
+     */
+    public int size() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the set contains no cells.
+     *
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes every cell from the set, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * Returns the first cell index in the set that is greater than or equal to {@code from}.
+     * Iterate with {@code for (int i = s.nextSetBit(0); i >= 0; i = s.nextSetBit(i + 1))}.
+     *
+     * @param from the index to start searching at
+     * @return the next index in the set, or -1 if there is none
+     */
+    public int nextSetBit(int from) {
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    /**
+     * Replaces the content of this set with the content of another.
+     *
+     * @param other the set to copy
+     */
+    public void copyFrom(CellSet other) {
+        if (words.length < other.words.length) {
+            words = new long[other.words.length];
+        }
+        System.arraycopy(other.words, 0, words, 0, other.words.length);
+        Arrays.fill(words, other.words.length, words.length, 0L);
+    }
+
+    /**
+     * Adds every cell of another set to this one.
+     *
+     * @param other the set to unite with
+     */
+    public void or(CellSet other) {
+        if (words.length < other.words.length) {
+            words = Arrays.copyOf(words, other.words.length);
+        }
+        for (int i = 0; i < other.words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Keeps only the cells that are also in another set.
+     *
+     * @param other the set to intersect with
+     */
+    public void and(CellSet other) {
+        int common = Math.min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            words[i] &= other.words[i];
+        }
+        Arrays.fill(words, common, words.length, 0L);
+    }
+
+    /**
+     * Removes every cell that is in another set.
+     *
+     * @param other the set of cells to remove
+     */
+    public void andNot(CellSet other) {
+        int common = Math.min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+
+    /**
+     * Checks whether this set shares at least one cell with another.
+     *
+     * @param other the set to test against
+     * @return true if the intersection is not empty
+     */
+    public boolean intersects(CellSet other) {
+        int common = Math.min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
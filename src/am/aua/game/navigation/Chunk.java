@@ -0,0 +1,64 @@
+package am.aua.game.navigation;
+
+/**
+ * A square tile of {@link Map} storage holding {@value #SIZE}x{@value #SIZE} cells.
+ * Each chunk keeps its terrain, owner indices and unit slots in flat primitive arrays
+ * addressed by the chunk-local index {@code (y & MASK) << SHIFT | (x & MASK)}.
+ * Chunks are only allocated by the map when one of their cells is first touched.
+ * <p>
+ * Copies of a map share chunks; a shared chunk is never written, the writing map first
+ * replaces it with a private {@link #Chunk(Chunk) copy}.
+ */
+final class Chunk {
+    /** Number of bits of a coordinate used inside a chunk. */
+    static final int SHIFT = 5;
+
+    /** Width and height of a chunk in cells. */
+    static final int SIZE = 1 << SHIFT;
+
+    /** Mask extracting the chunk-local part of a coordinate. */
+    static final int MASK = SIZE - 1;
+
+    /** Terrain of every cell, stored as {@link Cell.TerrainType} ordinals. */
+    final byte[] terrain;
+
+    /** Owner of every cell as an index into the map's owner registry; 0 means no owner. */
+    final byte[] ownerIndex;
+
+    /** Unit on every cell as a slot in the map's unit registry; 0 means the cell is empty. */
+    final int[] unitSlot;
+
+    /** Whether more than one map references this chunk, making it read-only. */
+    boolean shared;
+
+    /**
+     * Constructs an empty chunk.
+     */
+    Chunk() {
+        terrain = new byte[SIZE * SIZE];
+        ownerIndex = new byte[SIZE * SIZE];
+        unitSlot = new int[SIZE * SIZE];
+    }
+
+    /**
+     * Constructs a private, writable copy of a chunk.
+     *
+     * @param source the chunk to copy
+     */
+    Chunk(Chunk source) {
+        terrain = source.terrain.clone();
+        ownerIndex = source.ownerIndex.clone();
+        unitSlot = source.unitSlot.clone();
+    }
+
+    /**
+     * Returns the chunk-local index of the given map coordinates.
+     *
+     * @param x the x-coordinate on the map
+     * @param y the y-coordinate on the map
+     * @return the index into this chunk's arrays
+     */
+    static int localIndex(int x, int y) {
+        return (y & MASK) << SHIFT | (x & MASK);
+    }
+}
@@ -0,0 +1,238 @@
+package am.aua.game.navigation;
+
+import java.util.Arrays;
+
+/**
+ * Guarantees a passable route between two cells of a freshly generated map.
+ * <p>
+ * Two best-first flood fills grow alternately over passable (NORMAL) cells in king steps,
+ * one from each end, each always continuing from its cell closest to the other end; on
+ * open maps they walk almost straight towards each other and touch few chunks. The route
+ * exists as soon as one fill steps onto a cell of the other. When a fill runs out first,
+ * its region is enclosed: the region's cell closest to the other end is joined to the rest
+ * of the map by carving obstacles along a straight king-step line towards that end, up to
+ * the first passable cell outside the region, and the fill resumes from there. Because the
+ * smaller region runs out first, an enclosed spawn costs time proportional to its pocket
+ * rather than to the map, and every carve brings the region strictly closer to its target.
+ * The visited cells of each fill are kept in a hash set, so memory also grows with the
+ * explored area rather than with the map.
+ */
+final class Connectivity {
+    private Connectivity() {
+    }
+
+    /**
+     * Makes sure units can walk from one cell to another, carving obstacles if needed.
+     * Both cells must be passable.
+     *
+     * @param map  the map to connect
+     * @param from the start cell index
+     * @param to   the target cell index
+     * @return the number of cells turned from obstacles into NORMAL terrain
+     */
+    static int connect(Map map, int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        int[] neighbours = new int[Map.NEIGHBOUR_COUNT];
+        Fill forward = new Fill(map, from, to);
+        Fill backward = new Fill(map, to, from);
+        int carved = 0;
+        boolean forwardTurn = true;
+        while (true) {
+            Fill fill;
+            Fill other;
+            if (forward.size == 0 || (backward.size != 0 && forwardTurn)) {
+                fill = forward;
+                other = backward;
+            } else {
+                fill = backward;
+                other = forward;
+            }
+            forwardTurn = !forwardTurn;
+
+            if (fill.size == 0) {
+                int x = map.xOf(fill.closest);
+                int y = map.yOf(fill.closest);
+                while (true) {
+                    x += Integer.signum(fill.targetX - x);
+                    y += Integer.signum(fill.targetY - y);
+                    int cell = map.indexOf(x, y);
+                    if (other.visited.contains(cell)) {
+                        return carved;
+                    }
+                    boolean passable = map.isPassable(cell);
+                    if (!passable) {
+                        map.carve(cell);
+                        carved++;
+                    }
+                    fill.add(cell);
+                    if (passable) {
+                        break;
+                    }
+                }
+                continue;
+            }
+
+            int cell = fill.poll();
+            int count = map.getNeighbours(cell, neighbours);
+            for (int i = 0; i < count; i++) {
+                int next = neighbours[i];
+                if (map.isPassable(next)) {
+                    if (other.visited.contains(next)) {
+                        return carved;
+                    }
+                    if (!fill.visited.contains(next)) {
+                        fill.add(next);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One best-first flood fill: its visited cells and a binary min-heap of frontier cells
+     * keyed by distance to the target, then by cell index.
+     */
+    private static final class Fill {
+        final VisitedSet visited = new VisitedSet();
+        final int width;
+        final int targetX;
+        final int targetY;
+        long[] heap = new long[64];
+        int size;
+        int closest;
+        int closestDistance = Integer.MAX_VALUE;
+
+        Fill(Map map, int start, int target) {
+            this.width = map.getWidth();
+            this.targetX = map.xOf(target);
+            this.targetY = map.yOf(target);
+            add(start);
+        }
+
+        /**
+         * Marks a cell visited and queues it for expansion.
+         */
+        void add(int cell) {
+            visited.add(cell);
+            int distance = Math.max(Math.abs(cell % width - targetX), Math.abs(cell / width - targetY));
+            if (distance < closestDistance) {
+                closest = cell;
+                closestDistance = distance;
+            }
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            long key = (long) distance << 32 | cell;
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= key) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = key;
+        }
+
+        /**
+         * Removes and returns the queued cell closest to the target.
+         */
+        int poll() {
+            int cell = (int) heap[0];
+            long key = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= key) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            if (size > 0) {
+                heap[i] = key;
+            }
+            return cell;
+        }
+    }
+
+    /**
+     * Set of cell indices with open addressing and linear probing, sized by the number of
+     * cells added rather than by the largest index.
+     */
+    private static final class VisitedSet {
+        private static final int EMPTY = -1;
+
+        private int[] table = newTable(64);
+        private int mask = table.length - 1;
+
+        /** Right shift turning the multiplicative hash into a slot, {@code 32 - log2(table.length)}. */
+        private int shift = Integer.numberOfLeadingZeros(table.length) + 1;
+        private int size;
+
+        /**
+         * Adds a cell index.
+         */
+        void add(int cell) {
+            if (2 * (size + 1) > table.length) {
+                grow();
+            }
+            int slot = slot(cell);
+            while (table[slot] != EMPTY) {
+                if (table[slot] == cell) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = cell;
+            size++;
+        }
+
+        /**
+         * Checks whether a cell index was added.
+         */
+        boolean contains(int cell) {
+            for (int slot = slot(cell); table[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (table[slot] == cell) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int slot(int cell) {
+            return cell * 0x9E3779B9 >>> shift;
+        }
+
+        private void grow() {
+            int[] old = table;
+            table = newTable(old.length * 2);
+            mask = table.length - 1;
+            shift--;
+            for (int cell : old) {
+                if (cell != EMPTY) {
+                    int slot = slot(cell);
+                    while (table[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table[slot] = cell;
+                }
+            }
+        }
+
+        private static int[] newTable(int capacity) {
+            int[] table = new int[capacity];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+    }
+}
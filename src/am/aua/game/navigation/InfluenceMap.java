@@ -0,0 +1,387 @@
+package am.aua.game.navigation;
+
+import am.aua.game.units.Unit;
+
+import java.util.Arrays;
+
+/**
+ * Influence and threat layers over a {@link Map}, kept up to date incrementally as units
+ * are placed, removed and damaged.
+ * <p>
+ * Per player and cell it records the attack pressure, the summed attack power of the
+ * player's units that have the cell within attack range, and the control distance, the
+ * number of king steps to the player's nearest unit (up to {@value #CONTROL_RADIUS}).
+ * From these it maintains per-player totals that evaluation reads in constant time: the
+ * cells a player controls (strictly nearest unit), the enemy pressure bearing on the
+ * player's units, the player's material and the size of their territory.
+ * <p>
+ * The layers are stored in tiles of 32x32 cells, allocated only once a unit's attack range
+ * or control radius reaches them, so memory grows with the area around units rather than
+ * with the map. Like map chunks, tiles are shared copy-on-write by {@link #copy()}.
+ * Updating after a unit change touches the cells within attack range and within the
+ * control radius of the unit, never the whole map. Players are referred to by index,
+ * units by the cell they stand on; the caller reports every change, and must report a
+ * unit's removal with the same health its material was last counted with.
+ */
+public class InfluenceMap {
+    /** Largest control distance tracked; units further away do not control a cell. */
+    public static final int CONTROL_RADIUS = 3;
+
+    /** Control distance reported for a cell without any of the player's units in the radius. */
+    public static final int NO_CONTROL = CONTROL_RADIUS + 1;
+
+    private static final int RINGS = CONTROL_RADIUS + 1;
+
+    /** Number of bits of a coordinate used inside a tile. */
+    private static final int SHIFT = 5;
+    private static final int MASK = (1 << SHIFT) - 1;
+    private static final int AREA = 1 << (2 * SHIFT);
+
+    private final int width;
+    private final int height;
+    private final int playerCount;
+
+    /** Number of tile columns covering the map. */
+    private final int tilesX;
+
+    /** Layer tiles in row-major order, null where no unit has ever had influence. */
+    private final Tile[] tiles;
+
+    private final int[] controlled;
+    private final int[] threat;
+    private final int[] material;
+    private final int[] territory;
+
+    /**
+     * Constructs empty layers for a map.
+     *
+     * @param map         the map the layers cover
+     * @param playerCount the number of players
+     */
+    public InfluenceMap(Map map, int playerCount) {
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.playerCount = playerCount;
+        this.tilesX = (width + MASK) >> SHIFT;
+        this.tiles = new Tile[tilesX * ((height + MASK) >> SHIFT)];
+        this.controlled = new int[playerCount];
+        this.threat = new int[playerCount];
+        this.material = new int[playerCount];
+        this.territory = new int[playerCount];
+    }
+
+    /**
+     * Constructs a copy sharing the tiles of the source.
+     */
+    private InfluenceMap(InfluenceMap source) {
+        this.width = source.width;
+        this.height = source.height;
+        this.playerCount = source.playerCount;
+        this.tilesX = source.tilesX;
+        this.tiles = source.tiles.clone();
+        for (Tile tile : tiles) {
+            if (tile != null) {
+                tile.shared = true;
+            }
+        }
+        this.controlled = source.controlled.clone();
+        this.threat = source.threat.clone();
+        this.material = source.material.clone();
+        this.territory = source.territory.clone();
+    }
+
+    /**
+     * Returns an independent copy of the layers. Tiles are shared until either side writes
+     * to them, so the cost is proportional to the number of allocated tiles. The layers must
+     * not be modified while they are being copied.
+     *
+     * @return the copy
+     */
+    public InfluenceMap copy() {
+        return new InfluenceMap(this);
+    }
+
+    /**
+     * Records a unit placed on a cell.
+     *
+     * @param cell   the cell index
+     * @param player the index of the unit's owner
+     * @param unit   the unit
+     */
+    public void addUnit(int cell, int player, Unit unit) {
+        threat[player] += enemyPressure(cell, player);
+        setOccupant(cell, player + 1);
+        material[player] += value(unit, unit.getHealth());
+        spreadPressure(cell, player, unit, unit.getAttackPower());
+        spreadControl(cell, player, 1);
+    }
+
+    /**
+     * Records a unit taken off a cell.
+     *
+     * @param cell   the cell index
+     * @param player the index of the unit's owner
+     * @param unit   the unit
+     */
+    public void removeUnit(int cell, int player, Unit unit) {
+        spreadPressure(cell, player, unit, -unit.getAttackPower());
+        spreadControl(cell, player, -1);
+        material[player] -= value(unit, unit.getHealth());
+        setOccupant(cell, 0);
+        threat[player] -= enemyPressure(cell, player);
+    }
+
+    /**
+     * Records a change of health of a unit on the map.
+     *
+     * @param player    the index of the unit's owner
+     * @param unit      the unit
+     * @param oldHealth the health before the change
+     * @param newHealth the health after the change
+     */
+    public void changeHealth(int player, Unit unit, int oldHealth, int newHealth) {
+        material[player] += value(unit, newHealth) - value(unit, oldHealth);
+    }
+
+    /**
+     * Records cells joining or leaving a player's territory.
+     *
+     * @param player the player index
+     * @param delta  the change in the number of cells
+     */
+    public void changeTerritory(int player, int delta) {
+        territory[player] += delta;
+    }
+
+    /**
+     * Returns the summed attack power of a player's units that can reach a cell.
+     *
+     * @param player the player index
+     * @param cell   the cell index
+     * @return the pressure
+     */
+    public int getPressure(int player, int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        Tile tile = tiles[(y >> SHIFT) * tilesX + (x >> SHIFT)];
+        return tile == null ? 0 : tile.pressure[player * AREA + local(x, y)];
+    }
+
+    /**
+     * Returns the number of king steps from a cell to the player's nearest unit.
+     *
+     * @param player the player index
+     * @param cell   the cell index
+     * @return the distance, or {@link #NO_CONTROL} if no unit is within {@link #CONTROL_RADIUS}
+     */
+    public int getControlDistance(int player, int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        Tile tile = tiles[(y >> SHIFT) * tilesX + (x >> SHIFT)];
+        return tile == null ? NO_CONTROL : tile.controlDistance[player * AREA + local(x, y)];
+    }
+
+    /**
+     * Returns the number of cells where the player's nearest unit is strictly closer than
+     * every other player's.
+     *
+     * @param player the player index
+     * @return the number of controlled cells
+     */
+    public int getControlledCells(int player) {
+        return controlled[player];
+    }
+
+    /**
+     * Returns the enemy pressure bearing on the player's units, summed over their cells.
+     *
+     * @param player the player index
+     * @return the threat
+     */
+    public int getThreat(int player) {
+        return threat[player];
+    }
+
+    /**
+     * Returns the worth of the player's units on the map: each unit's price scaled by its
+     * remaining health.
+     *
+     * @param player the player index
+     * @return the material
+     */
+    public int getMaterial(int player) {
+        return material[player];
+    }
+
+    /**
+     * Returns the number of cells in the player's territory, as reported to this map.
+     *
+     * @param player the player index
+     * @return the territory size
+     */
+    public int getTerritory(int player) {
+        return territory[player];
+    }
+
+    private static int value(Unit unit, int health) {
+        return unit.getPrice() * health / unit.getType().getHealth();
+    }
+
+    private void setOccupant(int cell, int occupant) {
+        int x = cell % width;
+        int y = cell / width;
+        writableTile(x, y).occupant[local(x, y)] = (byte) occupant;
+    }
+
+    /**
+     * Returns the summed pressure of the other players on a cell.
+     */
+    private int enemyPressure(int cell, int player) {
+        int sum = 0;
+        for (int other = 0; other < playerCount; other++) {
+            if (other != player) {
+                sum += getPressure(other, cell);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Adds {@code amount} pressure of a player to every cell within the unit's attack
+     * range, and the matching threat to enemy units standing there.
+     */
+    private void spreadPressure(int cell, int player, Unit unit, int amount) {
+        int x = cell % width;
+        int y = cell / width;
+        int range = unit.getAttackRange();
+        int base = player * AREA;
+        for (int ty = Math.max(0, y - range); ty <= Math.min(height - 1, y + range); ty++) {
+            for (int tx = Math.max(0, x - range); tx <= Math.min(width - 1, x + range); tx++) {
+                Tile tile = writableTile(tx, ty);
+                int local = local(tx, ty);
+                tile.pressure[base + local] += amount;
+                int enemy = tile.occupant[local] - 1;
+                if (enemy >= 0 && enemy != player) {
+                    threat[enemy] += amount;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds or removes a player's unit at {@code cell} to the ring counts of every cell within
+     * the control radius, updating control distances and controlled-cell totals that change.
+     */
+    private void spreadControl(int cell, int player, int delta) {
+        int x = cell % width;
+        int y = cell / width;
+        int distanceBase = player * AREA;
+        for (int ty = Math.max(0, y - CONTROL_RADIUS); ty <= Math.min(height - 1, y + CONTROL_RADIUS); ty++) {
+            for (int tx = Math.max(0, x - CONTROL_RADIUS); tx <= Math.min(width - 1, x + CONTROL_RADIUS); tx++) {
+                Tile tile = writableTile(tx, ty);
+                int local = local(tx, ty);
+                int distance = Math.max(Math.abs(tx - x), Math.abs(ty - y));
+                int ring = (player * RINGS + distance) * AREA + local;
+                int count = (tile.ringCounts[ring] & 0xFF) + delta;
+                tile.ringCounts[ring] = (byte) count;
+                int current = tile.controlDistance[distanceBase + local];
+                int updated = current;
+                if (delta > 0 && distance < current) {
+                    updated = distance;
+                } else if (delta < 0 && count == 0 && distance == current) {
+                    updated = distance + 1;
+                    while (updated < NO_CONTROL && tile.ringCounts[(player * RINGS + updated) * AREA + local] == 0) {
+                        updated++;
+                    }
+                }
+                if (updated != current) {
+                    int before = controller(tile, local);
+                    tile.controlDistance[distanceBase + local] = (byte) updated;
+                    int after = controller(tile, local);
+                    if (before != after) {
+                        if (before >= 0) {
+                            controlled[before]--;
+                        }
+                        if (after >= 0) {
+                            controlled[after]++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the player whose nearest unit is strictly closest to a cell of a tile, or -1.
+     */
+    private int controller(Tile tile, int local) {
+        int best = -1;
+        int bestDistance = NO_CONTROL;
+        for (int player = 0; player < playerCount; player++) {
+            int distance = tile.controlDistance[player * AREA + local];
+            if (distance < bestDistance) {
+                best = player;
+                bestDistance = distance;
+            } else if (distance == bestDistance) {
+                best = -1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the tile holding {@code (x, y)}, allocating it or replacing a shared one with a
+     * private copy first.
+     */
+    private Tile writableTile(int x, int y) {
+        int index = (y >> SHIFT) * tilesX + (x >> SHIFT);
+        Tile tile = tiles[index];
+        if (tile == null) {
+            tile = new Tile(playerCount);
+            tiles[index] = tile;
+        } else if (tile.shared) {
+            tile = new Tile(tile);
+            tiles[index] = tile;
+        }
+        return tile;
+    }
+
+    private static int local(int x, int y) {
+        return (y & MASK) << SHIFT | (x & MASK);
+    }
+
+    /**
+     * The layers of a square of {@value #AREA} cells, addressed by the tile-local index.
+     */
+    private static final class Tile {
+        /** Attack pressure, indexed {@code player * AREA + local}. */
+        final int[] pressure;
+
+        /** Number of a player's units at each distance, indexed {@code (player * RINGS + distance) * AREA + local}. */
+        final byte[] ringCounts;
+
+        /** Smallest distance with a non-zero ring count, indexed {@code player * AREA + local}. */
+        final byte[] controlDistance;
+
+        /** Player index plus one of the unit standing on each cell; 0 for empty cells. */
+        final byte[] occupant;
+
+        /** Whether more than one influence map references this tile, making it read-only. */
+        boolean shared;
+
+        Tile(int playerCount) {
+            pressure = new int[playerCount * AREA];
+            ringCounts = new byte[playerCount * RINGS * AREA];
+            controlDistance = new byte[playerCount * AREA];
+            Arrays.fill(controlDistance, (byte) NO_CONTROL);
+            occupant = new byte[AREA];
+        }
+
+        Tile(Tile source) {
+            pressure = source.pressure.clone();
+            ringCounts = source.ringCounts.clone();
+            controlDistance = source.controlDistance.clone();
+            occupant = source.occupant.clone();
+        }
+    }
+}
@@ -1,18 +1,120 @@
 package am.aua.game.navigation;
 
+import am.aua.game.players.Player;
+import am.aua.game.units.Unit;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 
 /**
- * Represents the game map as a 2D grid of {@link Cell} objects.
- * The map is generated with random terrain types and has fixed dimensions (15x15).
+ * Represents the game map as a grid of cells whose dimensions are set at construction
+ * (15x15 by default).
+ * The board is stored in {@link Chunk}s of 32x32 cells, each keeping terrain, owner index
+ * and unit slot in flat primitive arrays. Chunks are allocated and their terrain generated
+ * only when one of their cells is first touched, so memory grows with the explored area
+ * rather than with the full bounding box.
+ * Cells are addressed by the index {@code y * width + x}; {@link Cell} objects returned by
+ * {@link #getCellAt(int, int)} and {@link #getGrid()} are lightweight views over this storage.
+ * Terrain is fully determined by the map's {@link #getSeed() seed} and its
+ * {@link TerrainGenerator}, which decides every cell from the seed and the cell's
+ * coordinates alone, so the result does not depend on the order in which chunks are
+ * touched and chunks can be generated in parallel with {@link #materialize(boolean)}.
+ * Generation guarantees a passable route between the top-left and bottom-right corners.
+ * A map loaded from a save reads the terrain of its chunks from a {@link TerrainSource}
+ * instead, with the same laziness.
  * Provides functionality to access and query cells and their neighbors.
  */
 public class Map {
-    private final int width = 15;
-    private final int height = 15;
-    private final Cell[][] grid = new Cell[width][height];
+    /** Width and height of the map used by the original game. */
+    public static final int DEFAULT_SIZE = 15;
+
+    private final int width;
+    private final int height;
+
+    /** Number of chunk columns covering the map. */
+    private final int chunksX;
+
+    /** Storage tiles in row-major order, null until first touched. */
+    private Chunk[] chunks;
+    private int allocatedChunks;
+
+    /** Seed the terrain of every chunk is derived from. */
+    private long seed;
+
+    /** Decides the terrain of every generated cell. */
+    private TerrainGenerator terrainGenerator;
+
+    /**
+     * Supplies the terrain of chunks of a loaded map in place of the generator; null for
+     * generated maps and once every chunk has been read.
+     */
+    private TerrainSource terrainSource;
+
+    /** Incremented whenever terrain is explicitly changed or regenerated. */
+    private int terrainVersion;
+
+    /**
+     * Whether the terrain is exactly what the seed and the terrain generator produce: set by
+     * {@link #generateMap(long)}, cleared when terrain is set explicitly or the generator
+     * changes. Maps read from a terrain source are not generated.
+     */
+    private boolean generated;
+
+    /** Players that own at least one cell of this map, slot 0 is reserved for "no owner". */
+    private Player[] owners = new Player[4];
+    private int ownerCount = 1;
+
+    /** Units standing on this map, slot 0 is reserved for "no unit". */
+    private Unit[] units = new Unit[16];
+    private int unitCount = 1;
+
+    /** Released unit slots that can be handed out again. */
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+
+    /** Odd constant spacing related seeds before they are {@link #mix(long) mixed}. */
+    static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static final Cell.TerrainType[] TERRAIN_TYPES = Cell.TerrainType.values();
+
+    /** Number of neighbours of an interior cell, including diagonals. */
+    public static final int NEIGHBOUR_COUNT = 8;
+
+    /** Column step of each neighbour direction, in the order W, E, N, S, NW, NE, SW, SE. */
+    private static final int[] DIRECTION_X = {-1, 1, 0, 0, -1, 1, -1, 1};
+
+    /** Row step of each neighbour direction, in the order W, E, N, S, NW, NE, SW, SE. */
+    private static final int[] DIRECTION_Y = {0, 0, -1, 1, -1, -1, 1, 1};
+
+    /**
+     * Bit mask of the directions that stay on the map, indexed by a cell's border class
+     * (bit 0: left column, bit 1: right column, bit 2: top row, bit 3: bottom row).
+     */
+    private static final int[] BORDER_MASKS = new int[16];
+
+    static {
+        for (int border = 0; border < BORDER_MASKS.length; border++) {
+            int mask = 0;
+            for (int d = 0; d < NEIGHBOUR_COUNT; d++) {
+                boolean off = (DIRECTION_X[d] < 0 && (border & 1) != 0)
+                        || (DIRECTION_X[d] > 0 && (border & 2) != 0)
+                        || (DIRECTION_Y[d] < 0 && (border & 4) != 0)
+                        || (DIRECTION_Y[d] > 0 && (border & 8) != 0);
+                if (!off) {
+                    mask |= 1 << d;
+                }
+            }
+            BORDER_MASKS[border] = mask;
+        }
+    }
+
+    /** Index delta of each neighbour direction, built once for this map's width. */
+    private final int[] neighbourOffsets = new int[NEIGHBOUR_COUNT];
 
     /** ANSI color code to reset terminal text color. */
     public static final String RESET = "\u001B[0m";
@@ -26,34 +128,351 @@ public class Map {
     public static final String ANSI_CYAN = "\u001B[36m";
 
     /**
-     * Constructs a new map and automatically generates its cells with terrain.
+     * Constructs a new 15x15 map and automatically generates its cells with terrain.
      */
     public Map() {
-        generateMap();
+        this(DEFAULT_SIZE, DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructs a new map with the given dimensions and a random seed. Terrain is generated
+     * chunk by chunk as the map is explored.
+     *
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @throws IllegalArgumentException if a dimension is not positive or the map has more
+     *                                  cells than an {@code int} index can address
+     */
+    public Map(int width, int height) {
+        this(width, height, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Constructs a new map with the given dimensions whose terrain is derived from a seed.
+     * Maps built with the same size and seed have the same terrain.
+     *
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param seed   the seed of the terrain
+     * @throws IllegalArgumentException if a dimension is not positive or the map has more
+     *                                  cells than an {@code int} index can address
+     */
+    public Map(int width, int height, long seed) {
+        this(width, height, seed, new RandomTerrain());
+    }
+
+    /**
+     * Constructs a new map with the given dimensions whose terrain is decided by a generator.
+     *
+     * @param width            the number of columns
+     * @param height           the number of rows
+     * @param seed             the seed of the terrain
+     * @param terrainGenerator decides the terrain of every cell
+     * @throws IllegalArgumentException if a dimension is not positive or the map has more
+     *                                  cells than an {@code int} index can address
+     */
+    public Map(int width, int height, long seed, TerrainGenerator terrainGenerator) {
+        this(width, height, terrainGenerator);
+        generateMap(seed);
+    }
+
+    /**
+     * Constructs a map of the given dimensions whose terrain is read from a source, such as
+     * a saved game, instead of being generated. Chunks are read when first touched, so only
+     * the explored part of a large map is ever decoded. The terrain is taken as it is:
+     * no cells are carved to connect the corners. The seed is kept, so that
+     * {@link #generateMap()} continues the sequence of the map that was saved.
+     *
+     * @param width         the number of columns
+     * @param height        the number of rows
+     * @param seed          the seed the map was generated from
+     * @param terrainSource supplies the terrain of every cell
+     * @throws IllegalArgumentException if a dimension is not positive or the map has more
+     *                                  cells than an {@code int} index can address
+     */
+    public Map(int width, int height, long seed, TerrainSource terrainSource) {
+        this(width, height, new RandomTerrain());
+        this.seed = seed;
+        this.terrainSource = terrainSource;
+        int chunksY = (height + Chunk.MASK) >> Chunk.SHIFT;
+        chunks = new Chunk[chunksX * chunksY];
+    }
+
+    /**
+     * Constructs a map without chunks; the caller generates or loads them.
+     */
+    private Map(int width, int height, TerrainGenerator terrainGenerator) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid map size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.chunksX = (width + Chunk.MASK) >> Chunk.SHIFT;
+        this.terrainGenerator = terrainGenerator;
+        for (int d = 0; d < NEIGHBOUR_COUNT; d++) {
+            neighbourOffsets[d] = DIRECTION_Y[d] * width + DIRECTION_X[d];
+        }
+    }
+
+    /**
+     * Constructs a copy of a map whose players and units are replaced through the given mappings.
+     */
+    private Map(Map source, UnaryOperator<Player> playerMapping, UnaryOperator<Unit> unitMapping) {
+        this.width = source.width;
+        this.height = source.height;
+        this.chunksX = source.chunksX;
+        System.arraycopy(source.neighbourOffsets, 0, neighbourOffsets, 0, NEIGHBOUR_COUNT);
+        this.chunks = source.chunks.clone();
+        for (Chunk chunk : chunks) {
+            if (chunk != null) {
+                chunk.shared = true;
+            }
+        }
+        this.allocatedChunks = source.allocatedChunks;
+        this.seed = source.seed;
+        this.terrainGenerator = source.terrainGenerator;
+        this.terrainSource = source.terrainSource;
+        this.terrainVersion = source.terrainVersion;
+        this.generated = source.generated;
+        this.owners = new Player[source.owners.length];
+        for (int i = 1; i < source.ownerCount; i++) {
+            owners[i] = playerMapping.apply(source.owners[i]);
+        }
+        this.ownerCount = source.ownerCount;
+        this.units = new Unit[source.units.length];
+        for (int i = 1; i < source.unitCount; i++) {
+            if (source.units[i] != null) {
+                units[i] = unitMapping.apply(source.units[i]);
+            }
+        }
+        this.unitCount = source.unitCount;
+        this.freeSlots = source.freeSlots.clone();
+        this.freeCount = source.freeCount;
     }
 
     /**
-     * Generates the terrain for each cell in the map grid randomly.
-     * Ensures the top-left and bottom-right cells are set to NORMAL terrain.
+     * Returns an independent copy of this map. Storage chunks are shared copy-on-write, so
+     * copying costs one pointer per chunk and each side only duplicates the chunks it later
+     * writes to. Owners and units are replaced through the given mappings; the caller is
+     * responsible for giving the mapped players matching territory and occupancy sets.
+     * The original must not be modified while the copy is being made; afterwards the two
+     * maps can be used from different threads.
+     *
+     * @param playerMapping maps every owner of this map to the owner in the copy
+     * @param unitMapping   maps every unit on this map to the unit in the copy
+     * @return the copy
+     */
+    public Map copy(UnaryOperator<Player> playerMapping, UnaryOperator<Unit> unitMapping) {
+        return new Map(this, playerMapping, unitMapping);
+    }
+
+    /**
+     * Returns the seed the terrain of this map is derived from.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the generator deciding the terrain of this map.
+     *
+     * @return the terrain generator
+     */
+    public TerrainGenerator getTerrainGenerator() {
+        return terrainGenerator;
+    }
+
+    /**
+     * Sets the generator deciding the terrain of this map; it takes effect the next time
+     * the map is generated.
+     *
+     * @param terrainGenerator the terrain generator
+     */
+    public void setTerrainGenerator(TerrainGenerator terrainGenerator) {
+        this.terrainGenerator = terrainGenerator;
+        generated = false;
+    }
+
+    /**
+     * Checks whether the terrain is still exactly what {@link #getTerrainGenerator()}
+     * produces from {@link #getSeed()}, so that a new map of the same size, seed and
+     * generator has the same terrain. This is decided from the map's history, without
+     * reading any terrain: it holds from {@link #generateMap(long)} until terrain is set
+     * explicitly or the generator is replaced, and never for a map read from a
+     * {@link TerrainSource}.
+     *
+     * @return true if the terrain is as generated
+     */
+    public boolean isGenerated() {
+        return generated;
+    }
+
+    /**
+     * Generates new terrain for the map from the next seed in the sequence started by the
+     * seed it was constructed with, so a series of regenerated maps is reproducible too.
+     * Any owners and units previously placed on the map are cleared.
      */
     public void generateMap() {
-        Random random = new Random();
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                Cell.TerrainType terrain;
-                int r = random.nextInt(100);
-                if (r < 10) {
-                    terrain = Cell.TerrainType.ROCK;
-                } else if (r < 20) {
-                    terrain = Cell.TerrainType.TREE;
-                } else {
-                    terrain = Cell.TerrainType.NORMAL;
-                }
-                grid[x][y] = new Cell(x, y, null, null, terrain);
+        generateMap(mix(seed + SEED_GAMMA));
+    }
+
+    /**
+     * Generates the terrain for each cell in the map grid from the given seed.
+     * Ensures the top-left and bottom-right cells are set to NORMAL terrain and joined by a
+     * passable route, carving through obstacles where the generator left none.
+     * Any owners and units previously placed on the map are cleared; the terrain of other
+     * chunks is generated when the chunk is first touched.
+     *
+     * @param seed the seed of the new terrain
+     */
+    public void generateMap(long seed) {
+        this.seed = seed;
+        terrainSource = null;
+        int chunksY = (height + Chunk.MASK) >> Chunk.SHIFT;
+        chunks = new Chunk[chunksX * chunksY];
+        allocatedChunks = 0;
+        terrainVersion++;
+        generated = true;
+        for (int slot = 1; slot < unitCount; slot++) {
+            if (units[slot] != null && units[slot].getOwner() != null) {
+                units[slot].getOwner().getOccupancy().clear();
             }
         }
-        grid[0][0].setTerrain(Cell.TerrainType.NORMAL);
-        grid[width - 1][height - 1].setTerrain(Cell.TerrainType.NORMAL);
+        Arrays.fill(units, null);
+        unitCount = 1;
+        freeCount = 0;
+        Connectivity.connect(this, 0, getCellCount() - 1);
+    }
+
+    /**
+     * Generates every chunk that has not been touched yet, so later queries never pay for
+     * generation. With {@code parallel} set the chunks are generated on the common
+     * fork-join pool, which pays off for maps of many chunks.
+     * The map must not be used by other threads meanwhile.
+     *
+     * @param parallel whether to generate chunks on several threads
+     */
+    public void materialize(boolean parallel) {
+        IntStream indices = IntStream.range(0, chunks.length);
+        if (parallel) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> {
+            if (chunks[i] == null) {
+                Chunk chunk = new Chunk();
+                generateChunk(chunk, i % chunksX, i / chunksX);
+                chunks[i] = chunk;
+            }
+        });
+        allocatedChunks = chunks.length;
+        terrainSource = null;
+    }
+
+    /**
+     * Turns an obstacle into NORMAL terrain while the map is being generated. Unlike
+     * {@link #setTerrain(int, Cell.TerrainType)} this does not change the terrain version,
+     * since the carved cell counts as generated that way.
+     */
+    void carve(int index) {
+        int x = xOf(index);
+        int y = yOf(index);
+        writableChunk(x, y).terrain[Chunk.localIndex(x, y)] = (byte) Cell.TerrainType.NORMAL.ordinal();
+    }
+
+    /**
+     * Reads the terrain of a freshly allocated chunk from the terrain source, or asks the
+     * terrain generator for every cell of it.
+     */
+    private void generateChunk(Chunk chunk, int chunkX, int chunkY) {
+        int x0 = chunkX << Chunk.SHIFT;
+        int y0 = chunkY << Chunk.SHIFT;
+        TerrainSource source = terrainSource;
+        if (source != null) {
+            source.readTerrain(x0, y0, Math.min(Chunk.SIZE, width - x0), Math.min(Chunk.SIZE, height - y0),
+                    chunk.terrain, Chunk.SIZE);
+            return;
+        }
+        for (int y = y0; y < Math.min(y0 + Chunk.SIZE, height); y++) {
+            for (int x = x0; x < Math.min(x0 + Chunk.SIZE, width); x++) {
+                chunk.terrain[Chunk.localIndex(x, y)] = (byte) terrainGenerator.terrainAt(seed, x, y).ordinal();
+            }
+        }
+        if (chunkX == 0 && chunkY == 0) {
+            chunk.terrain[Chunk.localIndex(0, 0)] = (byte) Cell.TerrainType.NORMAL.ordinal();
+        }
+        if (x0 + Chunk.SIZE >= width && y0 + Chunk.SIZE >= height) {
+            chunk.terrain[Chunk.localIndex(width - 1, height - 1)] = (byte) Cell.TerrainType.NORMAL.ordinal();
+        }
+    }
+
+    /**
+     * Scrambles a seed with the finalizer of SplitMix64, so that related seeds yield
+     * unrelated values.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the chunk holding the given coordinates, or null if it has not been touched yet.
+     */
+    private Chunk peekChunk(int x, int y) {
+        return chunks[(y >> Chunk.SHIFT) * chunksX + (x >> Chunk.SHIFT)];
+    }
+
+    /**
+     * Returns the chunk holding the given coordinates, allocating and generating it if needed.
+     */
+    private Chunk chunk(int x, int y) {
+        int cx = x >> Chunk.SHIFT;
+        int cy = y >> Chunk.SHIFT;
+        Chunk chunk = chunks[cy * chunksX + cx];
+        if (chunk == null) {
+            chunk = new Chunk();
+            generateChunk(chunk, cx, cy);
+            chunks[cy * chunksX + cx] = chunk;
+            if (++allocatedChunks == chunks.length) {
+                terrainSource = null;
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Returns the chunk holding the given coordinates for writing. A chunk shared with a
+     * copy of this map is first replaced by a private copy.
+     */
+    private Chunk writableChunk(int x, int y) {
+        Chunk chunk = chunk(x, y);
+        if (chunk.shared) {
+            chunk = new Chunk(chunk);
+            chunks[(y >> Chunk.SHIFT) * chunksX + (x >> Chunk.SHIFT)] = chunk;
+        }
+        return chunk;
+    }
+
+    /**
+     * Returns a counter that changes whenever terrain is set or regenerated, so callers can
+     * cache values derived from the terrain. Generating a chunk on first touch does not
+     * change it, since that terrain is treated as having existed all along.
+     *
+     * @return the current terrain version
+     */
+    public int getTerrainVersion() {
+        return terrainVersion;
+    }
+
+    /**
+     * Returns how many storage chunks have been allocated so far.
+     *
+     * @return the number of touched chunks
+     */
+    public int getAllocatedChunkCount() {
+        return allocatedChunks;
     }
 
     /**
@@ -74,35 +493,113 @@ public class Map {
         return height;
     }
 
+    /**
+     * Returns the number of cells on the map.
+     *
+     * @return width multiplied by height
+     */
+    public int getCellCount() {
+        return width * height;
+    }
+
     /**
      * Returns a list of valid neighboring cells surrounding a given cell,
-     * including diagonals.
+     * including diagonals. This is a convenience wrapper; hot code should use
+     * {@link #getNeighbours(int, int[])} or {@link #forEachNeighbour(int, IntConsumer)},
+     * which allocate nothing.
      *
      * @param cell the central cell
      * @return list of valid neighboring {@link Cell} objects
      */
     public List<Cell> getNeighbouringCells(Cell cell) {
-        List<Cell> neighbouringCells = new ArrayList<>();
-        int x = cell.getX();
-        int y = cell.getY();
-
-        int[][] directions = {
-                {-1, 0}, {1, 0},
-                {0, -1}, {0, 1},
-                {-1, -1}, {1, -1},
-                {-1, 1}, {1, 1},
-        };
+        List<Cell> neighbouringCells = new ArrayList<>(NEIGHBOUR_COUNT);
+        int index = cell.getIndex();
+        int mask = neighbourMask(index);
+        for (int d = 0; d < NEIGHBOUR_COUNT; d++) {
+            if ((mask & (1 << d)) != 0) {
+                neighbouringCells.add(getCell(index + neighbourOffsets[d]));
+            }
+        }
+        return neighbouringCells;
+    }
 
-        for (int[] direction : directions) {
-            int newX = x + direction[0];
-            int newY = y + direction[1];
+    /**
+     * Writes the indices of the valid neighbours of a cell, including diagonals,
+     * into a caller supplied buffer.
+     *
+     * @param index  the central cell index
+     * @param buffer receives the neighbour indices; must hold at least {@link #NEIGHBOUR_COUNT} entries
+     * @return the number of neighbours written
+     */
+    public int getNeighbours(int index, int[] buffer) {
+        int mask = neighbourMask(index);
+        int count = 0;
+        for (int d = 0; d < NEIGHBOUR_COUNT; d++) {
+            if ((mask & (1 << d)) != 0) {
+                buffer[count++] = index + neighbourOffsets[d];
+            }
+        }
+        return count;
+    }
 
-            if (isWithinBounds(newX, newY) && grid[newX][newY] != null) {
-                neighbouringCells.add(grid[newX][newY]);
+    /**
+     * Calls {@code action} with the index of every valid neighbour of a cell, including diagonals.
+     *
+     * @param index  the central cell index
+     * @param action the visitor receiving each neighbour index
+     */
+    public void forEachNeighbour(int index, IntConsumer action) {
+        int mask = neighbourMask(index);
+        for (int d = 0; d < NEIGHBOUR_COUNT; d++) {
+            if ((mask & (1 << d)) != 0) {
+                action.accept(index + neighbourOffsets[d]);
             }
         }
+    }
 
-        return neighbouringCells;
+    /**
+     * Returns the bit mask of directions (bit {@code d} for direction {@code d}) whose
+     * neighbour lies on the map, so callers can walk {@link #getNeighbourOffset(int)} directly.
+     *
+     * @param index the central cell index
+     * @return the valid-direction mask
+     */
+    public int neighbourMask(int index) {
+        int x = xOf(index);
+        int y = yOf(index);
+        int border = (x == 0 ? 1 : 0) | (x == width - 1 ? 2 : 0)
+                | (y == 0 ? 4 : 0) | (y == height - 1 ? 8 : 0);
+        return BORDER_MASKS[border];
+    }
+
+    /**
+     * Returns the index delta leading from a cell to its neighbour in the given direction.
+     *
+     * @param direction a direction in {@code [0, NEIGHBOUR_COUNT)}
+     * @return the offset to add to a cell index
+     */
+    public int getNeighbourOffset(int direction) {
+        return neighbourOffsets[direction];
+    }
+
+    /**
+     * Returns the column step of a neighbour direction.
+     *
+     * @param direction a direction in {@code [0, NEIGHBOUR_COUNT)}
+     * @return -1, 0 or 1
+     */
+    public static int directionX(int direction) {
+        return DIRECTION_X[direction];
+    }
+
+    /**
+     * Returns the row step of a neighbour direction.
+     *
+     * @param direction a direction in {@code [0, NEIGHBOUR_COUNT)}
+     * @return -1, 0 or 1
+     */
+    public static int directionY(int direction) {
+        return DIRECTION_Y[direction];
     }
 
     /**
@@ -112,16 +609,24 @@ public class Map {
      * @param y the y-coordinate
      * @return true if within bounds, false otherwise
      */
-    private boolean isWithinBounds(int x, int y) {
+    public boolean isWithinBounds(int x, int y) {
         return x >= 0 && x < width && y >= 0 && y < height;
     }
 
     /**
-     * Returns the 2D grid of all cells in the map.
+     * Returns a 2D grid of views over all cells in the map, indexed as {@code [x][y]}.
+     * The array is built on every call and touches every chunk; prefer
+     * {@link #getCellAt(int, int)} or the index based accessors in hot code and on large maps.
      *
      * @return 2D array of {@link Cell} objects
      */
     public Cell[][] getGrid() {
+        Cell[][] grid = new Cell[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                grid[x][y] = new Cell(this, x, y);
+            }
+        }
         return grid;
     }
 
@@ -131,8 +636,301 @@ public class Map {
      * @param x the x-coordinate
      * @param y the y-coordinate
      * @return the {@link Cell} at the specified location
+     * @throws ArrayIndexOutOfBoundsException if the coordinates are outside the map
      */
     public Cell getCellAt(int x, int y) {
-        return grid[x][y];
+        if (!isWithinBounds(x, y)) {
+            throw new ArrayIndexOutOfBoundsException("Cell (" + x + "," + y + ") is outside the map");
+        }
+        return new Cell(this, x, y);
+    }
+
+    /**
+     * Returns the cell with the given index.
+     *
+     * @param index the cell index, {@code y * width + x}
+     * @return the {@link Cell} with that index
+     */
+    public Cell getCell(int index) {
+        return new Cell(this, xOf(index), yOf(index));
+    }
+
+    /**
+     * Returns the index of the cell at the specified coordinates.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the cell index, {@code y * width + x}
+     */
+    public int indexOf(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Returns the x-coordinate of the cell with the given index.
+     *
+     * @param index the cell index
+     * @return the x-coordinate
+     */
+    public int xOf(int index) {
+        return index % width;
+    }
+
+    /**
+     * Returns the y-coordinate of the cell with the given index.
+     *
+     * @param index the cell index
+     * @return the y-coordinate
+     */
+    public int yOf(int index) {
+        return index / width;
+    }
+
+    /**
+     * Returns the terrain of the cell with the given index.
+     *
+     * @param index the cell index
+     * @return the terrain type
+     */
+    public Cell.TerrainType getTerrain(int index) {
+        int x = xOf(index);
+        int y = yOf(index);
+        return TERRAIN_TYPES[chunk(x, y).terrain[Chunk.localIndex(x, y)]];
+    }
+
+    /**
+     * Sets the terrain of the cell with the given index.
+     *
+     * @param index   the cell index
+     * @param type    the new terrain type
+     */
+    public void setTerrain(int index, Cell.TerrainType type) {
+        int x = xOf(index);
+        int y = yOf(index);
+        writableChunk(x, y).terrain[Chunk.localIndex(x, y)] = (byte) type.ordinal();
+        terrainVersion++;
+        generated = false;
+    }
+
+    /**
+     * Sets the terrain of a range of consecutive cell indices, as when loading a whole map.
+     * Cells are written a chunk row at a time, and the terrain version is updated once for
+     * the whole range rather than once per cell.
+     *
+     * @param from the first cell index, inclusive
+     * @param to   the last cell index, exclusive
+     * @param type the new terrain type
+     */
+    public void fillTerrain(int from, int to, Cell.TerrainType type) {
+        if (from >= to) {
+            return;
+        }
+        byte value = (byte) type.ordinal();
+        for (int i = from; i < to; ) {
+            int x = xOf(i);
+            int y = yOf(i);
+            int local = Chunk.localIndex(x, y);
+            int end = Math.min(to, i + Math.min(width - x, Chunk.SIZE - (x & Chunk.MASK)));
+            Arrays.fill(writableChunk(x, y).terrain, local, local + end - i, value);
+            i = end;
+        }
+        terrainVersion++;
+        generated = false;
+    }
+
+    /**
+     * Checks whether the cell with the given index has {@code NORMAL} terrain.
+     *
+     * @param index the cell index
+     * @return true if units can stand on the cell
+     */
+    public boolean isPassable(int index) {
+        int x = xOf(index);
+        int y = yOf(index);
+        return chunk(x, y).terrain[Chunk.localIndex(x, y)] == 0;
+    }
+
+    /**
+     * Returns the player owning the cell with the given index.
+     *
+     * @param index the cell index
+     * @return the owner, or null if the cell is unowned
+     */
+    public Player getOwner(int index) {
+        int x = xOf(index);
+        int y = yOf(index);
+        Chunk chunk = peekChunk(x, y);
+        return chunk == null ? null : owners[chunk.ownerIndex[Chunk.localIndex(x, y)]];
+    }
+
+    /**
+     * Sets the player owning the cell with the given index.
+     *
+     * @param index the cell index
+     * @param owner the new owner, or null to clear ownership
+     */
+    public void setOwner(int index, Player owner) {
+        int x = xOf(index);
+        int y = yOf(index);
+        writableChunk(x, y).ownerIndex[Chunk.localIndex(x, y)] = (byte) ownerSlot(owner);
+    }
+
+    /**
+     * Returns the unit on the cell with the given index.
+     *
+     * @param index the cell index
+     * @return the unit, or null if the cell is empty
+     */
+    public Unit getUnit(int index) {
+        int x = xOf(index);
+        int y = yOf(index);
+        Chunk chunk = peekChunk(x, y);
+        return chunk == null ? null : units[chunk.unitSlot[Chunk.localIndex(x, y)]];
+    }
+
+    /**
+     * Places a unit on the cell with the given index, replacing any unit already there.
+     * The occupancy sets of the previous and new units' owners are kept in sync.
+     *
+     * @param index the cell index
+     * @param unit  the unit to place, or null to empty the cell
+     */
+    public void setUnit(int index, Unit unit) {
+        int x = xOf(index);
+        int y = yOf(index);
+        Chunk chunk = writableChunk(x, y);
+        int local = Chunk.localIndex(x, y);
+        int slot = chunk.unitSlot[local];
+        if (slot != 0) {
+            Player previousOwner = units[slot].getOwner();
+            if (previousOwner != null) {
+                previousOwner.getOccupancy().remove(index);
+            }
+            releaseSlot(slot);
+        }
+        if (unit == null) {
+            chunk.unitSlot[local] = 0;
+        } else {
+            chunk.unitSlot[local] = acquireSlot(unit);
+            if (unit.getOwner() != null) {
+                unit.getOwner().getOccupancy().add(index);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a unit stands on the cell with the given index.
+     *
+     * @param index the cell index
+     * @return true if the cell is occupied
+     */
+    public boolean isOccupied(int index) {
+        int x = xOf(index);
+        int y = yOf(index);
+        Chunk chunk = peekChunk(x, y);
+        return chunk != null && chunk.unitSlot[Chunk.localIndex(x, y)] != 0;
+    }
+
+    /**
+     * Checks whether a unit can step onto the cell with the given index: the terrain is
+     * {@code NORMAL} and no unit stands there.
+     *
+     * @param index the cell index
+     * @return true if the cell is passable and empty
+     */
+    public boolean isWalkable(int index) {
+        int x = xOf(index);
+        int y = yOf(index);
+        Chunk chunk = chunk(x, y);
+        int local = Chunk.localIndex(x, y);
+        return chunk.terrain[local] == 0 && chunk.unitSlot[local] == 0;
+    }
+
+    /**
+     * Calls an action with the index of every cell that has a unit or an owner. Cells are
+     * visited chunk by chunk and chunks that were never allocated are skipped, so the cost
+     * follows the explored area rather than the size of the map.
+     *
+     * @param action receives the index of each cell with a unit or an owner
+     */
+    public void forEachClaimedCell(IntConsumer action) {
+        for (int c = 0; c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            if (chunk == null) {
+                continue;
+            }
+            int x0 = (c % chunksX) << Chunk.SHIFT;
+            int y0 = (c / chunksX) << Chunk.SHIFT;
+            for (int local = 0; local < Chunk.SIZE * Chunk.SIZE; local++) {
+                if (chunk.unitSlot[local] != 0 || chunk.ownerIndex[local] != 0) {
+                    action.accept((y0 + (local >> Chunk.SHIFT)) * width + x0 + (local & Chunk.MASK));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds to {@code target} every cell of {@code source} together with all of its
+     * neighbours, including diagonals. With a player's territory as the source,
+     * {@code target.andNot(territory)} then gives its frontier, and intersecting the
+     * expansions of two players gives the cells they contest.
+     *
+     * @param source the cells to expand
+     * @param target the set receiving the expanded cells; may not be {@code source}
+     */
+    public void expand(CellSet source, CellSet target) {
+        for (int i = source.nextSetBit(0); i >= 0; i = source.nextSetBit(i + 1)) {
+            target.add(i);
+            int mask = neighbourMask(i);
+            for (int d = 0; d < NEIGHBOUR_COUNT; d++) {
+                if ((mask & (1 << d)) != 0) {
+                    target.add(i + neighbourOffsets[d]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the registry index of the given player, registering it on first use.
+     */
+    private int ownerSlot(Player owner) {
+        if (owner == null) {
+            return 0;
+        }
+        for (int i = 1; i < ownerCount; i++) {
+            if (owners[i] == owner) {
+                return i;
+            }
+        }
+        if (ownerCount == Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many players on one map");
+        }
+        if (ownerCount == owners.length) {
+            owners = Arrays.copyOf(owners, owners.length * 2);
+        }
+        owners[ownerCount] = owner;
+        return ownerCount++;
+    }
+
+    private int acquireSlot(Unit unit) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (unitCount == units.length) {
+                units = Arrays.copyOf(units, units.length * 2);
+            }
+            slot = unitCount++;
+        }
+        units[slot] = unit;
+        return slot;
+    }
+
+    private void releaseSlot(int slot) {
+        units[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
     }
 }
@@ -0,0 +1,120 @@
+package am.aua.game.navigation;
+
+/**
+ * Generates terrain from fractal value noise, giving coherent mountain ranges and forests
+ * instead of scattered single obstacles.
+ * <p>
+ * Two independent noise fields are sampled per cell: where the elevation field exceeds
+ * the rock level the cell is ROCK, otherwise where the vegetation field exceeds the tree
+ * level it is TREE. Each field sums several octaves of lattice noise, bilinearly
+ * interpolated with a smoothstep, whose lattice values are hashes of the seed and the
+ * lattice point, so the generator holds no state.
+ */
+public class NoiseTerrain implements TerrainGenerator {
+    /** Default distance between lattice points of the coarsest octave, in cells. */
+    public static final int DEFAULT_SCALE = 12;
+
+    /** Default number of octaves summed per field. */
+    public static final int DEFAULT_OCTAVES = 3;
+
+    /** Default elevation above which cells are ROCK; about 10% of the cells. */
+    public static final double DEFAULT_ROCK_LEVEL = 0.69;
+
+    /** Default vegetation above which cells are TREE; about 10% of the cells. */
+    public static final double DEFAULT_TREE_LEVEL = 0.68;
+
+    /** Salt separating the vegetation field from the elevation field. */
+    private static final long VEGETATION_SALT = 0x632BE59BD9B4E019L;
+
+    /** Lattice points per cell of every octave. */
+    private final double[] frequencies;
+
+    /** Weight of every octave, normalised so the weights sum to 1. */
+    private final double[] amplitudes;
+
+    private final double rockLevel;
+    private final double treeLevel;
+
+    /**
+     * Constructs a generator with the default parameters.
+     */
+    public NoiseTerrain() {
+        this(DEFAULT_SCALE, DEFAULT_OCTAVES, DEFAULT_ROCK_LEVEL, DEFAULT_TREE_LEVEL);
+    }
+
+    /**
+     * Constructs a generator.
+     *
+     * @param scale     the lattice spacing of the coarsest octave, in cells
+     * @param octaves   the number of octaves, each with half the spacing and amplitude of the previous
+     * @param rockLevel the elevation in {@code [0, 1]} above which cells are ROCK
+     * @param treeLevel the vegetation in {@code [0, 1]} above which cells are TREE
+     * @throws IllegalArgumentException if the scale or the number of octaves is not positive
+     */
+    public NoiseTerrain(int scale, int octaves, double rockLevel, double treeLevel) {
+        if (scale < 1 || octaves < 1) {
+            throw new IllegalArgumentException("Invalid noise parameters: scale " + scale + ", octaves " + octaves);
+        }
+        this.frequencies = new double[octaves];
+        this.amplitudes = new double[octaves];
+        double total = 2 - Math.scalb(1.0, 1 - octaves);
+        for (int octave = 0; octave < octaves; octave++) {
+            frequencies[octave] = Math.scalb(1.0, octave) / scale;
+            amplitudes[octave] = Math.scalb(1.0, -octave) / total;
+        }
+        this.rockLevel = rockLevel;
+        this.treeLevel = treeLevel;
+    }
+
+    @Override
+    public Cell.TerrainType terrainAt(long seed, int x, int y) {
+        long fieldSeed = Map.mix(seed);
+        if (fractal(fieldSeed, x, y) > rockLevel) {
+            return Cell.TerrainType.ROCK;
+        }
+        if (fractal(fieldSeed ^ VEGETATION_SALT, x, y) > treeLevel) {
+            return Cell.TerrainType.TREE;
+        }
+        return Cell.TerrainType.NORMAL;
+    }
+
+    /**
+     * Sums the octaves of one noise field at a cell, normalised to {@code [0, 1)}.
+     */
+    private double fractal(long seed, int x, int y) {
+        double sum = 0;
+        for (int octave = 0; octave < frequencies.length; octave++) {
+            sum += amplitudes[octave] * noise(seed + octave * Map.SEED_GAMMA, x * frequencies[octave], y * frequencies[octave]);
+        }
+        return sum;
+    }
+
+    /**
+     * Samples one octave of value noise at non-negative lattice coordinates.
+     */
+    private static double noise(long seed, double x, double y) {
+        long x0 = (long) x;
+        long y0 = (long) y;
+        double fx = smooth(x - x0);
+        double fy = smooth(y - y0);
+        double top = lerp(lattice(seed, x0, y0), lattice(seed, x0 + 1, y0), fx);
+        double bottom = lerp(lattice(seed, x0, y0 + 1), lattice(seed, x0 + 1, y0 + 1), fx);
+        return lerp(top, bottom, fy);
+    }
+
+    /**
+     * Returns the value in {@code [0, 1)} of a lattice point.
+     */
+    private static double lattice(long seed, long x, long y) {
+        long hash = Map.mix(seed + (y << 32 ^ x) * Map.SEED_GAMMA);
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    private static double smooth(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+}
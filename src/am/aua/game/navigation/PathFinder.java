@@ -0,0 +1,268 @@
+package am.aua.game.navigation;
+
+import java.util.Arrays;
+
+/**
+ * Finds short walking routes for units: sequences of king steps through empty
+ * {@code NORMAL} cells, at most a given number of steps long.
+ * <p>
+ * A route of {@code maxSteps} steps never leaves the square of radius {@code maxSteps}
+ * around its start, so every query works in a small window of local indices centred on
+ * the start cell instead of on the whole map. Point queries run A* with the king-step
+ * distance as heuristic, which is exact on an open board, so a search only widens around
+ * obstacles; reachability queries run a breadth-first search over the window.
+ * <p>
+ * All scratch state is kept between queries: visited and closed marks are stamped with a
+ * per-query generation number, so starting a query clears nothing, and the open set is a
+ * binary heap of packed {@code long} keys. Queries allocate nothing once the arrays have
+ * grown to the largest window used. A path finder is not thread-safe; use one per thread.
+ */
+public class PathFinder {
+    /** Largest number of steps a query may ask for, bounding the size of the scratch window. */
+    public static final int MAX_STEPS = 127;
+
+    private int side;
+    private int originX;
+    private int originY;
+
+    /** Window index delta of each neighbour direction, for the current window side. */
+    private final int[] localOffsets = new int[Map.NEIGHBOUR_COUNT];
+
+    /** Generation number of the current query; marks from older queries are stale. */
+    private int generation;
+
+    /** Per window cell, the generation in which its cost was set. */
+    private int[] seen = new int[0];
+
+    /** Per window cell, the generation in which it was expanded. */
+    private int[] closed = new int[0];
+
+    /** Per window cell, the number of steps of the best known route to it. */
+    private int[] cost = new int[0];
+
+    /** Per window cell, the map index of the cell it was reached from. */
+    private int[] parent = new int[0];
+
+    /** Open set of A*, keyed by {@code estimate << 32 | cell}. */
+    private long[] heap = new long[64];
+    private int heapSize;
+
+    /** Start, target and length of the last route found by {@link #findPath}. */
+    private int pathStart;
+    private int pathEnd;
+    private int pathLength = -1;
+
+    /**
+     * Finds a shortest route between two cells. The start cell may be occupied (normally
+     * by the unit that moves); the target and every cell on the way must be walkable.
+     *
+     * @param map      the map to search
+     * @param from     the start cell index
+     * @param to       the target cell index
+     * @param maxSteps the largest number of steps allowed, at most {@link #MAX_STEPS}
+     * @return the number of steps of a shortest route, or -1 if there is none within {@code maxSteps}
+     */
+    public int findPath(Map map, int from, int to, int maxSteps) {
+        pathStart = from;
+        pathEnd = to;
+        pathLength = -1;
+        if (from == to || distance(map, from, to) > maxSteps || !map.isWalkable(to)) {
+            return -1;
+        }
+        int targetX = map.xOf(to);
+        int targetY = map.yOf(to);
+        begin(map, from, maxSteps);
+        mark(map, from, 0, from);
+        push((long) distance(map, from, to) << 32 | from);
+        while (heapSize > 0) {
+            int cell = (int) pop();
+            int x = map.xOf(cell);
+            int y = map.yOf(cell);
+            int local = (y - originY) * side + x - originX;
+            if (closed[local] == generation) {
+                continue;
+            }
+            closed[local] = generation;
+            int steps = cost[local];
+            if (cell == to) {
+                pathLength = steps;
+                return steps;
+            }
+            int mask = map.neighbourMask(cell);
+            for (int d = 0; d < Map.NEIGHBOUR_COUNT; d++) {
+                if ((mask & (1 << d)) == 0) {
+                    continue;
+                }
+                int nextLocal = local + localOffsets[d];
+                if (seen[nextLocal] == generation && cost[nextLocal] <= steps + 1) {
+                    continue;
+                }
+                int remaining = Math.max(Math.abs(x + Map.directionX(d) - targetX), Math.abs(y + Map.directionY(d) - targetY));
+                int next = cell + map.getNeighbourOffset(d);
+                if (steps + 1 + remaining > maxSteps || !map.isWalkable(next)) {
+                    continue;
+                }
+                seen[nextLocal] = generation;
+                cost[nextLocal] = steps + 1;
+                parent[nextLocal] = cell;
+                push((long) (steps + 1 + remaining) << 32 | next);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the route found by the last successful {@link #findPath} call, without its
+     * start cell, into a caller supplied buffer.
+     *
+     * @param map    the map the route was searched on, unchanged since
+     * @param buffer receives the cell indices from the first step to the target; must hold
+     *               at least the route's length
+     * @return the number of cells written, or -1 if the last query found no route
+     */
+    public int getPath(Map map, int[] buffer) {
+        if (pathLength < 0) {
+            return -1;
+        }
+        int cell = pathEnd;
+        for (int i = pathLength - 1; i >= 0; i--) {
+            buffer[i] = cell;
+            cell = parent[local(map, cell)];
+        }
+        return cell == pathStart ? pathLength : -1;
+    }
+
+    /**
+     * Finds every cell a unit on {@code from} can walk to in at most {@code maxSteps} steps,
+     * nearest first.
+     *
+     * @param map      the map to search
+     * @param from     the start cell index
+     * @param maxSteps the largest number of steps allowed, at most {@link #MAX_STEPS}
+     * @param buffer   receives the reachable cell indices, excluding {@code from}; must hold
+     *                 at least {@code (2 * maxSteps + 1)^2 - 1} entries
+     * @return the number of cells written
+     */
+    public int findReachable(Map map, int from, int maxSteps, int[] buffer) {
+        pathLength = -1;
+        begin(map, from, maxSteps);
+        mark(map, from, 0, from);
+        int count = 0;
+        int head = -1;
+        int cell = from;
+        while (true) {
+            int local = local(map, cell);
+            int steps = cost[local];
+            if (steps < maxSteps) {
+                int mask = map.neighbourMask(cell);
+                for (int d = 0; d < Map.NEIGHBOUR_COUNT; d++) {
+                    if ((mask & (1 << d)) == 0) {
+                        continue;
+                    }
+                    int nextLocal = local + localOffsets[d];
+                    if (seen[nextLocal] == generation) {
+                        continue;
+                    }
+                    int next = cell + map.getNeighbourOffset(d);
+                    seen[nextLocal] = generation;
+                    if (map.isWalkable(next)) {
+                        cost[nextLocal] = steps + 1;
+                        parent[nextLocal] = cell;
+                        buffer[count++] = next;
+                    }
+                }
+            }
+            if (++head == count) {
+                return count;
+            }
+            cell = buffer[head];
+        }
+    }
+
+    /**
+     * Starts a query: centres the window on {@code from}, grows the scratch arrays if needed
+     * and moves to a new generation.
+     */
+    private void begin(Map map, int from, int maxSteps) {
+        if (maxSteps < 0 || maxSteps > MAX_STEPS) {
+            throw new IllegalArgumentException("Step limit out of range: " + maxSteps);
+        }
+        if (side != 2 * maxSteps + 1) {
+            side = 2 * maxSteps + 1;
+            for (int d = 0; d < Map.NEIGHBOUR_COUNT; d++) {
+                localOffsets[d] = Map.directionY(d) * side + Map.directionX(d);
+            }
+        }
+        originX = map.xOf(from) - maxSteps;
+        originY = map.yOf(from) - maxSteps;
+        int cells = side * side;
+        if (seen.length < cells) {
+            seen = new int[cells];
+            closed = new int[cells];
+            cost = new int[cells];
+            parent = new int[cells];
+            generation = 0;
+        }
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+        heapSize = 0;
+    }
+
+    private int local(Map map, int cell) {
+        return (map.yOf(cell) - originY) * side + map.xOf(cell) - originX;
+    }
+
+    private void mark(Map map, int cell, int steps, int from) {
+        int local = local(map, cell);
+        seen[local] = generation;
+        cost[local] = steps;
+        parent[local] = from;
+    }
+
+    private static int distance(Map map, int from, int to) {
+        return Math.max(Math.abs(map.xOf(from) - map.xOf(to)), Math.abs(map.yOf(from) - map.yOf(to)));
+    }
+
+    private void push(long key) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parentIndex = (i - 1) >>> 1;
+            if (heap[parentIndex] <= key) {
+                break;
+            }
+            heap[i] = heap[parentIndex];
+            i = parentIndex;
+        }
+        heap[i] = key;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long key = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= key) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (heapSize > 0) {
+            heap[i] = key;
+        }
+        return top;
+    }
+}
@@ -0,0 +1,52 @@
+package am.aua.game.navigation;
+
+/**
+ * Rolls the terrain of every cell independently: by default 10% ROCK, 10% TREE and NORMAL
+ * otherwise, the distribution of the original game. Each cell's roll is a hash of the
+ * seed and its coordinates, so no generator state is shared between chunks or threads.
+ */
+public class RandomTerrain implements TerrainGenerator {
+    /** Default share of ROCK cells, in percent. */
+    public static final int DEFAULT_ROCK_PERCENT = 10;
+
+    /** Default share of TREE cells, in percent. */
+    public static final int DEFAULT_TREE_PERCENT = 10;
+
+    private final int rockPercent;
+    private final int treePercent;
+
+    /**
+     * Constructs a generator with the default distribution.
+     */
+    public RandomTerrain() {
+        this(DEFAULT_ROCK_PERCENT, DEFAULT_TREE_PERCENT);
+    }
+
+    /**
+     * Constructs a generator with the given distribution.
+     *
+     * @param rockPercent the share of ROCK cells, in percent
+     * @param treePercent the share of TREE cells, in percent
+     * @throws IllegalArgumentException if a share is negative or they exceed 100 together
+     */
+    public RandomTerrain(int rockPercent, int treePercent) {
+        if (rockPercent < 0 || treePercent < 0 || rockPercent + treePercent > 100) {
+            throw new IllegalArgumentException("Invalid terrain shares " + rockPercent + "% / " + treePercent + "%");
+        }
+        this.rockPercent = rockPercent;
+        this.treePercent = treePercent;
+    }
+
+    @Override
+    public Cell.TerrainType terrainAt(long seed, int x, int y) {
+        long hash = Map.mix(seed + ((long) y << 32 | x) * Map.SEED_GAMMA);
+        int roll = (int) (((hash >>> 32) * 100) >>> 32);
+        if (roll < rockPercent) {
+            return Cell.TerrainType.ROCK;
+        }
+        if (roll < rockPercent + treePercent) {
+            return Cell.TerrainType.TREE;
+        }
+        return Cell.TerrainType.NORMAL;
+    }
+}
@@ -0,0 +1,41 @@
+package am.aua.game.navigation;
+
+/**
+ * Measures map generation throughput: for each terrain generator it builds large maps,
+ * including the connectivity pass, and generates all their chunks on one thread and in
+ * parallel, printing millions of cells per second.
+ * <p>
+ * Usage: {@code TerrainBenchmark [size] [rounds] [seed]}, by default 4096x4096 maps.
+ */
+public class TerrainBenchmark {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        TerrainGenerator[] generators = {new RandomTerrain(), new NoiseTerrain()};
+
+        System.out.printf("%dx%d maps, %d processors%n", size, size, Runtime.getRuntime().availableProcessors());
+        for (TerrainGenerator generator : generators) {
+            for (int round = 0; round <= rounds; round++) {
+                long start = System.nanoTime();
+                Map map = new Map(size, size, seed + round, generator);
+                long connected = System.nanoTime();
+                map.materialize(false);
+                long sequential = System.nanoTime();
+                Map parallelMap = new Map(size, size, seed + round, generator);
+                long parallelStart = System.nanoTime();
+                parallelMap.materialize(true);
+                long parallel = System.nanoTime();
+                if (round == 0) {
+                    continue;
+                }
+                double cells = (double) size * size;
+                System.out.printf("%-14s connect %7.1f ms  sequential %7.1f Mcells/s  parallel %7.1f Mcells/s%n",
+                        generator.getClass().getSimpleName(),
+                        (connected - start) / 1e6,
+                        cells / ((sequential - connected) / 1e3),
+                        cells / ((parallel - parallelStart) / 1e3));
+            }
+        }
+    }
+}
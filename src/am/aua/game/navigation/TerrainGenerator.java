@@ -0,0 +1,21 @@
+package am.aua.game.navigation;
+
+/**
+ * Decides the terrain of the cells of a generated {@link Map}.
+ * <p>
+ * The terrain of a cell must be a pure function of the map seed and the cell's
+ * coordinates. Maps generate their chunks lazily, in any order and, for large maps, on
+ * several threads at once, so implementations must be stateless or otherwise thread-safe.
+ */
+public interface TerrainGenerator {
+
+    /**
+     * Returns the terrain of the cell at the given coordinates.
+     *
+     * @param seed the seed of the map
+     * @param x    the x-coordinate of the cell
+     * @param y    the y-coordinate of the cell
+     * @return the terrain of the cell
+     */
+    Cell.TerrainType terrainAt(long seed, int x, int y);
+}
@@ -0,0 +1,25 @@
+package am.aua.game.navigation;
+
+/**
+ * Supplies the terrain of a {@link Map} that was loaded rather than generated.
+ * <p>
+ * The map asks for the terrain of each storage chunk when the chunk is first touched, so a
+ * source can read and decode its data lazily, region by region. Chunks may be
+ * {@link Map#materialize(boolean) materialized} on several threads at once and copies of a
+ * map share its source, so implementations must be thread-safe.
+ */
+public interface TerrainSource {
+
+    /**
+     * Writes the terrain of a rectangle of cells as {@link Cell.TerrainType} ordinals, the
+     * cell at (x, y) going to {@code out[(y - y0) * stride + (x - x0)]}.
+     *
+     * @param x0     the x-coordinate of the left column of the rectangle
+     * @param y0     the y-coordinate of the top row of the rectangle
+     * @param width  the number of columns of the rectangle
+     * @param height the number of rows of the rectangle
+     * @param out    the array receiving the terrain
+     * @param stride the distance in {@code out} between two rows
+     */
+    void readTerrain(int x0, int y0, int width, int height, byte[] out, int stride);
+}
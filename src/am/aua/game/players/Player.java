@@ -1,6 +1,7 @@
 package am.aua.game.players;
 
 import am.aua.game.navigation.Cell;
+import am.aua.game.navigation.CellSet;
 import am.aua.game.units.Unit;
 
 import java.util.ArrayList;
@@ -11,6 +12,9 @@ import java.util.ArrayList;
  * Each player is identified by an abbreviation derived from their name.
  */
 public class Player {
+    /** The resources every player starts a game with. */
+    public static final double STARTING_RESOURCES = 1500;
+
     /** The name of the player. */
     private final String name;
 
@@ -23,8 +27,11 @@ public class Player {
     /** The list of units under the control of the player. */
     private final ArrayList<Unit> units;
 
-    /** The list of cells (territory) currently owned by the player. */
-    private final ArrayList<Cell> territory;
+    /** The cells (territory) currently owned by the player, as a bitboard over cell indices. */
+    private final CellSet territory;
+
+    /** The cells currently occupied by the player's units, maintained by the map. */
+    private final CellSet occupancy;
 
     /** The unit currently selected by the player (e.g., for actions). */
     private Unit currentUnit;
@@ -37,12 +44,25 @@ public class Player {
      */
     public Player(String name) {
         this.name = name;
-        this.resources = 1500;
+        this.resources = STARTING_RESOURCES;
         this.units = new ArrayList<>();
-        this.territory = new ArrayList<>();
+        this.territory = new CellSet();
+        this.occupancy = new CellSet();
         this.abbreviation = name.charAt(0);
     }
 
+    /**
+     * Returns the player to the state of a new game: starting resources, no units,
+     * no territory and no selected unit.
+     */
+    public void reset() {
+        this.resources = STARTING_RESOURCES;
+        this.units.clear();
+        this.territory.clear();
+        this.occupancy.clear();
+        this.currentUnit = null;
+    }
+
     /**
      * Returns the player's name.
      *
@@ -98,21 +118,40 @@ public class Player {
     }
 
     /**
-     * Returns the list of map cells that make up the player's territory.
+     * Returns the set of map cells that make up the player's territory.
      *
-     * @return the list of {@link Cell} objects
+     * @return the territory bitboard, indexed by {@link Cell#getIndex()}
      */
-    public ArrayList<Cell> getTerritory() {
+    public CellSet getTerritory() {
         return territory;
     }
 
+    /**
+     * Returns the set of map cells on which the player's units stand.
+     *
+     * @return the occupancy bitboard, indexed by {@link Cell#getIndex()}
+     */
+    public CellSet getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Checks whether a cell belongs to the player's territory.
+     *
+     * @param cell the {@link Cell} to check
+     * @return true if the cell is part of the territory
+     */
+    public boolean isInTerritory(Cell cell) {
+        return this.territory.contains(cell.getIndex());
+    }
+
     /**
      * Adds a cell to the player's territory.
      *
      * @param cell the {@link Cell} to add
      */
     public void addToTerritory(Cell cell) {
-        this.territory.add(cell);
+        this.territory.add(cell.getIndex());
     }
 
     /**
@@ -121,7 +160,7 @@ public class Player {
      * @param cell the {@link Cell} to remove
      */
     public void removeFromTerritory(Cell cell) {
-        this.territory.remove(cell);
+        this.territory.remove(cell.getIndex());
     }
 
     /**
@@ -0,0 +1,21 @@
+package am.aua.game.simulation;
+
+import am.aua.game.gameLogic.ActionBuffer;
+import am.aua.game.gameLogic.GameCore;
+
+/**
+ * Decides the actions of one player in a headless {@link Simulation}.
+ */
+public interface PlayerStrategy {
+
+    /**
+     * Chooses the next action for the current player of a game.
+     * The game must not be modified; the simulation performs the chosen action.
+     *
+     * @param game the game, whose current player is the one to act
+     * @param legalActions every legal {@link am.aua.game.gameLogic.Action Action}-encoded action
+     *                     of the current player, always including the end of the turn
+     * @return the chosen action, normally one of {@code legalActions}
+     */
+    long chooseAction(GameCore game, ActionBuffer legalActions);
+}
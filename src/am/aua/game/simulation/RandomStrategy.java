@@ -0,0 +1,28 @@
+package am.aua.game.simulation;
+
+import am.aua.game.gameLogic.ActionBuffer;
+import am.aua.game.gameLogic.GameCore;
+
+import java.util.SplittableRandom;
+
+/**
+ * A strategy that picks uniformly among the legal actions. It is the baseline opponent
+ * for balance testing and the cheapest possible player for throughput measurements.
+ */
+public class RandomStrategy implements PlayerStrategy {
+    private final SplittableRandom random;
+
+    /**
+     * Constructs a random strategy with a fixed seed, so games can be reproduced.
+     *
+     * @param seed the seed of the random number generator
+     */
+    public RandomStrategy(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public long chooseAction(GameCore game, ActionBuffer legalActions) {
+        return legalActions.get(random.nextInt(legalActions.size()));
+    }
+}
@@ -0,0 +1,187 @@
+package am.aua.game.simulation;
+
+import am.aua.game.fileIO.Replay;
+import am.aua.game.gameLogic.Action;
+import am.aua.game.gameLogic.ActionStatus;
+import am.aua.game.gameLogic.GameCore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Re-executes a {@link Replay recorded game} through {@link GameCore}, without any user
+ * interface, and checks the state hash at every recorded checkpoint.
+ * <p>
+ * A replayer can be stepped one action at a time, as the game window does, or
+ * {@link #runToEnd() run} at full speed. It stops at the first divergence: an action the
+ * game rejects, or a checkpoint whose hash differs from the recorded one, which is what a
+ * rules change that alters the outcome of a recorded game looks like.
+ * <p>
+ * Usage: {@code Replayer recording-or-directory...}; directories are searched for
+ * {@code *.replay} files. Every recording is replayed and reported, followed by the
+ * overall throughput; the exit status is 1 if any recording diverged.
+ */
+public class Replayer {
+    private final Replay replay;
+    private final GameCore game;
+
+    /** Number of actions performed so far. */
+    private int position;
+
+    /** Index of the next checkpoint to verify. */
+    private int checkpoint;
+
+    private String divergence;
+
+    /**
+     * Constructs a replayer positioned before the first action of a recording, and
+     * verifies the checkpoint of the starting state.
+     *
+     * @param replay the recording to replay
+     * @throws IOException if the starting state cannot be built
+     */
+    public Replayer(Replay replay) throws IOException {
+        this.replay = replay;
+        this.game = replay.createGame();
+        verifyCheckpoints();
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    /**
+     * Returns the game being replayed, in the state after {@link #getPosition()} actions.
+     *
+     * @return the game
+     */
+    public GameCore getGame() {
+        return game;
+    }
+
+    /**
+     * Returns the number of recorded actions performed so far.
+     *
+     * @return the position in the action stream
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Checks whether there is an action left to replay and the replay has not diverged.
+     *
+     * @return true if {@link #step()} can be called
+     */
+    public boolean hasNext() {
+        return divergence == null && position < replay.getActionCount();
+    }
+
+    /**
+     * Performs the next recorded action and verifies the checkpoint that follows it, if any.
+     *
+     * @return true if the replay still matches the recording
+     * @throws IllegalStateException if there is no action left or the replay has diverged
+     */
+    public boolean step() {
+        if (!hasNext()) {
+            throw new IllegalStateException("Nothing left to replay");
+        }
+        long action = replay.getAction(position);
+        int cellCount = game.getMap().getCellCount();
+        if (Action.from(action) >= cellCount || Action.to(action) >= cellCount) {
+            divergence = "action " + position + " (" + Action.toString(action) + ") is off the map";
+            return false;
+        }
+        ActionStatus status = game.perform(action);
+        if (!status.isSuccess()) {
+            divergence = "action " + position + " (" + Action.toString(action) + ") was rejected: " + status;
+            return false;
+        }
+        position++;
+        verifyCheckpoints();
+        return divergence == null;
+    }
+
+    /**
+     * Replays every remaining action, stopping at the first divergence.
+     *
+     * @return true if the whole recording was replayed and matched every checkpoint
+     */
+    public boolean runToEnd() {
+        while (hasNext()) {
+            step();
+        }
+        return divergence == null;
+    }
+
+    /**
+     * Describes where the replay diverged from the recording.
+     *
+     * @return the description, or null if it has not diverged
+     */
+    public String getDivergence() {
+        return divergence;
+    }
+
+    private void verifyCheckpoints() {
+        while (divergence == null && checkpoint < replay.getCheckpointCount()
+                && replay.getCheckpointPosition(checkpoint) == position) {
+            long expected = replay.getCheckpointHash(checkpoint);
+            long actual = game.getStateHash();
+            if (actual != expected) {
+                divergence = String.format("state hash after %d actions is %016x, recorded %016x",
+                        position, actual, expected);
+            }
+            checkpoint++;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> recordings = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Path.of(arg);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.filter(file -> file.toString().endsWith(".replay")).sorted().forEach(recordings::add);
+                }
+            } else {
+                recordings.add(path);
+            }
+        }
+        if (recordings.isEmpty()) {
+            System.err.println("Usage: Replayer recording-or-directory...");
+            System.exit(2);
+        }
+
+        int diverged = 0;
+        long actions = 0;
+        long start = System.nanoTime();
+        for (Path path : recordings) {
+            try {
+                Replayer replayer = new Replayer(Replay.load(path));
+                boolean matched = replayer.runToEnd();
+                actions += replayer.getPosition();
+                if (!matched) {
+                    diverged++;
+                    System.out.println(path + ": DIVERGED, " + replayer.getDivergence());
+                } else if (replayer.getReplay().getCheckpointCount() == 0) {
+                    System.out.println(path + ": " + replayer.getPosition() + " actions, no checkpoints");
+                }
+            } catch (IOException e) {
+                diverged++;
+                System.out.println(path + ": UNREADABLE, " + e.getMessage());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d recordings, %d diverged, %d actions in %.2f s: %.0f actions/s%n",
+                recordings.size(), diverged, actions, seconds, actions / seconds);
+        if (diverged > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package am.aua.game.simulation;
+
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.players.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Plays many independent {@link Simulation} games in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Each worker owns one game and one simulation for the whole run: the game is
+ * {@link GameCore#restart() restarted} between matches and the simulation reuses its
+ * buffers, so steady-state play allocates little more than the freshly generated maps.
+ * Workers claim games in small batches from a shared counter, which balances uneven game
+ * lengths without per-game task objects, and stream their results into a shared
+ * {@link SelfPlayStatistics}.
+ * <p>
+ * The map of the i-th game is generated from a seed derived from the run's seed and i
+ * alone, so the maps of a run do not depend on which worker plays them.
+ * <p>
+ * Running {@code main} prints the throughput for every parallelism from 1 to the number
+ * of available processors. Usage: {@code SelfPlayRunner [gamesPerRun] [seed]}
+ */
+public class SelfPlayRunner {
+    /** Number of games a worker claims from the shared counter at a time. */
+    private static final int BATCH_SIZE = 32;
+
+    /** Odd constant spreading the seeds of consecutive workers and games. */
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private final Supplier<GameCore> gameFactory;
+    private final LongFunction<Simulation> simulationFactory;
+
+    /**
+     * Constructs a runner.
+     *
+     * @param gameFactory       creates the game each worker restarts for every match
+     * @param simulationFactory creates the simulation of a worker, with strategies of its own,
+     *                          from a seed unique to that worker
+     */
+    public SelfPlayRunner(Supplier<GameCore> gameFactory, LongFunction<Simulation> simulationFactory) {
+        this.gameFactory = gameFactory;
+        this.simulationFactory = simulationFactory;
+    }
+
+    /**
+     * Plays the given number of games and returns their combined statistics.
+     *
+     * @param games       the number of games to play
+     * @param parallelism the number of worker threads
+     * @param seed        the seed from which the workers' and the maps' seeds are derived
+     * @return the statistics of all games played
+     */
+    public SelfPlayStatistics run(long games, int parallelism, long seed) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        GameCore probe = gameFactory.get();
+        SelfPlayStatistics statistics = new SelfPlayStatistics(probe.getPlayers().size());
+        AtomicLong claimed = new AtomicLong();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<?>> workers = new ArrayList<>(parallelism);
+            for (int w = 0; w < parallelism; w++) {
+                GameCore game = w == 0 ? probe : gameFactory.get();
+                Simulation simulation = simulationFactory.apply(seed + w * SEED_STEP);
+                workers.add(pool.submit(() -> play(game, simulation, games, seed, claimed, statistics)));
+            }
+            for (ForkJoinTask<?> worker : workers) {
+                worker.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return statistics;
+    }
+
+    private static void play(GameCore game, Simulation simulation, long games, long seed, AtomicLong claimed,
+                             SelfPlayStatistics statistics) {
+        while (true) {
+            long start = claimed.getAndAdd(BATCH_SIZE);
+            if (start >= games) {
+                return;
+            }
+            long end = Math.min(games, start + BATCH_SIZE);
+            for (long i = start; i < end; i++) {
+                game.restart(~seed + i * SEED_STEP);
+                statistics.record(simulation.run(game));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        SelfPlayRunner runner = new SelfPlayRunner(SelfPlayRunner::newGame,
+                s -> new Simulation(new RandomStrategy(s), new RandomStrategy(~s)));
+        runner.run(Math.max(1, games / 10), processors, seed);
+
+        double baseline = 0;
+        SelfPlayStatistics last = null;
+        for (int parallelism = 1; parallelism <= processors; parallelism = nextParallelism(parallelism, processors)) {
+            long start = System.nanoTime();
+            last = runner.run(games, parallelism, seed);
+            double rate = games / ((System.nanoTime() - start) / 1e9);
+            if (parallelism == 1) {
+                baseline = rate;
+            }
+            System.out.printf("%3d threads: %,10.0f games/s  speedup %5.2fx  efficiency %5.1f%%%n",
+                    parallelism, rate, rate / baseline, 100 * rate / baseline / parallelism);
+        }
+        System.out.println(last);
+    }
+
+    /**
+     * Doubles the parallelism, but always ends with the processor count itself.
+     */
+    private static int nextParallelism(int parallelism, int processors) {
+        return parallelism == processors ? processors + 1 : Math.min(parallelism * 2, processors);
+    }
+
+    private static GameCore newGame() {
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("Red"));
+        players.add(new Player("Blue"));
+        return new GameCore(players);
+    }
+}
@@ -0,0 +1,121 @@
+package am.aua.game.simulation;
+
+import am.aua.game.units.UnitType;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totals over many self-play games, safe to update from any number of threads at once.
+ * Every counter is a {@link LongAdder}, so concurrent workers recording results do not
+ * contend on a shared cache line; the totals are only summed when read.
+ */
+public class SelfPlayStatistics {
+    private static final UnitType[] UNIT_TYPES = UnitType.values();
+
+    private final LongAdder games = new LongAdder();
+    private final LongAdder turns = new LongAdder();
+    private final LongAdder actions = new LongAdder();
+    private final LongAdder[] wins;
+    private final LongAdder[] purchases = new LongAdder[UNIT_TYPES.length];
+
+    /**
+     * Constructs empty statistics for games between the given number of players.
+     *
+     * @param playerCount the number of players per game
+     */
+    public SelfPlayStatistics(int playerCount) {
+        this.wins = new LongAdder[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            wins[i] = new LongAdder();
+        }
+        for (int i = 0; i < purchases.length; i++) {
+            purchases[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Adds the outcome of one game.
+     *
+     * @param result the result of the game
+     */
+    public void record(SimulationResult result) {
+        games.increment();
+        turns.add(result.turns());
+        actions.add(result.actions());
+        if (result.winner() >= 0) {
+            wins[result.winner()].increment();
+        }
+        for (int i = 0; i < purchases.length; i++) {
+            if (result.purchases()[i] != 0) {
+                purchases[i].add(result.purchases()[i]);
+            }
+        }
+    }
+
+    public long getGames() {
+        return games.sum();
+    }
+
+    public long getTurns() {
+        return turns.sum();
+    }
+
+    public long getActions() {
+        return actions.sum();
+    }
+
+    /**
+     * Returns how many games a player won.
+     *
+     * @param player the index of the player
+     * @return the number of wins
+     */
+    public long getWins(int player) {
+        return wins[player].sum();
+    }
+
+    /**
+     * Returns the share of all recorded games a player won.
+     *
+     * @param player the index of the player
+     * @return the win rate between 0 and 1
+     */
+    public double getWinRate(int player) {
+        long total = getGames();
+        return total == 0 ? 0 : (double) getWins(player) / total;
+    }
+
+    /**
+     * Returns the average turn count at which the recorded games ended.
+     *
+     * @return the average number of turns
+     */
+    public double getAverageTurns() {
+        long total = getGames();
+        return total == 0 ? 0 : (double) getTurns() / total;
+    }
+
+    /**
+     * Returns how many units of a type were bought over all recorded games.
+     *
+     * @param type the kind of unit
+     * @return the number bought
+     */
+    public long getPurchases(UnitType type) {
+        return purchases[type.ordinal()].sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        long total = getGames();
+        sb.append(total).append(" games, average ").append(String.format("%.1f", getAverageTurns())).append(" turns");
+        for (int i = 0; i < wins.length; i++) {
+            sb.append(String.format(", player %d wins %.1f%%", i + 1, 100 * getWinRate(i)));
+        }
+        for (UnitType type : UNIT_TYPES) {
+            sb.append(String.format(", %s %.2f/game", type, total == 0 ? 0 : (double) getPurchases(type) / total));
+        }
+        return sb.toString();
+    }
+}
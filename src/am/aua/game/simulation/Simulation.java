@@ -0,0 +1,120 @@
+package am.aua.game.simulation;
+
+import am.aua.game.gameLogic.Action;
+import am.aua.game.gameLogic.ActionBuffer;
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.players.Player;
+import am.aua.game.units.UnitType;
+
+import java.util.List;
+
+/**
+ * Plays games between {@link PlayerStrategy strategies} without any user interface.
+ * Each turn the current player's strategy picks actions from the legal ones until one of
+ * them ends the turn: a move, an attack or {@link Action#END_TURN}. Purchases and sales
+ * do not end the turn, so a turn is cut short after {@link #getMaxActionsPerTurn()} actions.
+ * The game runs until {@link GameCore#checkLooseCondition()} holds or the turn cap is reached.
+ * <p>
+ * A simulation keeps its action buffer between games, so one instance should be reused
+ * for many games. It is not thread-safe; use one per thread.
+ */
+public class Simulation {
+    /** Turn count at which an undecided game is stopped by default. */
+    public static final int DEFAULT_MAX_TURNS = 400;
+
+    /** Number of actions a player may take in one turn by default. */
+    public static final int DEFAULT_MAX_ACTIONS_PER_TURN = 8;
+
+    private static final UnitType[] UNIT_TYPES = UnitType.values();
+
+    private final PlayerStrategy[] strategies;
+    private final ActionBuffer actions = new ActionBuffer();
+    private int maxTurns = DEFAULT_MAX_TURNS;
+    private int maxActionsPerTurn = DEFAULT_MAX_ACTIONS_PER_TURN;
+
+    /**
+     * Constructs a simulation with one strategy per player, in the order of
+     * {@link GameCore#getPlayers()}.
+     *
+     * @param strategies the strategies of the players
+     */
+    public Simulation(PlayerStrategy... strategies) {
+        if (strategies.length == 0) {
+            throw new IllegalArgumentException("At least one strategy is required");
+        }
+        this.strategies = strategies.clone();
+    }
+
+    public int getMaxTurns() {
+        return maxTurns;
+    }
+
+    /**
+     * Sets the turn count at which an undecided game is stopped.
+     *
+     * @param maxTurns the turn cap, at least 1
+     */
+    public void setMaxTurns(int maxTurns) {
+        if (maxTurns < 1) {
+            throw new IllegalArgumentException("Turn cap must be positive: " + maxTurns);
+        }
+        this.maxTurns = maxTurns;
+    }
+
+    public int getMaxActionsPerTurn() {
+        return maxActionsPerTurn;
+    }
+
+    /**
+     * Sets how many actions a player may take before their turn is ended for them.
+     *
+     * @param maxActionsPerTurn the action cap, at least 1
+     */
+    public void setMaxActionsPerTurn(int maxActionsPerTurn) {
+        if (maxActionsPerTurn < 1) {
+            throw new IllegalArgumentException("Action cap must be positive: " + maxActionsPerTurn);
+        }
+        this.maxActionsPerTurn = maxActionsPerTurn;
+    }
+
+    /**
+     * Plays a game to the end, modifying it in place.
+     *
+     * @param game the game to play; it needs one player per strategy
+     * @return the outcome of the game
+     * @throws IllegalStateException if a strategy chooses an illegal action
+     */
+    public SimulationResult run(GameCore game) {
+        List<Player> players = game.getPlayers();
+        if (players.size() != strategies.length) {
+            throw new IllegalArgumentException("Expected " + strategies.length + " players, got " + players.size());
+        }
+        int[] purchases = new int[UNIT_TYPES.length];
+        int actionCount = 0;
+
+        while (game.getTurnCount() < maxTurns && !game.checkLooseCondition()) {
+            Player player = game.getCurrentPlayer();
+            PlayerStrategy strategy = strategies[players.indexOf(player)];
+            int turn = game.getTurnCount();
+            for (int taken = 0; game.getTurnCount() == turn; taken++) {
+                if (taken == maxActionsPerTurn) {
+                    game.nextTurn();
+                    break;
+                }
+                game.generateLegalActions(player, actions);
+                long action = strategy.chooseAction(game, actions);
+                if (!game.perform(action).isSuccess()) {
+                    throw new IllegalStateException(player.getName() + " chose an illegal action: " + Action.toString(action));
+                }
+                actionCount++;
+                if (Action.kind(action) == Action.BUY) {
+                    purchases[Action.unitType(action).ordinal()]++;
+                }
+            }
+        }
+
+        int loser = game.checkLooseCondition() ? players.indexOf(game.getCurrentPlayer()) : -1;
+        int winner = loser >= 0 && players.size() == 2 ? 1 - loser : -1;
+        return new SimulationResult(winner, loser, game.getTurnCount(), actionCount, purchases);
+    }
+}
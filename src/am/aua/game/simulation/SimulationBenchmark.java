@@ -0,0 +1,63 @@
+package am.aua.game.simulation;
+
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.navigation.Map;
+import am.aua.game.players.Player;
+import am.aua.game.units.UnitType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how many headless games per second a single thread can play between two
+ * {@link RandomStrategy random players}, and prints the outcome statistics.
+ * <p>
+ * Usage: {@code SimulationBenchmark [games] [seed]}
+ */
+public class SimulationBenchmark {
+    private static final int WARMUP_GAMES = 2_000;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+
+        Simulation simulation = new Simulation(new RandomStrategy(seed), new RandomStrategy(seed + 1));
+        for (int i = 0; i < WARMUP_GAMES; i++) {
+            simulation.run(newGame(~seed - i));
+        }
+
+        int[] wins = new int[2];
+        long turns = 0;
+        long actions = 0;
+        long[] purchases = new long[UnitType.values().length];
+        long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            SimulationResult result = simulation.run(newGame(~seed + i));
+            if (result.winner() >= 0) {
+                wins[result.winner()]++;
+            }
+            turns += result.turns();
+            actions += result.actions();
+            for (UnitType type : UnitType.values()) {
+                purchases[type.ordinal()] += result.purchases(type);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games in %.2f s: %.0f games/s, %.0f actions/s%n",
+                games, seconds, games / seconds, actions / seconds);
+        System.out.printf("first player wins %.1f%%, second %.1f%%, undecided %.1f%%%n",
+                100.0 * wins[0] / games, 100.0 * wins[1] / games, 100.0 * (games - wins[0] - wins[1]) / games);
+        System.out.printf("average turns %.1f, average actions %.1f%n", (double) turns / games, (double) actions / games);
+        for (UnitType type : UnitType.values()) {
+            System.out.printf("%s bought per game: %.2f%n", type, (double) purchases[type.ordinal()] / games);
+        }
+    }
+
+    private static GameCore newGame(long seed) {
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("Red"));
+        players.add(new Player("Blue"));
+        return new GameCore(players, Map.DEFAULT_SIZE, Map.DEFAULT_SIZE, seed);
+    }
+}
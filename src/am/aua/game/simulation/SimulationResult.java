@@ -0,0 +1,34 @@
+package am.aua.game.simulation;
+
+import am.aua.game.units.UnitType;
+
+/**
+ * Outcome of one game played by a {@link Simulation}.
+ *
+ * @param winner    index of the winning player, or -1 if the game was not decided
+ * @param loser     index of the player who lost, or -1 if the turn cap was reached first
+ * @param turns     the turn count when the game ended
+ * @param actions   the number of actions performed, including ends of turn
+ * @param purchases the number of units bought, indexed by {@link UnitType} ordinal
+ */
+public record SimulationResult(int winner, int loser, int turns, int actions, int[] purchases) {
+
+    /**
+     * Checks whether the game ended with a loser rather than at the turn cap.
+     *
+     * @return true if some player lost
+     */
+    public boolean isDecided() {
+        return loser >= 0;
+    }
+
+    /**
+     * Returns how many units of a type were bought during the game, by all players.
+     *
+     * @param type the kind of unit
+     * @return the number bought
+     */
+    public int purchases(UnitType type) {
+        return purchases[type.ordinal()];
+    }
+}
@@ -6,7 +6,7 @@ public class Soldier extends Unit {
     
 
     public Soldier(Player owner) {
-        super("S", 100, 10, 3, 1, owner,150);
+        super(UnitType.SOLDIER, owner);
     }
     
 
@@ -27,25 +27,33 @@ public abstract class Unit {
     /** The cost required to purchase or deploy this unit. */
     private final int price;
 
+    /** The kind of this unit. */
+    private final UnitType type;
+
     /**
-     * Constructs a new Unit with the specified attributes.
+     * Constructs a new Unit with the base attributes of the given type.
      *
-     * @param symbol         the symbol used to represent this unit
-     * @param health         the initial health of the unit
-     * @param attackPower    the attack strength of the unit
-     * @param movementRange  how far the unit can move per turn
-     * @param attackRange    how far the unit can attack
-     * @param owner          the {@link Player} who owns this unit
-     * @param price          the cost of this unit
+     * @param type   the kind of unit, providing symbol, health, attack power, ranges and price
+     * @param owner  the {@link Player} who owns this unit
      */
-    public Unit(String symbol, int health, int attackPower, int movementRange, int attackRange, Player owner, int price) {
-        this.symbol = symbol;
-        this.health = health;
-        this.attackPower = attackPower;
-        this.movementRange = movementRange;
-        this.attackRange = attackRange;
+    public Unit(UnitType type, Player owner) {
+        this.type = type;
+        this.symbol = type.getSymbol();
+        this.health = type.getHealth();
+        this.attackPower = type.getAttackPower();
+        this.movementRange = type.getMovementRange();
+        this.attackRange = type.getAttackRange();
         this.owner = owner;
-        this.price = price;
+        this.price = type.getPrice();
+    }
+
+    /**
+     * Returns the kind of this unit.
+     *
+     * @return the unit's {@link UnitType}
+     */
+    public UnitType getType() {
+        return type;
     }
 
     /**
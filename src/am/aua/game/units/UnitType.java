@@ -0,0 +1,73 @@
+package am.aua.game.units;
+
+import am.aua.game.players.Player;
+
+/**
+ * Enumerates the kinds of units a player can buy, together with their base statistics.
+ * The ordinal of a type is used wherever a unit kind has to be stored compactly.
+ */
+public enum UnitType {
+    SOLDIER("S", 100, 10, 3, 1, 150),
+    ARCHER("A", 80, 15, 4, 3, 300),
+    TANK("T", 200, 20, 2, 1, 400);
+
+    private final String symbol;
+    private final int health;
+    private final int attackPower;
+    private final int movementRange;
+    private final int attackRange;
+    private final int price;
+
+    UnitType(String symbol, int health, int attackPower, int movementRange, int attackRange, int price) {
+        this.symbol = symbol;
+        this.health = health;
+        this.attackPower = attackPower;
+        this.movementRange = movementRange;
+        this.attackRange = attackRange;
+        this.price = price;
+    }
+
+    /**
+     * Creates a new unit of this type.
+     *
+     * @param owner the {@link Player} who owns the unit
+     * @return a unit with full health
+     */
+    public Unit create(Player owner) {
+        return switch (this) {
+            case SOLDIER -> new Soldier(owner);
+            case ARCHER -> new Archer(owner);
+            case TANK -> new Tank(owner);
+        };
+    }
+
+    /** @return the symbol used to represent units of this type */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /** @return the health a new unit of this type starts with */
+    public int getHealth() {
+        return health;
+    }
+
+    /** @return the damage a unit of this type deals */
+    public int getAttackPower() {
+        return attackPower;
+    }
+
+    /** @return how far a unit of this type can move */
+    public int getMovementRange() {
+        return movementRange;
+    }
+
+    /** @return how far a unit of this type can attack */
+    public int getAttackRange() {
+        return attackRange;
+    }
+
+    /** @return the cost of a unit of this type */
+    public int getPrice() {
+        return price;
+    }
+}
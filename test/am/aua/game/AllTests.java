@@ -0,0 +1,30 @@
+package am.aua.game;
+
+import am.aua.game.ai.TranspositionTableTest;
+import am.aua.game.fileIO.ActionJournalTest;
+import am.aua.game.fileIO.SaveLoadTest;
+import am.aua.game.gameLogic.RangeCacheTest;
+import am.aua.game.gameLogic.UndoTest;
+import am.aua.game.navigation.ConnectivityTest;
+import am.aua.game.navigation.InfluenceMapTest;
+import am.aua.game.navigation.PathFinderTest;
+import am.aua.game.simulation.ReplayerTest;
+
+/**
+ * Runs every check in the {@code test} source root. Each check throws an
+ * {@link AssertionError} on the first failure, so the exit status is non-zero if any fails.
+ */
+public class AllTests {
+    public static void main(String[] args) throws Exception {
+        UndoTest.main(args);
+        TranspositionTableTest.main(args);
+        InfluenceMapTest.main(args);
+        ConnectivityTest.main(args);
+        PathFinderTest.main(args);
+        RangeCacheTest.main(args);
+        SaveLoadTest.main(args);
+        ActionJournalTest.main(args);
+        ReplayerTest.main(args);
+        System.out.println("All tests passed");
+    }
+}
@@ -0,0 +1,70 @@
+package am.aua.game;
+
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.navigation.CellSet;
+import am.aua.game.navigation.Map;
+import am.aua.game.players.Player;
+import am.aua.game.units.Unit;
+
+/**
+ * Helpers shared by the checks in the {@code test} source root.
+ */
+public final class TestSupport {
+    private TestSupport() {
+    }
+
+    /**
+     * Fails the running check if a condition does not hold.
+     *
+     * @param condition the condition that must hold
+     * @param message   the failure description
+     * @throws AssertionError if the condition is false
+     */
+    public static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * Describes everything a player can observe about a game: the turn, the players'
+     * resources, units and territory, and every cell. Two games with equal descriptions
+     * are in the same state.
+     *
+     * @param game the game to describe
+     * @return the description
+     */
+    public static String describe(GameCore game) {
+        StringBuilder description = new StringBuilder();
+        description.append("turn ").append(game.getTurnCount())
+                .append(", current ").append(game.getCurrentPlayer().getName()).append('\n');
+        for (Player player : game.getPlayers()) {
+            description.append(player.getName()).append(": ").append(player.getResources())
+                    .append(" resources, ").append(player.getUnits().size()).append(" units, territory");
+            appendCells(description, player.getTerritory());
+            description.append(", occupancy");
+            appendCells(description, player.getOccupancy());
+            description.append('\n');
+        }
+        Map map = game.getMap();
+        for (int cell = 0; cell < map.getCellCount(); cell++) {
+            description.append(map.getTerrain(cell).ordinal());
+            Unit unit = map.getUnit(cell);
+            if (unit != null) {
+                description.append(unit.getType()).append(unit.getHealth()).append(unit.getOwner().getName());
+            }
+            Player owner = map.getOwner(cell);
+            if (owner != null) {
+                description.append('@').append(owner.getName());
+            }
+            description.append(cell % map.getWidth() == map.getWidth() - 1 ? '\n' : ' ');
+        }
+        return description.toString();
+    }
+
+    private static void appendCells(StringBuilder description, CellSet cells) {
+        for (int cell = cells.nextSetBit(0); cell >= 0; cell = cells.nextSetBit(cell + 1)) {
+            description.append(' ').append(cell);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package am.aua.game.ai;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static am.aua.game.TestSupport.check;
+
+/**
+ * Checks that {@link TranspositionTable} returns what was stored, and that entries torn by
+ * concurrent writers read as misses rather than as a mix of two positions.
+ * <p>
+ * Every stored entry is a function of its hash, so a hit whose fields do not match the
+ * probed hash can only come from a torn entry. Torn entries are first built directly, by
+ * splicing the words of two entries in every combination, so the check does not depend on
+ * the scheduler; then several threads store and probe a table of a single bucket, so that
+ * they all write the same few words.
+ */
+public class TranspositionTableTest {
+    private static final int THREADS = 4;
+    private static final int OPERATIONS = 2_000_000;
+
+    public static void main(String[] args) throws Exception {
+        checkRoundTrip();
+        int spliced = checkSplicedEntries();
+
+        TranspositionTable table = new TranspositionTable(0);
+        check(table.getCapacity() == 2, "a table of no memory should hold one bucket");
+        AtomicLong hits = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            Thread thread = new Thread(() -> hammer(table, seed, hits));
+            thread.setUncaughtExceptionHandler((failed, e) -> {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.get(0).getMessage(), failures.get(0));
+        }
+        check(hits.get() > 0, "no probe ever hit, so nothing was checked");
+        System.out.println("TranspositionTableTest: ok, " + spliced + " torn entries rejected, "
+                + hits.get() + " concurrent hits verified");
+    }
+
+    private static void checkRoundTrip() {
+        TranspositionTable table = new TranspositionTable(1);
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 10_000; i++) {
+            long hash = random.nextLong();
+            table.store(hash, depth(hash), bound(hash), score(hash), action(hash));
+            check(table.probe(hash, entry), "a stored position was not found");
+            checkEntry(hash, entry);
+            check(!table.probe(hash ^ 1L << 40, entry), "a position that was never stored was found");
+        }
+    }
+
+    /**
+     * Stores two positions in the same slot, then rebuilds the slot from the words of both
+     * in every mix and probes for each position.
+     *
+     * @return the number of mixed entries that were rightly rejected
+     */
+    private static int checkSplicedEntries() throws ReflectiveOperationException {
+        TranspositionTable table = new TranspositionTable(0);
+        Field field = TranspositionTable.class.getDeclaredField("table");
+        field.setAccessible(true);
+        long[] words = (long[]) field.get(table);
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        SplittableRandom random = new SplittableRandom(2);
+        int rejected = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long first = random.nextLong();
+            long second = random.nextLong();
+            table.clear();
+            table.store(first, depth(first), bound(first), score(first), action(first));
+            long[] firstWords = Arrays.copyOf(words, 3);
+            table.clear();
+            table.store(second, depth(second), bound(second), score(second), action(second));
+            long[] secondWords = Arrays.copyOf(words, 3);
+
+            for (int mix = 1; mix < 7; mix++) {
+                for (int word = 0; word < 3; word++) {
+                    words[word] = (mix >>> word & 1) == 0 ? firstWords[word] : secondWords[word];
+                }
+                boolean found = false;
+                for (long hash : new long[] {first, second}) {
+                    if (table.probe(hash, entry)) {
+                        checkEntry(hash, entry);
+                        found = true;
+                    }
+                }
+                if (!found) {
+                    rejected++;
+                }
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Stores and probes hashes drawn from a small set, checking every hit.
+     */
+    private static void hammer(TranspositionTable table, long seed, AtomicLong hits) {
+        SplittableRandom random = new SplittableRandom(seed);
+        TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        long found = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            long hash = (random.nextInt(64) + 1) * 0x9E3779B97F4A7C15L;
+            if (random.nextBoolean()) {
+                table.store(hash, depth(hash), bound(hash), score(hash), action(hash));
+            } else if (table.probe(hash, entry)) {
+                checkEntry(hash, entry);
+                found++;
+            }
+        }
+        hits.addAndGet(found);
+    }
+
+    private static void checkEntry(long hash, TranspositionTable.Entry entry) {
+        check(entry.getScore() == score(hash) && entry.getDepth() == depth(hash)
+                        && entry.getBound() == bound(hash) && entry.getBestAction() == action(hash),
+                String.format("entry for %016x holds another position's fields", hash));
+    }
+
+    private static int score(long hash) {
+        return (int) (hash >>> 7);
+    }
+
+    private static int depth(long hash) {
+        return (int) (hash >>> 23) & 0xFF;
+    }
+
+    private static int bound(long hash) {
+        return (int) Long.remainderUnsigned(hash >>> 3, 3);
+    }
+
+    private static long action(long hash) {
+        return hash * 31 + 17;
+    }
+}
@@ -0,0 +1,128 @@
+package am.aua.game.fileIO;
+
+import am.aua.game.gameLogic.Action;
+import am.aua.game.gameLogic.ActionBuffer;
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.players.Player;
+import am.aua.game.simulation.RandomStrategy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static am.aua.game.TestSupport.check;
+import static am.aua.game.TestSupport.describe;
+
+/**
+ * Checks that {@link ActionJournal#recover(Path)} rebuilds the last state of a game that
+ * was never closed, that a journal cut at any point recovers to some state the game went
+ * through, that an action the game rejects is reported rather than skipped, and that a
+ * recovered game keeps its computer players and can be journaled again to the same file.
+ */
+public class ActionJournalTest {
+    private static final int GAMES = 20;
+    private static final int CUTS = 15;
+
+    public static void main(String[] args) throws IOException {
+        Path journalFile = Files.createTempFile("journal-test", ".journal");
+        Path cutFile = Files.createTempFile("journal-test-cut", ".journal");
+        Random random = new Random(3);
+        int recovered = 0;
+        try {
+            for (int seed = 0; seed < GAMES; seed++) {
+                List<Player> players = new ArrayList<>(List.of(new Player("A"), new Player("B")));
+                GameCore game = new GameCore(players, 20, 20, seed);
+                ActionJournal journal = ActionJournal.start(journalFile, game, 3);
+                Set<String> states = new HashSet<>();
+                states.add(describe(game));
+                game.addActionObserver((observed, action) -> states.add(describe(observed)));
+
+                RandomStrategy strategy = new RandomStrategy(seed);
+                ActionBuffer legal = new ActionBuffer();
+                int actions = 50 + random.nextInt(300);
+                for (int i = 0; i < actions && !game.checkLooseCondition(); i++) {
+                    game.generateLegalActions(game.getCurrentPlayer(), legal);
+                    game.perform(strategy.chooseAction(game, legal));
+                }
+
+                // the journal is deliberately left open, as after a crash
+                ActionJournal.Recovery recovery = ActionJournal.recover(journalFile);
+                check(recovery.isComplete(), "recovery of game " + seed + " stopped: " + recovery.problem());
+                check(describe(recovery.game()).equals(describe(game)), "game " + seed + " was not recovered");
+
+                byte[] bytes = Files.readAllBytes(journalFile);
+                for (int i = 0; i < CUTS; i++) {
+                    int length = 5 + random.nextInt(bytes.length - 5);
+                    Files.write(cutFile, Arrays.copyOf(bytes, length));
+                    try {
+                        recovery = ActionJournal.recover(cutFile);
+                    } catch (IOException e) {
+                        // cut inside the first snapshot
+                        continue;
+                    }
+                    check(recovery.isComplete(), "a journal cut to " + length + " bytes reported " + recovery.problem());
+                    check(states.contains(describe(recovery.game())),
+                            "a journal cut to " + length + " bytes recovered a state game " + seed + " never reached");
+                }
+                journal.close();
+                recovered++;
+            }
+            checkRejectedAction(journalFile);
+            checkResume(journalFile);
+        } finally {
+            Files.deleteIfExists(journalFile);
+            Files.deleteIfExists(cutFile);
+        }
+        System.out.println("ActionJournalTest: ok, " + recovered + " games recovered");
+    }
+
+    /**
+     * Journals an action the game never performed and checks that recovery stops before it.
+     */
+    private static void checkRejectedAction(Path journalFile) throws IOException {
+        List<Player> players = new ArrayList<>(List.of(new Player("A"), new Player("B")));
+        GameCore game = new GameCore(players, 20, 20, 1);
+        ActionJournal journal = ActionJournal.start(journalFile, game);
+        game.perform(Action.endTurn());
+        String expected = describe(game);
+        journal.actionPerformed(game, Action.sell(0));
+        game.perform(Action.endTurn());
+        journal.close();
+
+        ActionJournal.Recovery recovery = ActionJournal.recover(journalFile);
+        check(!recovery.isComplete(), "an action that cannot be replayed was not reported");
+        check(recovery.replayed() == 1, "recovery replayed " + recovery.replayed() + " actions, expected 1");
+        check(describe(recovery.game()).equals(expected), "recovery did not stop before the bad action");
+        check(!recovery.isComputer(0) && !recovery.isComputer(1), "a game between humans recovered a computer player");
+    }
+
+    /**
+     * Recovers a game against the computer and journals it again to the same file, as the
+     * menus do when a game is resumed.
+     */
+    private static void checkResume(Path journalFile) throws IOException {
+        List<Player> players = new ArrayList<>(List.of(new Player("A"), new Player("B")));
+        GameCore game = new GameCore(players, 20, 20, 2);
+        ActionJournal journal = ActionJournal.start(journalFile, game, 3, 1 << 1);
+        game.perform(Action.endTurn());
+        journal.close();
+
+        ActionJournal.Recovery recovery = ActionJournal.recover(journalFile);
+        check(!recovery.isComputer(0) && recovery.isComputer(1), "the computer player was not recovered");
+        GameCore resumed = recovery.game();
+        journal = ActionJournal.start(journalFile, resumed, 3, recovery.computerPlayers());
+        resumed.perform(Action.endTurn());
+        journal.close();
+
+        recovery = ActionJournal.recover(journalFile);
+        check(recovery.isComplete() && describe(recovery.game()).equals(describe(resumed)),
+                "a resumed game was not recovered from its new journal");
+        check(recovery.isComputer(1), "the computer player was lost on resuming");
+    }
+}
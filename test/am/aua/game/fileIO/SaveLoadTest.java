@@ -0,0 +1,122 @@
+package am.aua.game.fileIO;
+
+import am.aua.game.gameLogic.ActionBuffer;
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.players.Player;
+import am.aua.game.simulation.RandomStrategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static am.aua.game.TestSupport.check;
+import static am.aua.game.TestSupport.describe;
+
+/**
+ * Checks that games survive a round trip through both save formats, on maps whose sides
+ * are and are not multiples of the terrain block size, and that a binary save cut short,
+ * without players or with a current player out of range is rejected.
+ */
+public class SaveLoadTest {
+    private static final int[][] SIZES = {{10, 10}, {15, 15}, {32, 64}, {45, 70}};
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("save-load-test", ".sav");
+        int games = 0;
+        try {
+            for (int[] size : SIZES) {
+                for (int seed = 0; seed < 5; seed++) {
+                    GameCore game = play(size[0], size[1], seed, 40 * seed);
+                    String expected = describe(game);
+
+                    SaveLoadManager.saveGame(file.toString(), game);
+                    GameCore text = SaveLoadManager.loadGame(file.toString());
+                    check(text != null && describe(text).equals(expected),
+                            "text save of a " + size[0] + "x" + size[1] + " game changed it");
+
+                    SaveLoadManager.saveGameBinary(file.toString(), game);
+                    GameCore binary = SaveLoadManager.loadGame(file.toString());
+                    check(binary != null && describe(binary).equals(expected),
+                            "binary save of a " + size[0] + "x" + size[1] + " game changed it");
+                    check(binary.getHash() == game.getHash(), "binary save changed the game hash");
+
+                    checkTruncated(BinarySaveFormat.encode(game));
+                    games++;
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        checkPlayerHeader();
+        System.out.println("SaveLoadTest: ok, " + games + " games saved and loaded in both formats");
+    }
+
+    /**
+     * Plays random legal actions on a new game.
+     */
+    private static GameCore play(int width, int height, long seed, int actions) {
+        List<Player> players = new ArrayList<>(List.of(new Player("A"), new Player("B")));
+        GameCore game = new GameCore(players, width, height, seed);
+        RandomStrategy strategy = new RandomStrategy(seed);
+        ActionBuffer legal = new ActionBuffer();
+        for (int i = 0; i < actions && !game.checkLooseCondition(); i++) {
+            game.generateLegalActions(game.getCurrentPlayer(), legal);
+            game.perform(strategy.chooseAction(game, legal));
+        }
+        return game;
+    }
+
+    /**
+     * Corrupts the player count and the current player index of a new game's binary save,
+     * which must then be rejected rather than loaded without a current player.
+     */
+    private static void checkPlayerHeader() {
+        GameCore game = play(10, 10, 1, 0);
+        byte[] save = BinarySaveFormat.encode(game);
+        // magic, version, then one-byte varints for the width, height and turn around the 8-byte seed
+        int playerCountOffset = BinarySaveFormat.MAGIC.length + 1 + 1 + 1 + 8 + 1;
+        check(save[playerCountOffset] == 2, "unexpected save layout");
+        // two players, each a one-byte name length, a one-byte name and 8 bytes of resources
+        int currentPlayerOffset = playerCountOffset + 1 + 2 * (1 + 1 + 8);
+        check(save[currentPlayerOffset] == 0, "unexpected save layout");
+
+        byte[] noPlayers = save.clone();
+        noPlayers[playerCountOffset] = 0;
+        checkRejected(noPlayers, "a save without players");
+        for (int index = 2; index < 128; index += 25) {
+            byte[] badCurrent = save.clone();
+            badCurrent[currentPlayerOffset] = (byte) index;
+            checkRejected(badCurrent, "a save whose current player is " + index + " of 2");
+        }
+    }
+
+    private static void checkRejected(byte[] save, String what) {
+        try {
+            BinarySaveFormat.decode(ByteBuffer.wrap(save));
+            check(false, what + " was accepted");
+        } catch (IOException e) {
+            // rejected, as it should be
+        }
+    }
+
+    /**
+     * Decodes every proper prefix of a binary save, which must fail with an IOException, or
+     * with an UncheckedIOException once the lazily decoded terrain is read.
+     */
+    private static void checkTruncated(byte[] save) {
+        for (int length = 0; length < save.length; length++) {
+            ByteBuffer prefix = ByteBuffer.wrap(save, 0, length).slice();
+            try {
+                GameCore game = BinarySaveFormat.decode(prefix);
+                describe(game);
+                check(false, "a binary save cut to " + length + " of " + save.length + " bytes was accepted");
+            } catch (IOException | UncheckedIOException e) {
+                // rejected, as it should be
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package am.aua.game.gameLogic;
+
+import am.aua.game.navigation.Cell;
+import am.aua.game.navigation.CellSet;
+import am.aua.game.navigation.Map;
+import am.aua.game.players.Player;
+import am.aua.game.simulation.RandomStrategy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import static am.aua.game.TestSupport.check;
+
+/**
+ * Checks that the reachable and attackable cells {@link GameCore} answers from its
+ * {@link RangeCache} always equal those computed by a {@link GameCore#copy() copy}, which
+ * starts with an empty cache.
+ * <p>
+ * Games are played at random with applied actions, undos and occasional terrain changes
+ * mixed in, and units are queried between steps so that the cache holds entries for the
+ * next change to invalidate.
+ */
+public class RangeCacheTest {
+    private static final int GAMES = 200;
+    private static final int STEPS = 150;
+
+    public static void main(String[] args) {
+        Random random = new Random(3);
+        long checked = 0;
+        for (int seed = 0; seed < GAMES; seed++) {
+            List<Player> players = new ArrayList<>(List.of(new Player("A"), new Player("B")));
+            GameCore game = new GameCore(players, 20, 20, seed);
+            Map map = game.getMap();
+            RandomStrategy strategy = new RandomStrategy(seed);
+            ActionBuffer legal = new ActionBuffer();
+            Deque<Integer> records = new ArrayDeque<>();
+            for (int step = 0; step < STEPS && !game.checkLooseCondition(); step++) {
+                for (Player player : players) {
+                    CellSet units = player.getOccupancy();
+                    for (int cell = units.nextSetBit(0); cell >= 0; cell = units.nextSetBit(cell + 1)) {
+                        if (random.nextInt(3) == 0) {
+                            checkCell(game, cell, "game " + seed + " step " + step);
+                            checked++;
+                        }
+                    }
+                }
+
+                int change = random.nextInt(20);
+                if (change == 0) {
+                    int cell = random.nextInt(map.getCellCount());
+                    if (!map.isOccupied(cell)) {
+                        map.setTerrain(cell, map.isPassable(cell) ? Cell.TerrainType.ROCK : Cell.TerrainType.NORMAL);
+                    }
+                } else if (change < 6 && !records.isEmpty()) {
+                    game.undo(records.pop());
+                } else {
+                    game.generateLegalActions(game.getCurrentPlayer(), legal);
+                    records.push(game.apply(strategy.chooseAction(game, legal)));
+                }
+            }
+        }
+        System.out.println("RangeCacheTest: ok, " + checked + " queries checked");
+    }
+
+    private static void checkCell(GameCore game, int cell, String when) {
+        String reachable = describe(game.getReachableCells(cell));
+        String attackable = describe(game.getAttackableCells(cell));
+        GameCore fresh = game.copy();
+        check(reachable.equals(describe(fresh.getReachableCells(cell))),
+                "stale reachable cells for the unit on " + cell + " at " + when);
+        check(attackable.equals(describe(fresh.getAttackableCells(cell))),
+                "stale attackable cells for the unit on " + cell + " at " + when);
+    }
+
+    private static String describe(CellSet cells) {
+        StringBuilder description = new StringBuilder();
+        for (int cell = cells.nextSetBit(0); cell >= 0; cell = cells.nextSetBit(cell + 1)) {
+            description.append(cell).append(' ');
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package am.aua.game.gameLogic;
+
+import am.aua.game.players.Player;
+import am.aua.game.simulation.RandomStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static am.aua.game.TestSupport.check;
+import static am.aua.game.TestSupport.describe;
+
+/**
+ * Checks that {@link GameCore#undo(int)} restores exactly the state before
+ * {@link GameCore#apply(long)}, hash included, and that the incrementally updated hash
+ * always equals the hash computed from scratch.
+ * <p>
+ * Games are first advanced by random play, then searched a few plies deep over random
+ * legal actions, undoing each one on the way back.
+ */
+public class UndoTest {
+    private static final int GAMES = 30;
+    private static final int DEPTH = 4;
+    private static final int BRANCHES = 5;
+
+    private final Random random = new Random(5);
+    private final ActionBuffer[] buffers = new ActionBuffer[DEPTH];
+    private int applied;
+
+    private UndoTest() {
+        for (int i = 0; i < DEPTH; i++) {
+            buffers[i] = new ActionBuffer();
+        }
+    }
+
+    public static void main(String[] args) {
+        UndoTest test = new UndoTest();
+        for (int game = 0; game < GAMES; game++) {
+            test.run(game);
+        }
+        System.out.println("UndoTest: ok, " + test.applied + " actions applied and undone");
+    }
+
+    private void run(long seed) {
+        List<Player> players = new ArrayList<>(List.of(new Player("A"), new Player("B")));
+        GameCore game = new GameCore(players, 10, 10, seed);
+        RandomStrategy strategy = new RandomStrategy(seed);
+        ActionBuffer legal = new ActionBuffer();
+        int warmUp = random.nextInt(60);
+        for (int i = 0; i < warmUp && !game.checkLooseCondition(); i++) {
+            game.generateLegalActions(game.getCurrentPlayer(), legal);
+            game.perform(strategy.chooseAction(game, legal));
+        }
+        search(game, DEPTH);
+    }
+
+    private void search(GameCore game, int depth) {
+        if (depth == 0 || game.checkLooseCondition()) {
+            return;
+        }
+        ActionBuffer legal = buffers[depth - 1];
+        game.generateLegalActions(game.getCurrentPlayer(), legal);
+        String before = describe(game);
+        long hashBefore = game.getHash();
+        int branches = Math.min(legal.size(), BRANCHES);
+        for (int i = 0; i < branches; i++) {
+            long action = legal.get(random.nextInt(legal.size()));
+            int record = game.apply(action);
+            check(record >= 0, "legal action rejected: " + Action.toString(action));
+            applied++;
+
+            long incremental = game.getHash();
+            game.invalidateHash();
+            check(game.getHash() == incremental, "hash drifted after " + Action.toString(action));
+
+            search(game, depth - 1);
+            game.undo(record);
+            check(game.getHash() == hashBefore, "hash not restored after undoing " + Action.toString(action));
+            check(describe(game).equals(before), "state not restored after undoing " + Action.toString(action));
+        }
+    }
+}
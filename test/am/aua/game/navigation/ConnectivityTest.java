@@ -0,0 +1,61 @@
+package am.aua.game.navigation;
+
+import static am.aua.game.TestSupport.check;
+
+/**
+ * Checks that every generated map has a passable route between the two spawn corners,
+ * with a plain breadth-first search over passable cells, on random and noise terrain dense
+ * enough to wall the corners off before the connectivity pass carves a way through.
+ */
+public class ConnectivityTest {
+    public static void main(String[] args) {
+        int maps = 0;
+        for (int seed = 0; seed < 300; seed++) {
+            Map map = new Map(15 + seed % 40, 15 + seed % 23, seed, new RandomTerrain(45, 10));
+            check(cornersConnected(map), "random map " + seed + " has disconnected spawns");
+            maps++;
+        }
+        for (int seed = 0; seed < 50; seed++) {
+            Map map = new Map(30 + seed % 17, 20 + seed % 11, seed, new RandomTerrain(85, 10));
+            check(cornersConnected(map), "nearly solid map " + seed + " has disconnected spawns");
+            maps++;
+        }
+        for (int seed = 0; seed < 100; seed++) {
+            Map map = new Map(80, 60, seed, new NoiseTerrain(6, 3, 0.5, 0.5));
+            check(cornersConnected(map), "noise map " + seed + " has disconnected spawns");
+            maps++;
+        }
+        System.out.println("ConnectivityTest: ok, " + maps + " maps connected");
+    }
+
+    /**
+     * Breadth-first search in king steps over passable cells from the top left corner.
+     *
+     * @return true if the bottom right corner is reached
+     */
+    private static boolean cornersConnected(Map map) {
+        int cellCount = map.getCellCount();
+        boolean[] visited = new boolean[cellCount];
+        int[] queue = new int[cellCount];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        visited[0] = true;
+        int[] neighbours = new int[Map.NEIGHBOUR_COUNT];
+        while (head < tail) {
+            int cell = queue[head++];
+            if (cell == cellCount - 1) {
+                return true;
+            }
+            int count = map.getNeighbours(cell, neighbours);
+            for (int i = 0; i < count; i++) {
+                int next = neighbours[i];
+                if (!visited[next] && map.isPassable(next)) {
+                    visited[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return false;
+    }
+}
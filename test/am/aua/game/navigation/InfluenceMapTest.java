@@ -0,0 +1,113 @@
+package am.aua.game.navigation;
+
+import am.aua.game.gameLogic.Action;
+import am.aua.game.gameLogic.ActionBuffer;
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.players.Player;
+import am.aua.game.simulation.RandomStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static am.aua.game.TestSupport.check;
+
+/**
+ * Checks that the {@link InfluenceMap} kept up to date by {@link GameCore} always equals
+ * one rebuilt from scratch, after every applied action and after every undo, and that
+ * {@link GameCore#copy()} carries it over unchanged.
+ * <p>
+ * Games are first advanced by random play, then searched a few plies deep over random
+ * legal actions, undoing each one on the way back.
+ */
+public class InfluenceMapTest {
+    private static final int GAMES = 12;
+    private static final int DEPTH = 4;
+    private static final int BRANCHES = 5;
+
+    private final Random random = new Random(7);
+    private final ActionBuffer[] buffers = new ActionBuffer[DEPTH];
+    private int checked;
+
+    private InfluenceMapTest() {
+        for (int i = 0; i < DEPTH; i++) {
+            buffers[i] = new ActionBuffer();
+        }
+    }
+
+    public static void main(String[] args) {
+        InfluenceMapTest test = new InfluenceMapTest();
+        for (int game = 0; game < GAMES; game++) {
+            test.run(game);
+        }
+        System.out.println("InfluenceMapTest: ok, " + test.checked + " states checked");
+    }
+
+    private void run(long seed) {
+        List<Player> players = new ArrayList<>(List.of(new Player("A"), new Player("B")));
+        GameCore game = new GameCore(players, 40, 40, seed);
+        game.getInfluence();
+        RandomStrategy strategy = new RandomStrategy(seed);
+        ActionBuffer legal = new ActionBuffer();
+        int warmUp = 20 + random.nextInt(80);
+        for (int i = 0; i < warmUp && !game.checkLooseCondition(); i++) {
+            game.generateLegalActions(game.getCurrentPlayer(), legal);
+            game.perform(strategy.chooseAction(game, legal));
+        }
+        checkAgainstRebuild(game, "after random play");
+        search(game, DEPTH);
+    }
+
+    private void search(GameCore game, int depth) {
+        if (depth == 0 || game.checkLooseCondition()) {
+            return;
+        }
+        ActionBuffer legal = buffers[depth - 1];
+        game.generateLegalActions(game.getCurrentPlayer(), legal);
+        String before = describe(game);
+        int branches = Math.min(legal.size(), BRANCHES);
+        for (int i = 0; i < branches; i++) {
+            long action = legal.get(random.nextInt(legal.size()));
+            int record = game.apply(action);
+            check(record >= 0, "legal action rejected: " + Action.toString(action));
+            checkAgainstRebuild(game, "after " + Action.toString(action));
+            search(game, depth - 1);
+            game.undo(record);
+            check(describe(game).equals(before), "influence not restored after undoing " + Action.toString(action));
+        }
+    }
+
+    /**
+     * Compares the game's influence with the one its copy carries over and with one built
+     * from scratch.
+     */
+    private void checkAgainstRebuild(GameCore game, String when) {
+        String incremental = describe(game);
+        GameCore copy = game.copy();
+        check(describe(copy).equals(incremental), "copied influence differs " + when);
+        copy.invalidateHash();
+        check(describe(copy).equals(incremental), "influence differs from a rebuild " + when);
+        checked++;
+    }
+
+    /**
+     * Describes every layer and total of a game's influence.
+     */
+    private static String describe(GameCore game) {
+        InfluenceMap influence = game.getInfluence();
+        int cellCount = game.getMap().getCellCount();
+        StringBuilder description = new StringBuilder();
+        for (int player = 0; player < game.getPlayers().size(); player++) {
+            description.append(influence.getControlledCells(player)).append('/')
+                    .append(influence.getThreat(player)).append('/')
+                    .append(influence.getMaterial(player)).append('/')
+                    .append(influence.getTerritory(player)).append(':');
+            for (int cell = 0; cell < cellCount; cell++) {
+                description.append(' ').append(influence.getPressure(player, cell))
+                        .append(',').append(influence.getControlDistance(player, cell));
+            }
+            description.append('\n');
+        }
+        return description.toString();
+    }
+}
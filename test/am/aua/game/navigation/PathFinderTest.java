@@ -0,0 +1,147 @@
+package am.aua.game.navigation;
+
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.players.Player;
+import am.aua.game.units.UnitType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static am.aua.game.TestSupport.check;
+
+/**
+ * Checks {@link PathFinder} against a plain breadth-first search over walkable cells on
+ * random maps with scattered units: path lengths, the steps of every returned path, and
+ * the set of cells reachable within a step limit. Also checks that
+ * {@link GameCore#isPathClear(int, int)} answers for cells further apart than
+ * {@link PathFinder#MAX_STEPS} instead of exceeding the path finder's step limit.
+ */
+public class PathFinderTest {
+    private static final int MAPS = 60;
+    private static final int QUERIES = 100;
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        PathFinder pathFinder = new PathFinder();
+        int[] path = new int[PathFinder.MAX_STEPS];
+        int[] reachable = new int[4096];
+        int queries = 0;
+        for (int seed = 0; seed < MAPS; seed++) {
+            Map map = new Map(15 + random.nextInt(30), 15 + random.nextInt(30), seed, new RandomTerrain(25, 15));
+            Player player = new Player("P");
+            for (int i = 0; i < 20; i++) {
+                int cell = random.nextInt(map.getCellCount());
+                if (map.isWalkable(cell)) {
+                    map.setUnit(cell, UnitType.SOLDIER.create(player));
+                }
+            }
+
+            for (int query = 0; query < QUERIES; query++) {
+                int from = random.nextInt(map.getCellCount());
+                int maxSteps = 1 + random.nextInt(6);
+                int toX = clamp(map.xOf(from) + random.nextInt(2 * maxSteps + 3) - maxSteps - 1, map.getWidth());
+                int toY = clamp(map.yOf(from) + random.nextInt(2 * maxSteps + 3) - maxSteps - 1, map.getHeight());
+                int to = map.indexOf(toX, toY);
+
+                int expected = from == to || !map.isWalkable(to) ? -1 : distances(map, from, maxSteps)[to];
+                int length = pathFinder.findPath(map, from, to, maxSteps);
+                check(length == expected, "path length from " + from + " to " + to + " is " + length
+                        + ", breadth-first search found " + expected);
+                if (length > 0) {
+                    checkPath(map, from, to, path, pathFinder.getPath(map, path), length);
+                }
+
+                int[] distance = distances(map, from, maxSteps);
+                int count = pathFinder.findReachable(map, from, maxSteps, reachable);
+                Set<Integer> found = new HashSet<>();
+                for (int i = 0; i < count; i++) {
+                    found.add(reachable[i]);
+                }
+                int expectedCount = 0;
+                for (int cell = 0; cell < map.getCellCount(); cell++) {
+                    if (cell != from && distance[cell] >= 0) {
+                        expectedCount++;
+                        check(found.contains(cell), "cell " + cell + " is reachable from " + from
+                                + " in " + maxSteps + " steps but was not found");
+                    }
+                }
+                check(count == expectedCount, "found " + count + " reachable cells from " + from
+                        + ", expected " + expectedCount);
+                queries++;
+            }
+        }
+        checkLongDistances();
+        System.out.println("PathFinderTest: ok, " + queries + " queries");
+    }
+
+    /**
+     * Asks {@link GameCore#isPathClear(int, int)} about cells up to 199 steps apart on a
+     * 200x200 map, from cells without a unit, so the step limit is the distance itself.
+     */
+    private static void checkLongDistances() {
+        List<Player> players = new ArrayList<>(List.of(new Player("A"), new Player("B")));
+        GameCore game = new GameCore(players, 200, 200, 3);
+        Map map = game.getMap();
+        PathFinder pathFinder = new PathFinder();
+        int from = map.indexOf(0, 100);
+        check(map.getUnit(from) == null, "the start cell of the long distance check holds a unit");
+        for (int x = 1; x < map.getWidth(); x++) {
+            int to = map.indexOf(x, 100);
+            boolean expected = x <= PathFinder.MAX_STEPS && pathFinder.findPath(map, from, to, x) >= 0;
+            check(game.isPathClear(from, to) == expected, "isPathClear over " + x + " cells should be " + expected);
+        }
+        int corner = map.indexOf(map.getWidth() - 1, map.getHeight() - 1);
+        check(map.getUnit(0) == null, "the top left corner holds a unit");
+        check(!game.isPathClear(0, corner), "isPathClear across the whole map should be false");
+    }
+
+    private static void checkPath(Map map, int from, int to, int[] path, int steps, int length) {
+        check(steps == length, "path has " + steps + " steps, expected " + length);
+        check(path[steps - 1] == to, "path from " + from + " does not end at " + to);
+        int previous = from;
+        for (int i = 0; i < steps; i++) {
+            int cell = path[i];
+            int step = Math.max(Math.abs(map.xOf(previous) - map.xOf(cell)), Math.abs(map.yOf(previous) - map.yOf(cell)));
+            check(step == 1 && map.isWalkable(cell), "invalid step from " + previous + " to " + cell);
+            previous = cell;
+        }
+    }
+
+    /**
+     * Breadth-first search in king steps over walkable cells.
+     *
+     * @return the number of steps to each cell, or -1 where it takes more than maxSteps
+     */
+    private static int[] distances(Map map, int from, int maxSteps) {
+        int[] distance = new int[map.getCellCount()];
+        Arrays.fill(distance, -1);
+        distance[from] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(from);
+        int[] neighbours = new int[Map.NEIGHBOUR_COUNT];
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            if (distance[cell] == maxSteps) {
+                continue;
+            }
+            int count = map.getNeighbours(cell, neighbours);
+            for (int i = 0; i < count; i++) {
+                int next = neighbours[i];
+                if (distance[next] < 0 && map.isWalkable(next)) {
+                    distance[next] = distance[cell] + 1;
+                    queue.add(next);
+                }
+            }
+        }
+        return distance;
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+}
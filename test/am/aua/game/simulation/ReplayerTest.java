@@ -0,0 +1,128 @@
+package am.aua.game.simulation;
+
+import am.aua.game.fileIO.Replay;
+import am.aua.game.fileIO.ReplayRecorder;
+import am.aua.game.gameLogic.Action;
+import am.aua.game.gameLogic.GameCore;
+import am.aua.game.players.Player;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static am.aua.game.TestSupport.check;
+import static am.aua.game.TestSupport.describe;
+
+/**
+ * Checks that a game recorded by {@link ReplayRecorder} replays to the same final state,
+ * from both the seed and the snapshot starting forms, and that the {@link Replayer} reports
+ * a divergence when a checkpoint hash is tampered with or an action the game never
+ * performed was recorded.
+ */
+public class ReplayerTest {
+    private static final int GAMES = 20;
+    private static final int CHECKPOINT_INTERVAL = 8;
+
+    /** Tag of a checkpoint record, as documented by {@link ReplayRecorder}. */
+    private static final int CHECKPOINT = 0x0E;
+
+    public static void main(String[] args) throws IOException {
+        Path recording = Files.createTempFile("replay-test", ".replay");
+        Path tampered = Files.createTempFile("replay-test-tampered", ".replay");
+        int actions = 0;
+        int checkpoints = 0;
+        try {
+            for (int seed = 0; seed < GAMES; seed++) {
+                GameCore game = new GameCore(new ArrayList<>(List.of(new Player("A"), new Player("B"))), 30, 30, seed);
+                if (seed % 2 == 1) {
+                    // a game already under way is recorded as a snapshot
+                    Simulation warmUp = new Simulation(new RandomStrategy(seed), new RandomStrategy(seed + 7));
+                    warmUp.setMaxTurns(10);
+                    warmUp.run(game);
+                }
+                ReplayRecorder recorder = ReplayRecorder.start(recording, game, CHECKPOINT_INTERVAL);
+                Simulation simulation = new Simulation(new RandomStrategy(100 + seed), new RandomStrategy(200 + seed));
+                simulation.setMaxTurns(100);
+                simulation.run(game);
+                recorder.close();
+
+                Replay replay = Replay.load(recording);
+                Replayer replayer = new Replayer(replay);
+                check(replayer.runToEnd(), "game " + seed + " diverged: " + replayer.getDivergence());
+                check(replayer.getPosition() == replay.getActionCount(), "game " + seed + " stopped early");
+                check(describe(replayer.getGame()).equals(describe(game)), "game " + seed + " replayed to another state");
+                actions += replay.getActionCount();
+
+                checkpoints += checkTamperedCheckpoints(recording, tampered, replay);
+            }
+            checkUnperformedAction(recording);
+        } finally {
+            Files.deleteIfExists(recording);
+            Files.deleteIfExists(tampered);
+        }
+        System.out.println("ReplayerTest: ok, " + actions + " actions replayed, "
+                + checkpoints + " tampered checkpoints detected");
+    }
+
+    /**
+     * Flips a bit in the hash of each checkpoint in turn and checks that the replay diverges
+     * exactly there.
+     *
+     * @return the number of checkpoints tampered with
+     */
+    private static int checkTamperedCheckpoints(Path recording, Path tampered, Replay replay) throws IOException {
+        byte[] bytes = Files.readAllBytes(recording);
+        int tamperedCount = 0;
+        int offset = 0;
+        for (int checkpoint = 0; checkpoint < replay.getCheckpointCount(); checkpoint++) {
+            offset = findCheckpoint(bytes, offset, replay.getCheckpointHash(checkpoint));
+            check(offset >= 0, "checkpoint " + checkpoint + " not found in the recording");
+            byte[] copy = bytes.clone();
+            copy[offset + 1 + checkpoint % 8] ^= 0x10;
+            Files.write(tampered, copy);
+
+            Replayer replayer = new Replayer(Replay.load(tampered));
+            int position = replay.getCheckpointPosition(checkpoint);
+            check(!replayer.runToEnd(), "a tampered checkpoint after " + position + " actions was not detected");
+            check(replayer.getPosition() == position && replayer.getDivergence().contains("after " + position + " actions"),
+                    "a tampered checkpoint after " + position + " actions was reported as " + replayer.getDivergence());
+            tamperedCount++;
+            offset++;
+        }
+        return tamperedCount;
+    }
+
+    /**
+     * Returns the offset of the first checkpoint record holding a hash at or after an offset,
+     * or -1.
+     */
+    private static int findCheckpoint(byte[] bytes, int from, long hash) {
+        byte[] record = ByteBuffer.allocate(9).put((byte) CHECKPOINT).putLong(hash).array();
+        for (int offset = from; offset <= bytes.length - record.length; offset++) {
+            if (Arrays.equals(bytes, offset, offset + record.length, record, 0, record.length)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records an action the game never performed and checks that the replay stops at it.
+     */
+    private static void checkUnperformedAction(Path recording) throws IOException {
+        GameCore game = new GameCore(new ArrayList<>(List.of(new Player("A"), new Player("B"))), 20, 20, 1);
+        ReplayRecorder recorder = ReplayRecorder.start(recording, game, CHECKPOINT_INTERVAL);
+        game.perform(Action.endTurn());
+        recorder.actionPerformed(game, Action.sell(0));
+        game.perform(Action.endTurn());
+        recorder.close();
+
+        Replayer replayer = new Replayer(Replay.load(recording));
+        check(!replayer.runToEnd(), "an action the game never performed was replayed");
+        check(replayer.getPosition() == 1, "the replay stopped after " + replayer.getPosition() + " actions, expected 1");
+    }
+}